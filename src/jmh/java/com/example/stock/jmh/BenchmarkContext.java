@@ -0,0 +1,48 @@
+package com.example.stock.jmh;
+
+import com.example.stock.StockServiceApplication;
+import com.example.stock.model.Item;
+import com.example.stock.repository.ItemRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application without a web server against a private in-memory H2 database,
+ * the same way the integration tests do.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName) {
+        return new SpringApplicationBuilder(StockServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + databaseName
+                                + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE",
+                        "stock.db-init.enabled=false",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN")
+                .run();
+    }
+
+    static List<Long> seedItems(ConfigurableApplicationContext context, int count, int stock) {
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Item item = new Item();
+            item.setName("JMH item " + i);
+            item.setPrice(1.0 + i);
+            item.setStock(stock);
+            items.add(item);
+        }
+        return itemRepository.saveAll(items).stream().map(Item::getId).toList();
+    }
+}
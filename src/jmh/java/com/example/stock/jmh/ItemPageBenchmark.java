@@ -0,0 +1,65 @@
+package com.example.stock.jmh;
+
+import com.example.stock.model.Item;
+import com.example.stock.repository.ItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ItemRepository#findAll} with a page request (page query plus the COUNT query)
+ * for growing page sizes over 10,000 items. Goes to the repository directly, so the
+ * item cache is not involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemPageBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private int pages;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("jmh-pages-" + pageSize);
+        itemRepository = context.getBean(ItemRepository.class);
+        BenchmarkContext.seedItems(context, 10_000, 100);
+        pages = 10_000 / pageSize;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Walks through all pages so deep offsets are part of the average
+    @Benchmark
+    public Page<Item> findAll() {
+        int page = next;
+        next = (next + 1) % pages;
+        return itemRepository.findAll(PageRequest.of(page, pageSize));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.stock.jmh;
+
+import com.example.stock.model.Item;
+import com.example.stock.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the listing responses, with the mapper configured the way
+ * Spring Boot configures it for the controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<Item> itemPage;
+    private Page<Order> orderPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Item> items = new ArrayList<>(pageSize);
+        List<Order> orders = new ArrayList<>(pageSize);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < pageSize; i++) {
+            items.add(new Item((long) i, "Item " + i, 10.0 + i, 100 + i, 1L, null));
+            Order order = new Order();
+            order.setId((long) i);
+            order.setOrderNo("ORD-" + i);
+            order.setItemId((long) i);
+            order.setQty(1 + i % 5);
+            order.setPrice(10.0 + i);
+            order.setCreatedAt(now.minusSeconds(i));
+            orders.add(order);
+        }
+        itemPage = new PageImpl<>(items, PageRequest.of(0, pageSize), 100_000);
+        orderPage = new PageImpl<>(orders, PageRequest.of(0, pageSize), 100_000);
+    }
+
+    @Benchmark
+    public byte[] itemPage() throws Exception {
+        return objectMapper.writeValueAsBytes(itemPage);
+    }
+
+    @Benchmark
+    public byte[] orderPage() throws Exception {
+        return objectMapper.writeValueAsBytes(orderPage);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.stock.jmh;
+
+import com.example.stock.model.Inventory;
+import com.example.stock.model.Order;
+import com.example.stock.service.StockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link StockService#placeOrder} and {@link StockService#addInventory} end to end
+ * (strategy, transaction, Hibernate, H2), spread over a set of items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class StockServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private StockService stockService;
+    private List<Long> itemIds;
+    private final AtomicLong orderSeq = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("jmh-service");
+        stockService = context.getBean(StockService.class);
+        itemIds = BenchmarkContext.seedItems(context, 100, Integer.MAX_VALUE / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order placeOrder() {
+        Order order = new Order();
+        order.setOrderNo("JMH-" + orderSeq.incrementAndGet());
+        order.setItemId(randomItem());
+        order.setQty(1);
+        order.setPrice(1.0);
+        return stockService.placeOrder(order);
+    }
+
+    @Benchmark
+    public Inventory addInventory() {
+        Inventory inventory = new Inventory();
+        inventory.setItemId(randomItem());
+        inventory.setQty(1);
+        inventory.setType("T");
+        return stockService.addInventory(inventory);
+    }
+
+    private Long randomItem() {
+        return itemIds.get(ThreadLocalRandom.current().nextInt(itemIds.size()));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.stock.cache;
+
+import com.example.stock.event.StockChangedEvent;
+import com.example.stock.model.Item;
+import com.example.stock.repository.ItemRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded read-through cache of {@link Item} rows in front of {@link ItemRepository}.
+ *
+ * <p>Catalogue pages are cached as lists of ids and hydrated from the item cache, so a
+ * stock change only evicts the one item and never the pages it appears on. Pages are
+ * dropped when an item is created, renamed, repriced or deleted. Pages sorted by
+ * {@code stock} are not cached because every order can reorder them.
+ *
+ * <p>Rows read in bulk are put after the query, so an invalidation can arrive in between.
+ * Every invalidation takes the next sequence number and stores it in the id's stripe; a
+ * bulk load re-checks the stripes of what it put and drops the rows invalidated since it
+ * started.
+ *
+ * <p>Cached items are shared between requests and must not be modified by callers.
+ */
+@Component
+public class ItemCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemCache.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Value("${stock.cache.item.max-size:10000}")
+    private long maxItems = 10000;
+
+    @Value("${stock.cache.item.ttl-seconds:300}")
+    private long itemTtlSeconds = 300;
+
+    @Value("${stock.cache.page.max-size:1000}")
+    private long maxPages = 1000;
+
+    @Value("${stock.cache.page.ttl-seconds:60}")
+    private long pageTtlSeconds = 60;
+
+    private Cache<Long, Item> items;
+
+    private Cache<Pageable, PageIds> pages;
+
+    private record PageIds(List<Long> ids, long total) {
+    }
+
+    private static final int INVALIDATION_STRIPES = 1024;
+
+    private final AtomicLong invalidationSeq = new AtomicLong();
+
+    // Sequence number of the last invalidation of any id in the stripe
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(INVALIDATION_STRIPES);
+
+    @PostConstruct
+    public void init() {
+        items = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterWrite(Duration.ofSeconds(itemTtlSeconds))
+                .recordStats()
+                .build();
+        pages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(Duration.ofSeconds(pageTtlSeconds))
+                .recordStats()
+                .build();
+        log.info("[CACHE] Item cache enabled (max {} items, ttl {} s; max {} pages, ttl {} s)",
+                maxItems, itemTtlSeconds, maxPages, pageTtlSeconds);
+    }
+
+    public Optional<Item> get(Long id) {
+        // Missing items are not cached, so a later insert is visible immediately
+        return Optional.ofNullable(items.get(id, key -> itemRepository.findById(key).orElse(null)));
+    }
+
+    public Page<Item> getPage(Pageable pageable) {
+        if (pageable.getSort().getOrderFor("stock") != null) {
+            return itemRepository.findAll(pageable);
+        }
+        PageIds ids = pages.get(pageable, key -> {
+            long started = invalidationSeq.get();
+            Page<Item> page = itemRepository.findAll(key);
+            page.forEach(item -> items.put(item.getId(), item));
+            dropInvalidatedSince(started, page.map(Item::getId).getContent());
+            return new PageIds(page.map(Item::getId).getContent(), page.getTotalElements());
+        });
+
+        return new PageImpl<>(getAll(ids.ids()), pageable, ids.total());
+    }
+
+    /** The cached items with the given ids, in that order, loading misses in one query. */
+    public List<Item> getAll(List<Long> ids) {
+        long started = invalidationSeq.get();
+        List<Long> loadedIds = new ArrayList<>();
+        Map<Long, Item> found = items.getAll(ids, missing -> {
+            Map<Long, Item> loaded = new HashMap<>();
+            itemRepository.findAllById(List.<Long>copyOf(missing)).forEach(item -> loaded.put(item.getId(), item));
+            loadedIds.addAll(loaded.keySet());
+            return loaded;
+        });
+        dropInvalidatedSince(started, loadedIds);
+        List<Item> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Item item = found.get(id);
+            // Deleted since the ids were read
+            if (item != null) {
+                content.add(item);
+            }
+        }
+        return content;
+    }
+
+    /** Stores a freshly written item and drops cached pages, whose contents may have changed. */
+    public void put(Item item) {
+        items.put(item.getId(), item);
+        pages.invalidateAll();
+    }
+
+    public void evict(Long id) {
+        invalidate(id);
+        pages.invalidateAll();
+    }
+
+    /** Drops the given items and all cached pages, after a bulk write. */
+    public void evictAll(Collection<Long> ids) {
+        ids.forEach(this::invalidate);
+        pages.invalidateAll();
+    }
+
+    // A single-item load racing with the commit blocks this invalidation until it is done, so it
+    // cannot re-insert the old row afterwards. Bulk loads check the stripes instead.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        invalidate(event.itemId());
+    }
+
+    // Stamp before invalidating: a bulk load either sees the stamp or put its row before it was removed
+    private void invalidate(Long id) {
+        invalidatedAt.set(stripe(id), invalidationSeq.incrementAndGet());
+        items.invalidate(id);
+    }
+
+    // After the rows were put, so a racing invalidation cannot slip in between check and put
+    private void dropInvalidatedSince(long started, List<Long> ids) {
+        for (Long id : ids) {
+            if (invalidatedAt.get(stripe(id)) > started) {
+                items.invalidate(id);
+            }
+        }
+    }
+
+    private static int stripe(Long id) {
+        return (Long.hashCode(id) & Integer.MAX_VALUE) % INVALIDATION_STRIPES;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", describe(items.stats(), items.estimatedSize()));
+        body.put("pages", describe(pages.stats(), pages.estimatedSize()));
+        return body;
+    }
+
+    private Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", size);
+        body.put("hitCount", stats.hitCount());
+        body.put("missCount", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictionCount", stats.evictionCount());
+        return body;
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.stock.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search over item names, behind {@code GET /api/items/search}.
+ *
+ * <p>Names are lower-cased, stripped of accents and split into words. Every word of three or
+ * more characters is indexed by its trigrams, and every word by its first one and two
+ * characters. A query word of three or more characters matches anywhere inside a name word,
+ * a shorter one only at the start of a name word; all query words must match.
+ *
+ * <p>Items are numbered internally with dense {@code int} ids so each posting list is a
+ * sorted {@code int[]}. A query intersects the posting lists of its grams, shortest first,
+ * checks the survivors against the stored name and keeps the best {@code offset + size}
+ * in a bounded heap. Results rank exact names first, then names starting with the query,
+ * then names whose words start with the query words, then the rest; shorter names first
+ * within each group.
+ *
+ * <p>Built from {@code item} once the application is ready and updated by the item write
+ * paths of this instance. Writes made elsewhere appear after a restart.
+ */
+@Component
+public class ItemSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final int GRAM = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${stock.search.seed-page-size:10000}")
+    private int seedPageSize = 10000;
+
+    /** Item ids of one result page, best first, and the number of matching items. */
+    public record SearchResult(List<Long> itemIds, long total) {
+    }
+
+    private record Match(int doc, int rank, int length, long itemId) {
+    }
+
+    // Worst first, so the heap root is the match to drop
+    private static final Comparator<Match> WORST_FIRST = Comparator.comparingInt(Match::rank)
+            .thenComparingInt(Match::length)
+            .thenComparingLong(Match::itemId)
+            .reversed();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock
+    private final Map<Long, Integer> docByItem = new HashMap<>();
+    private long[] itemByDoc = new long[1024];
+    // Normalised names back to back, so checking candidates in doc order reads memory in order
+    private char[] names = new char[1 << 16];
+    private int namesUsed;
+    // Chars of replaced or removed names, reclaimed by compaction
+    private int namesFree;
+    private int[] nameStart = new int[1024];
+    // -1 for a free doc
+    private int[] nameLength = new int[1024];
+    private int docCount;
+    private int[] freeDocs = new int[16];
+    private int freeCount;
+    private final Map<String, Postings> grams = new HashMap<>();
+    private final Map<String, Postings> prefixes = new HashMap<>();
+
+    /** Growable sorted set of doc ids. */
+    private static final class Postings {
+
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            // Docs arrive in ascending order while seeding
+            int at = size == 0 || docs[size - 1] < doc ? size : Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0 && at < size) {
+                return;
+            }
+            at = at < 0 ? -at - 1 : at;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            docs[at] = doc;
+            size++;
+        }
+
+        void remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0) {
+                System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+                size--;
+            }
+        }
+
+        // First position at or after from holding a doc >= target, or size; gallops then bisects
+        int seek(int target, int from) {
+            // Intersected lists are usually dense, so the target is mostly a few slots ahead
+            int near = Math.min(size, from + 8);
+            while (from < near && docs[from] < target) {
+                from++;
+            }
+            if (from < near || from == size) {
+                return from;
+            }
+            // docs[lo] < target throughout
+            int lo = from - 1;
+            int hi = from;
+            int step = 1;
+            while (hi < size && docs[hi] < target) {
+                lo = hi;
+                step <<= 1;
+                hi = lo + step;
+            }
+            int at = Arrays.binarySearch(docs, lo + 1, Math.min(hi + 1, size), target);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        int loaded;
+        try {
+            do {
+                List<Object[]> rows = jdbcTemplate.query("SELECT id, name FROM item WHERE id > ? ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)}, lastId, seedPageSize);
+                lock.writeLock().lock();
+                try {
+                    for (Object[] row : rows) {
+                        // An item written while seeding is already indexed with its newer name
+                        if (!docByItem.containsKey((Long) row[0])) {
+                            index((Long) row[0], (String) row[1]);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                loaded = rows.size();
+                if (loaded > 0) {
+                    lastId = (Long) rows.get(loaded - 1)[0];
+                }
+            } while (loaded == seedPageSize);
+            log.info("[SEARCH] Name index built for {} items, {} grams ({} ms)", size(), gramCount(),
+                    System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            log.warn("[SEARCH] Could not build item name index: {}", e.getMessage());
+        }
+    }
+
+    /** Adds an item or replaces its name. */
+    public void put(Long itemId, String name) {
+        lock.writeLock().lock();
+        try {
+            unindex(itemId);
+            index(itemId, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            unindex(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByItem.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int gramCount() {
+        lock.readLock().lock();
+        try {
+            return grams.size() + prefixes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchResult search(String query, long offset, int size) {
+        List<String> words = words(query);
+        if (words.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+        char[] phrase = String.join(" ", words).toCharArray();
+        char[][] wordChars = new char[words.size()][];
+        for (int i = 0; i < wordChars.length; i++) {
+            wordChars[i] = words.get(i).toCharArray();
+        }
+        int keep = (int) Math.min(offset + size, Integer.MAX_VALUE);
+        PriorityQueue<Match> best = new PriorityQueue<>(Math.min(keep, 1024) + 1, WORST_FIRST);
+        long total = 0;
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String key : queryKeys(words)) {
+                Postings postings = (key.length() < GRAM ? prefixes : grams).get(key);
+                if (postings == null) {
+                    return new SearchResult(List.of(), 0);
+                }
+                lists.add(postings);
+            }
+            lists.sort(Comparator.comparingInt(postings -> postings.size));
+            Postings shortest = lists.get(0);
+            // Per list position; candidates ascend, so every list is walked forward only once
+            int[] cursors = new int[lists.size()];
+            Match worst = null;
+            candidates:
+            for (int i = 0; i < shortest.size; i++) {
+                int doc = shortest.docs[i];
+                for (int j = 1; j < lists.size(); j++) {
+                    Postings other = lists.get(j);
+                    cursors[j] = other.seek(doc, cursors[j]);
+                    if (cursors[j] == other.size) {
+                        break candidates;
+                    }
+                    if (other.docs[cursors[j]] != doc) {
+                        continue candidates;
+                    }
+                }
+                int rank = rank(doc, phrase, wordChars);
+                if (rank < 0) {
+                    continue;
+                }
+                total++;
+                int length = nameLength[doc];
+                // Most matches of a broad query cannot make the page; skip them without allocating
+                if (worst != null && best.size() == keep && (rank > worst.rank() || (rank == worst.rank()
+                        && (length > worst.length() || (length == worst.length()
+                        && itemByDoc[doc] > worst.itemId()))))) {
+                    continue;
+                }
+                best.add(new Match(doc, rank, length, itemByDoc[doc]));
+                if (best.size() > keep) {
+                    best.poll();
+                }
+                worst = best.peek();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> ordered = new ArrayList<>(best);
+        ordered.sort(WORST_FIRST.reversed());
+        List<Long> ids = new ArrayList<>(size);
+        for (long i = offset; i < ordered.size(); i++) {
+            ids.add(ordered.get((int) i).itemId());
+        }
+        return new SearchResult(ids, total);
+    }
+
+    // 0 exact, 1 name prefix, 2 every word a word prefix, 3 infix; -1 when a word is missing
+    private int rank(int doc, char[] phrase, char[][] words) {
+        int start = nameStart[doc];
+        int end = start + nameLength[doc];
+        boolean startsWithPhrase = end - start >= phrase.length && matchesAt(start, phrase);
+        if (startsWithPhrase && end - start == phrase.length) {
+            return 0;
+        }
+        boolean allWordPrefixes = true;
+        for (char[] word : words) {
+            int at = indexOf(word, start, end);
+            while (at > start && names[at - 1] != ' ') {
+                at = indexOf(word, at + 1, end);
+            }
+            if (at >= 0) {
+                continue;
+            }
+            if (word.length < GRAM || indexOf(word, start, end) < 0) {
+                return -1;
+            }
+            allWordPrefixes = false;
+        }
+        if (startsWithPhrase) {
+            return 1;
+        }
+        return allWordPrefixes ? 2 : 3;
+    }
+
+    private int indexOf(char[] word, int from, int end) {
+        char first = word[0];
+        for (int i = from, last = end - word.length; i <= last; i++) {
+            if (names[i] == first && matchesAt(i, word)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matchesAt(int at, char[] word) {
+        for (int i = 1; i < word.length; i++) {
+            if (names[at + i] != word[i]) {
+                return false;
+            }
+        }
+        return word.length == 0 || names[at] == word[0];
+    }
+
+    private String name(int doc) {
+        return new String(names, nameStart[doc], nameLength[doc]);
+    }
+
+    // Called with the write lock held
+    private void storeName(int doc, String name) {
+        int length = name.length();
+        if (namesUsed + length > names.length) {
+            if (namesFree > namesUsed / 2) {
+                compactNames();
+            }
+            if (namesUsed + length > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, namesUsed + length));
+            }
+        }
+        name.getChars(0, length, names, namesUsed);
+        nameStart[doc] = namesUsed;
+        nameLength[doc] = length;
+        namesUsed += length;
+    }
+
+    // Called with the write lock held; rewrites live names in doc order
+    private void compactNames() {
+        char[] compacted = new char[names.length];
+        int used = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (nameLength[doc] >= 0) {
+                System.arraycopy(names, nameStart[doc], compacted, used, nameLength[doc]);
+                nameStart[doc] = used;
+                used += nameLength[doc];
+            }
+        }
+        names = compacted;
+        namesUsed = used;
+        namesFree = 0;
+    }
+
+    // Called with the write lock held
+    private void index(Long itemId, String name) {
+        List<String> words = words(name);
+        int doc = freeCount > 0 ? freeDocs[--freeCount] : docCount++;
+        if (doc == itemByDoc.length) {
+            itemByDoc = Arrays.copyOf(itemByDoc, doc * 2);
+            nameStart = Arrays.copyOf(nameStart, doc * 2);
+            nameLength = Arrays.copyOf(nameLength, doc * 2);
+        }
+        itemByDoc[doc] = itemId;
+        storeName(doc, String.join(" ", words));
+        docByItem.put(itemId, doc);
+        for (String key : indexKeys(words)) {
+            (key.length() < GRAM ? prefixes : grams).computeIfAbsent(key, k -> new Postings()).add(doc);
+        }
+    }
+
+    // Called with the write lock held
+    private void unindex(Long itemId) {
+        Integer doc = docByItem.remove(itemId);
+        if (doc == null) {
+            return;
+        }
+        for (String key : indexKeys(words(name(doc)))) {
+            Map<String, Postings> map = key.length() < GRAM ? prefixes : grams;
+            Postings postings = map.get(key);
+            if (postings != null) {
+                postings.remove(doc);
+                if (postings.size == 0) {
+                    map.remove(key);
+                }
+            }
+        }
+        namesFree += nameLength[doc];
+        nameLength[doc] = -1;
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+        }
+        freeDocs[freeCount++] = doc;
+    }
+
+    // Trigrams of long words and the one and two character prefix of every word
+    private static Set<String> indexKeys(List<String> words) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String word : words) {
+            keys.add(word.substring(0, 1));
+            if (word.length() >= 2) {
+                keys.add(word.substring(0, 2));
+            }
+            addTrigrams(word, keys);
+        }
+        return keys;
+    }
+
+    // Short query words can only match as a word prefix. Longer ones only need trigrams that
+    // cover the word, since every candidate is checked against the name anyway
+    private static Set<String> queryKeys(List<String> words) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String word : words) {
+            if (word.length() < GRAM) {
+                keys.add(word);
+                continue;
+            }
+            for (int i = 0; i + GRAM < word.length(); i += GRAM) {
+                keys.add(word.substring(i, i + GRAM));
+            }
+            keys.add(word.substring(word.length() - GRAM));
+        }
+        return keys;
+    }
+
+    private static void addTrigrams(String word, Set<String> keys) {
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            keys.add(word.substring(i, i + GRAM));
+        }
+    }
+
+    private static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : NON_WORD.split(folded)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.stock.cache;
+
+import com.example.stock.dto.LowStockItem;
+import com.example.stock.event.LowStockEvent;
+import com.example.stock.metrics.StockMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Every item ordered by stock level, so the k lowest-stock items are read without touching
+ * the database.
+ *
+ * <p>Seeded from {@code item} once the application is ready and then kept current by
+ * {@link com.example.stock.feed.StockChangeFeed}, which reads the committed stock of changed
+ * items once per dispatch interval. Reads see a level at most that interval old.
+ *
+ * <p>When an update takes an item below its {@code reorder_point} a {@link LowStockEvent}
+ * is published. Seeding never publishes.
+ */
+@Component
+public class LowStockIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockIndex.class);
+
+    private record Entry(long itemId, int stock, Integer reorderPoint) {
+
+        boolean belowReorderPoint() {
+            return reorderPoint != null && stock < reorderPoint;
+        }
+    }
+
+    private static final Comparator<Entry> BY_STOCK =
+            Comparator.comparingInt(Entry::stock).thenComparingLong(Entry::itemId);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StockMetrics stockMetrics;
+
+    private final ConcurrentHashMap<Long, Entry> byItem = new ConcurrentHashMap<>();
+
+    // May briefly hold an item twice while it moves; readers keep the entry matching byItem
+    private final ConcurrentSkipListSet<Entry> byStock = new ConcurrentSkipListSet<>(BY_STOCK);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        try {
+            jdbcTemplate.query("SELECT id, stock, reorder_point FROM item", rs -> {
+                long itemId = rs.getLong(1);
+                int stock = rs.getInt(2);
+                Integer reorderPoint = rs.getObject(3) == null ? null : rs.getInt(3);
+                // An update that raced ahead of the seed query is newer
+                if (byItem.putIfAbsent(itemId, new Entry(itemId, stock, reorderPoint)) == null) {
+                    byStock.add(byItem.get(itemId));
+                }
+            });
+            log.info("[LOW-STOCK] Index seeded with {} items", byItem.size());
+        } catch (DataAccessException e) {
+            log.warn("[LOW-STOCK] Could not seed low-stock index: {}", e.getMessage());
+        }
+    }
+
+    /** Records the committed stock of an item and reports a crossing of its reorder point. */
+    public void update(Long itemId, int stock, Integer reorderPoint) {
+        Entry next = new Entry(itemId, stock, reorderPoint);
+        Entry[] previous = new Entry[1];
+        byItem.compute(itemId, (id, old) -> {
+            previous[0] = old;
+            if (old == null || old.stock() != stock) {
+                byStock.add(next);
+            }
+            return next;
+        });
+        Entry old = previous[0];
+        if (old != null && old.stock() != stock) {
+            byStock.remove(old);
+        }
+        if (next.belowReorderPoint() && old != null && !old.belowReorderPoint()) {
+            log.warn("[LOW-STOCK] Item {} fell below its reorder point: {} < {}", itemId, stock, reorderPoint);
+            stockMetrics.recordLowStock(itemId);
+            eventPublisher.publishEvent(new LowStockEvent(itemId, stock, reorderPoint));
+        }
+    }
+
+    public void remove(Long itemId) {
+        Entry old = byItem.remove(itemId);
+        if (old != null) {
+            byStock.remove(old);
+        }
+    }
+
+    /**
+     * Up to {@code limit} items with the lowest stock, ascending, limited to stock below
+     * {@code threshold} unless that is null.
+     */
+    public List<LowStockItem> lowest(Integer threshold, int limit) {
+        List<LowStockItem> result = new ArrayList<>(Math.min(limit, 64));
+        for (Entry entry : byStock) {
+            if (result.size() >= limit || (threshold != null && entry.stock() >= threshold)) {
+                break;
+            }
+            Entry current = byItem.get(entry.itemId());
+            if (current != null && current.stock() == entry.stock()) {
+                result.add(new LowStockItem(current.itemId(), current.stock(), current.reorderPoint()));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return byItem.size();
+    }
+}
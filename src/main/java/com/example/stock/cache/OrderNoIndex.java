@@ -0,0 +1,84 @@
+package com.example.stock.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded set of recently used order numbers, so retried orders can be recognised before
+ * any stock is touched.
+ *
+ * <p>Only order numbers known to be taken are stored, so a hit is always a real duplicate.
+ * A miss proves nothing: the number may have been evicted or written by another instance,
+ * and the unique index on {@code orders.order_no} still decides.
+ *
+ * <p>Seeded with the newest {@code stock.idempotency.max-entries} order numbers once the
+ * application is ready (after {@code db-init.sql} has run on a fresh database).
+ */
+@Component
+public class OrderNoIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderNoIndex.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${stock.idempotency.max-entries:200000}")
+    private long maxEntries = 200000;
+
+    @Value("${stock.idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    private Cache<String, Boolean> orderNos;
+
+    @PostConstruct
+    public void init() {
+        orderNos = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        try {
+            int[] count = new int[1];
+            jdbcTemplate.query("SELECT order_no FROM orders ORDER BY id DESC LIMIT ?", rs -> {
+                orderNos.put(rs.getString(1), Boolean.TRUE);
+                count[0]++;
+            }, maxEntries);
+            log.info("[IDEMPOTENCY] Order number index seeded with {} recent orders (max {}, ttl {} h)",
+                    count[0], maxEntries, ttlHours);
+        } catch (DataAccessException e) {
+            // Still correct without seeding, duplicates are then caught by the unique index
+            log.warn("[IDEMPOTENCY] Could not seed order number index: {}", e.getMessage());
+        }
+    }
+
+    public boolean contains(String orderNo) {
+        return orderNo != null && orderNos.getIfPresent(orderNo) != null;
+    }
+
+    public void add(String orderNo) {
+        if (orderNo != null) {
+            orderNos.put(orderNo, Boolean.TRUE);
+        }
+    }
+
+    public void remove(String orderNo) {
+        if (orderNo != null) {
+            orderNos.invalidate(orderNo);
+        }
+    }
+}
@@ -4,23 +4,54 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
 
 /**
  * Database Initializer - Executes db-init.sql ONLY on first application startup
- * Checks if tables exist before executing initialization
+ * Checks the schema version before executing initialization
+ *
+ * <p>The {@code schema_version} row holds the number of {@code db-migration/} scripts the
+ * schema includes; db-init.sql includes all of them. When it is behind, the missing scripts
+ * run in order, each one only if the table or column it creates is missing. A database
+ * created before {@code schema_version} existed starts from 0.
  */
 @Component
+@ConditionalOnProperty(name = "stock.db-init.enabled", havingValue = "true", matchIfMissing = true)
 public class DatabaseInitializer implements CommandLineRunner {
 
     private static final Logger log = LoggerFactory.getLogger(DatabaseInitializer.class);
 
+    private static final String SCHEMA_VERSION_SCRIPT = "db-migration/00-schema-version.sql";
+
+    // Oldest first; db-init.sql already contains all of them
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration("db-migration/01-item-version.sql", "item", "version"),
+            new Migration("db-migration/02-daily-item-sales.sql", "daily_item_sales", null),
+            new Migration("db-migration/03-item-reorder-point.sql", "item", "reorder_point"),
+            new Migration("db-migration/04-reservation.sql", "reservation", null),
+            new Migration("db-migration/05-orders-lease-id.sql", "orders", "lease_id"),
+            new Migration("db-migration/06-stock-lease.sql", "stock_lease", null),
+            new Migration("db-migration/07-ledger-archive.sql", "ledger_archive", null),
+            new Migration("db-migration/08-ledger-archive-balance.sql", "ledger_archive_balance", null),
+            new Migration("db-migration/09-stock-journal-checkpoint.sql", "stock_journal_checkpoint", null),
+            new Migration("db-migration/10-id-generator.sql", "id_generator", null));
+
+    // A script and the table, or table column, it creates
+    private record Migration(String script, String table, String column) {
+    }
+
     @Autowired
     private DataSource dataSource;
 
@@ -31,18 +62,26 @@ public class DatabaseInitializer implements CommandLineRunner {
     public void run(String... args) throws Exception {
         log.info("[DATABASE INITIALIZER] Checking if database initialization is needed...");
 
-        boolean tablesExist = checkIfTablesExist();
-
-        if (tablesExist) {
-            log.info("[DATABASE INITIALIZER] Tables already exist. Skipping initialization.");
+        // A single-row read: constant time however large the tables are
+        Integer version = schemaVersion();
+        if (version != null && version >= MIGRATIONS.size()) {
+            log.info("[DATABASE INITIALIZER] Schema is at version {}. Skipping initialization.", version);
+            return;
+        }
+        if (version == null && !itemTableExists()) {
+            initialize();
             return;
         }
+        migrate(version);
+    }
 
+    private void initialize() {
         log.info("[DATABASE INITIALIZER] Tables not found. Executing db-init.sql...");
 
         try (Connection connection = dataSource.getConnection()) {
             // Execute the SQL script
             ScriptUtils.executeSqlScript(connection, new ClassPathResource("db-init.sql"));
+            recordVersion(MIGRATIONS.size());
             log.info("[DATABASE INITIALIZER] ✓ Database initialization completed successfully!");
             log.info("[DATABASE INITIALIZER] ✓ Created tables: item, orders, inventory");
             log.info("[DATABASE INITIALIZER] ✓ Created indexes for optimal query performance");
@@ -53,23 +92,84 @@ public class DatabaseInitializer implements CommandLineRunner {
         }
     }
 
+    // version is null on a database created before schema_version existed
+    private void migrate(Integer version) {
+        int from = version == null ? 0 : version;
+        log.info("[DATABASE INITIALIZER] Schema is at version {} of {}. Migrating...", from, MIGRATIONS.size());
 
-    private boolean checkIfTablesExist() {
-        try {
-
-            Integer itemCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class);
-            if (itemCount == null || itemCount == 0) {
-                log.info("[DATABASE INITIALIZER] Item table empty or missing data. Will run initialization.");
-                return false;
+        try (Connection connection = dataSource.getConnection()) {
+            if (version == null) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource(SCHEMA_VERSION_SCRIPT));
+            }
+            DatabaseMetaData metaData = connection.getMetaData();
+            String catalog = connection.getCatalog();
+            for (int i = from; i < MIGRATIONS.size(); i++) {
+                Migration migration = MIGRATIONS.get(i);
+                boolean present = migration.column() == null
+                        ? tableExists(metaData, catalog, migration.table())
+                        : columnExists(metaData, catalog, migration.table(), migration.column());
+                if (!present) {
+                    log.info("[DATABASE INITIALIZER] Applying {}", migration.script());
+                    ScriptUtils.executeSqlScript(connection, new ClassPathResource(migration.script()));
+                }
+                // MySQL commits DDL immediately, so record each step as it completes
+                recordVersion(i + 1);
             }
+            log.info("[DATABASE INITIALIZER] ✓ Schema migrated to version {}", MIGRATIONS.size());
+        } catch (Exception e) {
+            log.error("[DATABASE INITIALIZER] ✗ Failed to migrate database", e);
+            throw new RuntimeException("Database migration failed", e);
+        }
+    }
 
-            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class);
-            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory", Integer.class);
+    // Null when schema_version does not exist
+    private Integer schemaVersion() {
+        try {
+            List<Integer> rows = jdbcTemplate.queryForList("SELECT version FROM schema_version", Integer.class);
+            return rows.isEmpty() ? 0 : rows.get(0);
+        } catch (DataAccessException e) {
+            return null;
+        }
+    }
 
-            return true;
-        } catch (Exception e) {
+    private void recordVersion(int version) {
+        if (jdbcTemplate.update("UPDATE schema_version SET version = ?", version) == 0) {
+            jdbcTemplate.update("INSERT INTO schema_version (version) VALUES (?)", version);
+        }
+    }
+
+    private boolean itemTableExists() {
+        try (Connection connection = dataSource.getConnection()) {
+            return tableExists(connection.getMetaData(), connection.getCatalog(), "item");
+        } catch (SQLException e) {
             log.info("[DATABASE INITIALIZER] Requesting initialization (Tables missing or error: {})", e.getMessage());
             return false;
         }
     }
+
+    private static boolean tableExists(DatabaseMetaData metaData, String catalog, String table) throws SQLException {
+        // Identifier case depends on the database and its settings
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet tables = metaData.getTables(catalog, null, name, null)) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean columnExists(DatabaseMetaData metaData, String catalog, String table, String column)
+            throws SQLException {
+        for (String tableName : new String[]{table, table.toUpperCase()}) {
+            for (String columnName : new String[]{column, column.toUpperCase()}) {
+                try (ResultSet columns = metaData.getColumns(catalog, null, tableName, columnName)) {
+                    if (columns.next()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
 }
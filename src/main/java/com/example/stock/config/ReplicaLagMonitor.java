@@ -0,0 +1,122 @@
+package com.example.stock.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether the replica is fresh enough to serve reads.
+ *
+ * <p>Every {@code stock.replica.lag-check-interval-ms} the newest heartbeat that reached the
+ * replica is read from {@code replica_heartbeat}, then a new one is written to the primary.
+ * The replica holds every write up to its heartbeat, so {@code now - heartbeat} bounds how
+ * stale a replica read can be. It is never below the check interval. The replica is used
+ * while that bound is within {@code stock.replica.max-lag-ms} and the last read succeeded.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private final long checkIntervalMs;
+
+    private ScheduledExecutorService scheduler;
+
+    // Only the monitor thread writes heartbeats
+    private boolean tableChecked;
+
+    private volatile boolean replicaUsable;
+    // -1 until a heartbeat has been read from the replica
+    private volatile long lagMs = -1;
+
+    public ReplicaLagMonitor(JdbcTemplate primary, JdbcTemplate replica, long maxLagMs, long checkIntervalMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("[REPLICA] Read replica enabled (max lag {} ms, checked every {} ms)", maxLagMs, checkIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long lagMillis() {
+        return lagMs;
+    }
+
+    /** Called when a replica connection could not be opened; reads go to the primary until the next check. */
+    void replicaFailed(Exception e) {
+        setUsable(false, "connection failed: " + e.getMessage());
+    }
+
+    void check() {
+        long now = System.currentTimeMillis();
+        try {
+            List<Long> beats = replica.queryForList("SELECT beat FROM replica_heartbeat WHERE id = 1", Long.class);
+            if (beats.isEmpty()) {
+                setUsable(false, "no heartbeat replicated yet");
+            } else {
+                lagMs = Math.max(0, now - beats.get(0));
+                setUsable(lagMs <= maxLagMs, "lag " + lagMs + " ms");
+            }
+        } catch (DataAccessException e) {
+            setUsable(false, "heartbeat read failed: " + e.getMessage());
+        }
+        writeHeartbeat(now);
+    }
+
+    private void writeHeartbeat(long now) {
+        try {
+            if (!tableChecked) {
+                // Created on the primary, so replication brings it to the replica
+                primary.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat BIGINT NOT NULL)");
+                tableChecked = true;
+            }
+            if (primary.update("UPDATE replica_heartbeat SET beat = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (id, beat) VALUES (1, ?)", now);
+            }
+        } catch (DuplicateKeyException e) {
+            // Another instance wrote the first heartbeat
+        } catch (DataAccessException e) {
+            log.warn("[REPLICA] Could not write heartbeat to the primary: {}", e.getMessage());
+        }
+    }
+
+    private void setUsable(boolean usable, String reason) {
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("[REPLICA] Replica reads resumed ({})", reason);
+            } else {
+                log.warn("[REPLICA] Reads fall back to the primary ({})", reason);
+            }
+        }
+        replicaUsable = usable;
+    }
+}
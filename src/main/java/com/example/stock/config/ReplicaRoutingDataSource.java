@@ -0,0 +1,87 @@
+package com.example.stock.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions that asked for it with {@link #preferReplica()} to the
+ * replica pool and everything else to the primary.
+ *
+ * <p>Opting in per transaction matters: Spring Data runs every repository finder in a
+ * read-only transaction of its own, and routing all of those would let a find-then-save
+ * (such as {@code updateItem}) read a lagging row and write it back.
+ *
+ * <p>The key is resolved when a connection is fetched, which must happen after the
+ * transaction has started; {@link ReadReplicaConfig} puts a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} in front for
+ * that. While {@link ReplicaLagMonitor} reports the replica as behind or unreachable, or
+ * when a replica connection cannot be opened, the primary serves the read instead.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    // Bound to the current transaction by preferReplica()
+    private static final Object PREFER_REPLICA = new Object();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Lets the current read-only transaction read from the replica. Call it before the first
+     * statement; outside a read-only transaction, or without a replica configured, it does
+     * nothing.
+     */
+    public static void preferReplica() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || TransactionSynchronizationManager.hasResource(PREFER_REPLICA)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PREFER_REPLICA, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PREFER_REPLICA);
+            }
+        });
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replicaRead = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && TransactionSynchronizationManager.hasResource(PREFER_REPLICA)
+                && lagMonitor.isReplicaUsable();
+        return replicaRead ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target != replica) {
+            return target.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            lagMonitor.replicaFailed(e);
+            return primary.getConnection();
+        }
+    }
+}
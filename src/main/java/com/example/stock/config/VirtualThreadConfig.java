@@ -0,0 +1,46 @@
+package com.example.stock.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Virtual-thread mode ({@code spring.threads.virtual.enabled=true}, JDK 21+).
+ *
+ * <p>With a virtual thread per request, thousands of requests can reach the JDBC layer at
+ * once while the pool only has a handful of connections. The main {@link DataSource} is
+ * wrapped in a {@link ConnectionLimitingDataSource} so that excess requests wait briefly
+ * and then fail fast with 503 instead of queueing inside Hikari.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    // Static so the post-processor does not force early initialisation of this class
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor(Environment environment) {
+        int maxConcurrent = environment.getProperty("stock.vthreads.connection-limit.max-concurrent", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long acquireTimeoutMs = environment.getProperty("stock.vthreads.connection-limit.acquire-timeout-ms",
+                Long.class, 2000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    log.info("[VTHREADS] Limiting concurrent connection checkouts to {} (wait up to {} ms)",
+                            maxConcurrent, acquireTimeoutMs);
+                    return new ConnectionLimitingDataSource(dataSource, maxConcurrent, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.stock.controller;
 
+import com.example.stock.dto.ExportFormat;
+import com.example.stock.dto.KeysetCursor;
+import com.example.stock.dto.KeysetSlice;
+import com.example.stock.exception.UnsupportedFormatException;
 import com.example.stock.model.Inventory;
 import com.example.stock.service.StockService;
 import org.slf4j.Logger;
@@ -7,8 +11,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -16,6 +27,8 @@ public class InventoryController {
 
     private static final Logger log = LoggerFactory.getLogger(InventoryController.class);
 
+    private static final int MAX_SEEK_SIZE = 1000;
+
     @Autowired
     private StockService stockService;
 
@@ -28,13 +41,48 @@ public class InventoryController {
         return ResponseEntity.ok(inventory);
     }
 
+    @GetMapping("/seek")
+    public ResponseEntity<KeysetSlice<Inventory>> seekInventory(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("GET /api/inventory/seek - Getting inventory transactions after cursor (size: {})", size);
+        int pageSize = Math.max(1, Math.min(size, MAX_SEEK_SIZE));
+        Slice<Inventory> slice = stockService.getInventoryAfter(cursor == null ? null : KeysetCursor.decode(cursor), pageSize);
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            Inventory last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        log.info("Successfully retrieved {} inventory transactions", slice.getNumberOfElements());
+        return ResponseEntity.ok(new KeysetSlice<>(slice.getContent(), pageSize, slice.hasNext(), nextCursor));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInventory(@RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long itemId) {
+        log.info("GET /api/inventory/export - Exporting inventory transactions (format: {}, from: {}, to: {}, item: {})",
+                format, from, to, itemId);
+        ExportFormat exportFormat = format == null ? ExportFormat.NDJSON : ExportFormat.fromParam(format);
+        if (exportFormat == null) {
+            // The declared body type has to stay StreamingResponseBody for the export to stream
+            throw new UnsupportedFormatException("Unknown format: " + format);
+        }
+        StreamingResponseBody body = out -> stockService.exportInventory(exportFormat, from, to, itemId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"inventory." + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
     @PostMapping
     public ResponseEntity<Inventory> addInventory(@RequestBody Inventory inventory) {
         String transactionType = "T".equals(inventory.getType()) ? "Top-Up" : "Withdrawal";
-        log.info("POST /api/inventory - Adding inventory transaction: {} {} units for item ID {}",
+        log.debug("POST /api/inventory - Adding inventory transaction: {} {} units for item ID {}",
                 transactionType, inventory.getQty(), inventory.getItemId());
         Inventory savedInventory = stockService.addInventory(inventory);
-        log.info("Successfully added inventory transaction with ID: {}", savedInventory.getId());
+        log.debug("Successfully added inventory transaction with ID: {}", savedInventory.getId());
         return ResponseEntity.ok(savedInventory);
     }
 
@@ -1,5 +1,9 @@
 package com.example.stock.controller;
 
+import com.example.stock.dto.ExportFormat;
+import com.example.stock.dto.ImportReport;
+import com.example.stock.dto.LowStockItem;
+import com.example.stock.dto.ReconciliationReport;
 import com.example.stock.model.Item;
 import com.example.stock.service.StockService;
 import org.slf4j.Logger;
@@ -7,8 +11,17 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/items")
@@ -16,6 +29,10 @@ public class ItemController {
 
     private static final Logger log = LoggerFactory.getLogger(ItemController.class);
 
+    private static final int MAX_LOW_STOCK_LIMIT = 1000;
+
+    private static final int MAX_SEARCH_SIZE = 100;
+
     @Autowired
     private StockService stockService;
 
@@ -42,6 +59,49 @@ public class ItemController {
                 });
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        log.info("GET /api/items/cache/stats - Getting item cache statistics");
+        return ResponseEntity.ok(stockService.getItemCacheStats());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<Item>> searchItems(@RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("GET /api/items/search - Searching items for '{}' (page: {}, size: {})", q, page, size);
+        Page<Item> items = stockService.searchItems(q,
+                PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_SEARCH_SIZE))));
+        log.info("Search matched {} items", items.getTotalElements());
+        return ResponseEntity.ok(items);
+    }
+
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<LowStockItem>> getLowStockItems(@RequestParam(required = false) Integer threshold,
+            @RequestParam(defaultValue = "50") int limit) {
+        log.info("GET /api/items/low-stock - Getting lowest-stock items (threshold: {}, limit: {})", threshold, limit);
+        List<LowStockItem> items = stockService.getLowStockItems(threshold,
+                Math.max(1, Math.min(limit, MAX_LOW_STOCK_LIMIT)));
+        log.info("Successfully retrieved {} low-stock items", items.size());
+        return ResponseEntity.ok(items);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockChanges(@RequestParam(required = false) Set<Long> itemIds,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("GET /api/items/stream - Subscribing to stock changes (items: {}, last event: {})",
+                itemIds == null ? "all" : itemIds, lastEventId);
+        return stockService.streamStockChanges(itemIds, lastEventId);
+    }
+
+    @PostMapping("/reconcile")
+    public ResponseEntity<ReconciliationReport> reconcileStock(@RequestParam(defaultValue = "false") boolean repair) {
+        log.info("POST /api/items/reconcile - Reconciling stock with the ledger (repair: {})", repair);
+        ReconciliationReport report = stockService.reconcileStock(repair);
+        log.info("Reconciliation found {} mismatches", report.getMismatches().size());
+        return ResponseEntity.ok(report);
+    }
+
     @PostMapping
     public ResponseEntity<Item> createItem(@RequestBody Item item) {
         log.info("POST /api/items - Creating new item: {}", item.getName());
@@ -50,6 +110,25 @@ public class ItemController {
         return ResponseEntity.ok(savedItem);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importItems(@RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format) throws IOException {
+        log.info("POST /api/items/import - Importing items from {} ({} bytes)", file.getOriginalFilename(),
+                file.getSize());
+        ExportFormat importFormat = format != null ? ExportFormat.fromParam(format)
+                : file.getOriginalFilename() != null && file.getOriginalFilename().toLowerCase().endsWith(".csv")
+                        ? ExportFormat.CSV : ExportFormat.NDJSON;
+        if (importFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unknown format: " + format));
+        }
+        try (InputStream in = file.getInputStream()) {
+            ImportReport report = stockService.importItems(importFormat, in);
+            log.info("Import finished: {} inserted, {} updated, {} rejected",
+                    report.getInserted(), report.getUpdated(), report.getFailed());
+            return ResponseEntity.ok(report);
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Item> updateItem(@PathVariable Long id, @RequestBody Item item) {
         log.info("PUT /api/items/{} - Updating item", id);
@@ -1,14 +1,30 @@
 package com.example.stock.controller;
 
+import com.example.stock.dto.BatchOrderResult;
+import com.example.stock.dto.ExportFormat;
+import com.example.stock.dto.KeysetCursor;
+import com.example.stock.dto.KeysetSlice;
+import com.example.stock.exception.UnsupportedFormatException;
 import com.example.stock.model.Order;
 import com.example.stock.service.StockService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -16,9 +32,14 @@ public class OrderController {
 
     private static final Logger log = LoggerFactory.getLogger(OrderController.class);
 
+    private static final int MAX_SEEK_SIZE = 1000;
+
     @Autowired
     private StockService stockService;
 
+    @Value("${stock.batch.max-size:5000}")
+    private int maxBatchSize;
+
     @GetMapping
     public ResponseEntity<Page<Order>> getAllOrders(@RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
@@ -28,15 +49,64 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/seek")
+    public ResponseEntity<KeysetSlice<Order>> seekOrders(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("GET /api/orders/seek - Getting orders after cursor (size: {})", size);
+        int pageSize = Math.max(1, Math.min(size, MAX_SEEK_SIZE));
+        Slice<Order> slice = stockService.getOrdersAfter(cursor == null ? null : KeysetCursor.decode(cursor), pageSize);
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            Order last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        log.info("Successfully retrieved {} orders", slice.getNumberOfElements());
+        return ResponseEntity.ok(new KeysetSlice<>(slice.getContent(), pageSize, slice.hasNext(), nextCursor));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long itemId) {
+        log.info("GET /api/orders/export - Exporting orders (format: {}, from: {}, to: {}, item: {})",
+                format, from, to, itemId);
+        ExportFormat exportFormat = format == null ? ExportFormat.NDJSON : ExportFormat.fromParam(format);
+        if (exportFormat == null) {
+            // The declared body type has to stay StreamingResponseBody for the export to stream
+            throw new UnsupportedFormatException("Unknown format: " + format);
+        }
+        StreamingResponseBody body = out -> stockService.exportOrders(exportFormat, from, to, itemId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"orders." + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
     @PostMapping
     public ResponseEntity<Order> placeOrder(@RequestBody Order order) {
-        log.info("POST /api/orders - Placing order: {} for {} units of item ID {}",
+        log.debug("POST /api/orders - Placing order: {} for {} units of item ID {}",
                 order.getOrderNo(), order.getQty(), order.getItemId());
         Order savedOrder = stockService.placeOrder(order);
-        log.info("Successfully placed order {} with ID: {}", savedOrder.getOrderNo(), savedOrder.getId());
+        log.debug("Successfully placed order {} with ID: {}", savedOrder.getOrderNo(), savedOrder.getId());
         return ResponseEntity.ok(savedOrder);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> placeOrders(@RequestBody List<Order> orders) {
+        log.info("POST /api/orders/batch - Placing {} orders", orders.size());
+        if (orders.size() > maxBatchSize) {
+            log.warn("Rejected batch of {} orders (limit {})", orders.size(), maxBatchSize);
+            return ResponseEntity.badRequest().body(Map.of(
+                    "message", "Batch size " + orders.size() + " exceeds the limit of " + maxBatchSize,
+                    "status", HttpStatus.BAD_REQUEST.value()));
+        }
+        List<BatchOrderResult> results = stockService.placeOrders(orders);
+        log.info("Successfully processed batch of {} orders", results.size());
+        return ResponseEntity.ok(results);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order order) {
         log.info("PUT /api/orders/{} - Updating order", id);
@@ -0,0 +1,56 @@
+package com.example.stock.controller;
+
+import com.example.stock.dto.DailyItemSales;
+import com.example.stock.service.StockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportController.class);
+
+    @Autowired
+    private StockService stockService;
+
+    @GetMapping("/daily-sales")
+    public ResponseEntity<?> getDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long itemId) {
+        log.info("GET /api/reports/daily-sales - Getting sales from {} to {} (item: {})", from, to, itemId);
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "'to' must not be before 'from'"));
+        }
+        List<DailyItemSales> sales = stockService.getDailySales(from, to, itemId);
+        log.info("Successfully retrieved {} daily sales rows", sales.size());
+        return ResponseEntity.ok(sales);
+    }
+
+    @PostMapping("/daily-sales/backfill")
+    public ResponseEntity<Map<String, Object>> backfillDailySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("POST /api/reports/daily-sales/backfill - Rebuilding sales rollup from {} to {}", from, to);
+        Map<String, Object> summary = stockService.backfillDailySales(from, to);
+        log.info("Successfully rebuilt sales rollup: {}", summary);
+        return ResponseEntity.ok(summary);
+    }
+
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveLedgers() {
+        log.info("POST /api/reports/archive - Archiving ledger days past the retention window");
+        Map<String, Object> summary = stockService.archiveLedgers();
+        log.info("Successfully archived ledgers: {}", summary);
+        return ResponseEntity.ok(summary);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.stock.controller;
+
+import com.example.stock.dto.ReservationConfirmation;
+import com.example.stock.dto.ReservationRequest;
+import com.example.stock.model.Order;
+import com.example.stock.model.Reservation;
+import com.example.stock.service.StockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reservations")
+public class ReservationController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationController.class);
+
+    @Autowired
+    private StockService stockService;
+
+    @PostMapping
+    public ResponseEntity<Reservation> holdStock(@RequestBody ReservationRequest request) {
+        log.debug("POST /api/reservations - Holding {} units of item ID {}", request.getQty(), request.getItemId());
+        Reservation reservation = stockService.holdStock(request);
+        log.debug("Successfully held stock with reservation ID: {}", reservation.getId());
+        return ResponseEntity.ok(reservation);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Reservation> getReservation(@PathVariable Long id) {
+        log.debug("GET /api/reservations/{} - Getting reservation", id);
+        return stockService.getReservation(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    log.warn("Reservation with ID {} not found", id);
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<Order> confirmReservation(@PathVariable Long id,
+            @RequestBody ReservationConfirmation confirmation) {
+        log.debug("POST /api/reservations/{}/confirm - Confirming as order {}", id, confirmation.getOrderNo());
+        Order order = stockService.confirmReservation(id, confirmation);
+        log.debug("Successfully confirmed reservation {} as order ID: {}", id, order.getId());
+        return ResponseEntity.ok(order);
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Reservation> cancelReservation(@PathVariable Long id) {
+        log.debug("POST /api/reservations/{}/cancel - Cancelling reservation", id);
+        Reservation reservation = stockService.cancelReservation(id);
+        log.debug("Reservation {} is now {}", id, reservation.getStatus());
+        return ResponseEntity.ok(reservation);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.stock.dto;
+
+import com.example.stock.model.Order;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one order in a {@code POST /api/orders/batch} request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResult {
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String FAILED = "FAILED";
+
+    private String orderNo;
+    private String status;
+    private Order order;
+    private String message;
+
+    // Exception a single placeOrder would have thrown for this order
+    @JsonIgnore
+    private RuntimeException error;
+
+    public static BatchOrderResult success(Order order) {
+        return new BatchOrderResult(order.getOrderNo(), SUCCESS, order, null, null);
+    }
+
+    public static BatchOrderResult failure(String orderNo, RuntimeException error) {
+        return failure(orderNo, error.getMessage(), error);
+    }
+
+    public static BatchOrderResult failure(String orderNo, String message, RuntimeException error) {
+        return new BatchOrderResult(orderNo, FAILED, null, message, error);
+    }
+
+    public boolean isSuccess() {
+        return SUCCESS.equals(status);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Units sold and revenue of one item on one day, read from the {@code daily_item_sales} rollup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyItemSales {
+
+    private Long itemId;
+    private LocalDate date;
+    private long units;
+    private double revenue;
+}
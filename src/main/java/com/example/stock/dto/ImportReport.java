@@ -0,0 +1,32 @@
+package com.example.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a {@code POST /api/items/import} upload. {@code errors} lists the first rejected
+ * lines; {@code failed} counts all of them.
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private long durationMs;
+    private List<LineError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of {@code GET /api/items/low-stock}, read from the in-memory low-stock index.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockItem {
+
+    private Long itemId;
+    private int stock;
+    // Null when the item has no reorder point
+    private Integer reorderPoint;
+}
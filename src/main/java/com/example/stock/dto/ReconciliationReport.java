@@ -0,0 +1,33 @@
+package com.example.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a stock reconciliation run: items whose {@code stock} column disagrees with
+ * the ledger (top-ups minus withdrawals minus orders).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+
+    private long itemsChecked;
+    private int chunks;
+    private boolean repair;
+    private int repaired;
+    private long durationMs;
+    private List<Mismatch> mismatches;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mismatch {
+        private Long itemId;
+        private int recorded;
+        private long expected;
+    }
+}
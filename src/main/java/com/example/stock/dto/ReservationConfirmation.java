@@ -0,0 +1,17 @@
+package com.example.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of {@code POST /api/reservations/{id}/confirm}: the order the held stock becomes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationConfirmation {
+
+    private String orderNo;
+    private Double price;
+}
@@ -0,0 +1,19 @@
+package com.example.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of {@code POST /api/reservations}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+
+    private Long itemId;
+    private Integer qty;
+    // Null for stock.reservation.default-ttl-seconds
+    private Long ttlSeconds;
+}
@@ -0,0 +1,386 @@
+package com.example.stock.engine;
+
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.exception.StockEngineOverloadedException;
+import com.example.stock.feed.StockChangeFeed;
+import com.example.stock.model.Inventory;
+import com.example.stock.model.Item;
+import com.example.stock.model.Order;
+import com.example.stock.repository.InventoryRepository;
+import com.example.stock.repository.ItemRepository;
+import com.example.stock.repository.OrderRepository;
+import com.example.stock.service.SalesRollupService;
+import com.example.stock.service.strategy.StockMutationStrategy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authoritative in-memory stock, enabled with {@code stock.engine.mode=memory}.
+ *
+ * <p>Per-item stock lives in lock-free counters keyed by item id, loaded from the
+ * {@code item} table at startup (and lazily for items created later). Orders and
+ * inventory transactions reserve stock with a CAS and are queued for the
+ * {@link WriteBehindWriter}, which persists them together with the new
+ * {@code item.stock} values in batches. Until a queued write is flushed, its change is
+ * tracked next to the item's stock and left out of the {@code item.stock} value written,
+ * so the column never runs ahead of the rows in the database.
+ *
+ * <p>Durability: an acknowledged order or inventory transaction is only in memory until
+ * the next flush, so a crash loses at most {@code stock.engine.max-pending} records or
+ * {@code stock.engine.max-lag-ms} worth of writes. New writes are rejected with
+ * {@link StockEngineOverloadedException} once either bound is reached. The engine must
+ * be the only writer of {@code item.stock} while enabled.
+ *
+ * <p>With {@code stock.engine.journal.enabled=true} both are first appended to the
+ * {@link StockJournal} and answered only once the record is on disk. Since
+ * {@code item.stock} only ever reflects flushed writes, a restart can replay the journal
+ * past the database checkpoint without counting anything twice.
+ *
+ * <p>The engine starts once the application is ready, after {@code DatabaseInitializer}
+ * has created or migrated the schema: it loads the stock, replays the journal and starts
+ * flushing. Orders and inventory transactions arriving before then are rejected with
+ * {@link StockEngineOverloadedException}.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "stock.engine.mode", havingValue = "memory")
+public class InMemoryStockEngine implements StockMutationStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryStockEngine.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private StockChangeFeed stockChangeFeed;
+
+    @Value("${stock.engine.flush-interval-ms:100}")
+    private long flushIntervalMs = 100;
+
+    @Value("${stock.engine.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${stock.engine.max-pending:50000}")
+    private int maxPending = 50000;
+
+    @Value("${stock.engine.max-lag-ms:5000}")
+    private long maxLagMs = 5000;
+
+    @Value("${stock.engine.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMs = 50;
+
+    @Value("${stock.engine.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${stock.engine.journal.dir:journal}")
+    private String journalDir = "journal";
+
+    @Value("${stock.engine.journal.segment-size-mb:64}")
+    private int segmentSizeMb = 64;
+
+    @Value("${stock.engine.journal.sync-timeout-ms:5000}")
+    private long syncTimeoutMs = 5000;
+
+    // Stock in the high 32 bits, change of queued writes not yet flushed in the low 32
+    private final ConcurrentHashMap<Long, AtomicLong> levels = new ConcurrentHashMap<>();
+
+    private WriteBehindWriter writer;
+
+    private StockJournal journal;
+
+    // Set once the journal is replayed; until then hot-path writes would bypass it
+    private volatile boolean started;
+
+    @PostConstruct
+    public void init() {
+        writer = new WriteBehindWriter(this, transactionTemplate, orderRepository, inventoryRepository,
+                jdbcTemplate, salesRollupService, batchSize, maxPending, maxLagMs, enqueueTimeoutMs);
+    }
+
+    // Not in @PostConstruct: the checkpoint table may only exist once the CommandLineRunners are done
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loadFromDatabase();
+        if (journalEnabled) {
+            journal = StockJournal.open(Path.of(journalDir), segmentSizeMb * 1024 * 1024);
+            replayJournal();
+        }
+        writer.start(flushIntervalMs);
+        started = true;
+        log.info("[ENGINE] In-memory stock engine enabled (flush every {} ms, max lag {} ms, max pending {}, journal {})",
+                flushIntervalMs, maxLagMs, maxPending, journalEnabled ? journalDir : "off");
+    }
+
+    @PreDestroy
+    public void stop() {
+        writer.stop();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void loadFromDatabase() {
+        jdbcTemplate.query("SELECT id, stock FROM item", rs -> {
+            levels.putIfAbsent(rs.getLong(1), new AtomicLong(pack(rs.getInt(2), 0)));
+        });
+        log.info("[ENGINE] Loaded stock for {} items", levels.size());
+    }
+
+    // --- HOT PATH ---
+
+    /**
+     * Reserves stock for the order and queues it for persistence. The returned order has
+     * no id yet; it is assigned when the write-behind flush inserts the row.
+     */
+    public Order placeOrder(Order order) {
+        checkStarted();
+        reserve(order.getItemId(), order.getQty(), true);
+        if (journal != null) {
+            appendDurably(order, order.getItemId(), -order.getQty());
+            return order;
+        }
+        try {
+            writer.enqueue(order);
+        } catch (StockEngineOverloadedException e) {
+            adjustQueued(order.getItemId(), order.getQty());
+            throw e;
+        }
+        return order;
+    }
+
+    public Inventory addInventory(Inventory inventory) {
+        checkStarted();
+        int delta = WriteBehindWriter.delta(inventory);
+        if (delta > 0) {
+            adjustQueued(inventory.getItemId(), delta);
+        } else {
+            reserve(inventory.getItemId(), inventory.getQty(), true);
+        }
+        if (journal != null) {
+            appendDurably(inventory, inventory.getItemId(), delta);
+            return inventory;
+        }
+        try {
+            writer.enqueue(inventory);
+        } catch (StockEngineOverloadedException e) {
+            adjustQueued(inventory.getItemId(), -delta);
+            throw e;
+        }
+        return inventory;
+    }
+
+    private void checkStarted() {
+        if (!started) {
+            throw new StockEngineOverloadedException("Stock engine is starting, retry shortly");
+        }
+    }
+
+    // Appends after the in-memory change and waits for the fsync; undoes the change if the append fails
+    private void appendDurably(Object entity, Long itemId, int delta) {
+        long seq;
+        try {
+            seq = journal.append(entity, s -> writer.enqueueJournaled(entity, s));
+        } catch (RuntimeException e) {
+            adjustQueued(itemId, -delta);
+            throw e;
+        }
+        // Already queued: if this times out the write is still applied, so clients retry with the same orderNo
+        journal.awaitDurable(seq, syncTimeoutMs);
+    }
+
+    // --- STOCK MUTATION STRATEGY (used inside transactions by the other write paths) ---
+
+    @Override
+    public void decrement(Long itemId, int qty) {
+        reserve(itemId, qty, false);
+        afterCompletion(itemId, qty);
+    }
+
+    @Override
+    public void increment(Long itemId, int qty) {
+        adjust(itemId, qty);
+        afterCompletion(itemId, -qty);
+    }
+
+    /** Current in-memory stock, or null when the item has not been loaded. */
+    public Integer currentStock(Long itemId) {
+        AtomicLong level = levels.get(itemId);
+        return level == null ? null : stockOf(level.get());
+    }
+
+    /**
+     * Stock to write to {@code item.stock} in a flush that writes {@code flushing} of the
+     * item's queued change, or null when the item has not been loaded.
+     */
+    Integer stockToPersist(Long itemId, int flushing) {
+        AtomicLong level = levels.get(itemId);
+        if (level == null) {
+            return null;
+        }
+        long packed = level.get();
+        return stockOf(packed) - unflushedOf(packed) + flushing;
+    }
+
+    /** Forgets a deleted item so later orders for it fail fast. */
+    public void evict(Long itemId) {
+        levels.remove(itemId);
+    }
+
+    /** How far the write-behind flush currently lags behind, in milliseconds. */
+    public long lagMillis() {
+        return writer.lagMillis();
+    }
+
+    // Unconditional change, used for top-ups and to undo reservations
+    void adjust(Long itemId, int delta) {
+        level(itemId).addAndGet((long) delta << 32);
+        writer.markDirty(itemId);
+        stockChangeFeed.markChanged(itemId);
+    }
+
+    // Unconditional change of a queued write, or its undo with a negated delta
+    void adjustQueued(Long itemId, int delta) {
+        level(itemId).updateAndGet(packed -> pack(stockOf(packed) + delta, unflushedOf(packed) + delta));
+        writer.markDirty(itemId);
+        stockChangeFeed.markChanged(itemId);
+    }
+
+    // The flush has written a queued change to the database
+    void flushed(Long itemId, int delta) {
+        AtomicLong level = levels.get(itemId);
+        if (level != null) {
+            level.updateAndGet(packed -> pack(stockOf(packed), unflushedOf(packed) - delta));
+        }
+    }
+
+    void journalApplied(long seq) {
+        if (journal != null) {
+            journal.truncate(seq);
+        }
+    }
+
+    private void reserve(Long itemId, int qty, boolean queued) {
+        AtomicLong level = level(itemId);
+        while (true) {
+            long packed = level.get();
+            int current = stockOf(packed);
+            if (current < qty) {
+                throw new InsufficientStockException(
+                        "Insufficient stock. Current: " + current + ", Requested: " + qty);
+            }
+            int unflushed = queued ? unflushedOf(packed) - qty : unflushedOf(packed);
+            if (level.compareAndSet(packed, pack(current - qty, unflushed))) {
+                writer.markDirty(itemId);
+                stockChangeFeed.markChanged(itemId);
+                return;
+            }
+        }
+    }
+
+    private AtomicLong level(Long itemId) {
+        AtomicLong level = levels.get(itemId);
+        if (level != null) {
+            return level;
+        }
+        // Items created after startup are loaded on first use
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id " + itemId));
+        AtomicLong loaded = new AtomicLong(pack(item.getStock(), 0));
+        AtomicLong existing = levels.putIfAbsent(itemId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static long pack(int stock, int unflushed) {
+        return ((long) stock << 32) | (unflushed & 0xFFFFFFFFL);
+    }
+
+    private static int stockOf(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    private static int unflushedOf(long packed) {
+        return (int) packed;
+    }
+
+    // Undo an in-memory change when the surrounding transaction rolls back
+    private void afterCompletion(Long itemId, int undoDelta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    adjust(itemId, undoDelta);
+                }
+            }
+        });
+    }
+
+    // --- JOURNAL REPLAY ---
+
+    // Applies journaled writes the database has not seen yet, before any new request is taken
+    private void replayJournal() {
+        long checkpoint = writer.loadCheckpoint();
+        journal.startAfter(checkpoint);
+        int replayed = 0;
+        for (StockJournal.Entry entry : journal.recovered()) {
+            if (entry.seq() <= checkpoint) {
+                continue;
+            }
+            Long itemId = WriteBehindWriter.itemIdOf(entry.entity());
+            try {
+                adjustQueued(itemId, WriteBehindWriter.delta(entry.entity()));
+            } catch (ResourceNotFoundException e) {
+                log.warn("[ENGINE] Skipping journal record {} for deleted item {}", entry.seq(), itemId);
+                continue;
+            }
+            if (writer.backlog() >= batchSize) {
+                writer.flush();
+            }
+            writer.enqueueJournaled(entry.entity(), entry.seq());
+            replayed++;
+        }
+        writer.flush();
+        if (writer.backlog() > 0) {
+            throw new IllegalStateException("Could not apply " + writer.backlog() + " journal records, see log");
+        }
+        journal.truncate(journal.lastSeq());
+        if (replayed > 0) {
+            log.info("[ENGINE] Replayed {} journal records after checkpoint {}", replayed, checkpoint);
+        }
+    }
+}
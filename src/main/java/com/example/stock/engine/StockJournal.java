@@ -0,0 +1,506 @@
+package com.example.stock.engine;
+
+import com.example.stock.exception.StockEngineOverloadedException;
+import com.example.stock.model.Inventory;
+import com.example.stock.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal for {@link InMemoryStockEngine}. Every order and
+ * inventory transaction is appended as a small binary record to a memory-mapped segment
+ * file before the caller is answered.
+ *
+ * <p>Record layout: {@code int length, int crc32, long seq, byte kind, long itemId,
+ * int qty}, then {@code double price, short length, orderNo bytes} for orders or
+ * {@code byte type} for inventory. A zero length marks the end of a segment.
+ *
+ * <p>One sync thread forces the mapped pages to disk for everything appended since its
+ * last pass (group commit), so callers waiting in {@link #awaitDurable} share one fsync.
+ * Segments are named after their first sequence number and deleted once the write-behind
+ * flush has applied all of their records. A segment is unmapped before its file is deleted,
+ * and {@link #close} unmaps them all: Windows refuses to delete a file that is still mapped,
+ * and the JDK would otherwise only release the mapping when the buffer is garbage collected.
+ */
+class StockJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StockJournal.class);
+
+    private static final String SUFFIX = ".seg";
+    private static final int HEADER = 8;
+    private static final byte ORDER = 'O';
+    private static final byte INVENTORY = 'I';
+    // Unsafe.invokeCleaner(ByteBuffer), bound; null if this JVM does not offer it
+    private static final MethodHandle CLEANER = cleaner();
+
+    private final Path dir;
+    private final int segmentSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    // Full segments, oldest first, waiting for their records to be applied
+    private final Deque<Segment> closed = new ArrayDeque<>();
+    private final List<Entry> recovered = new ArrayList<>();
+
+    private Segment active;
+    // Segment the sync thread is forcing outside the lock; not unmapped until it is done
+    private Segment syncing;
+    private long nextSeq = 1;
+    private long appendedSeq;
+    private long durableSeq;
+    private RuntimeException failure;
+    private volatile boolean running = true;
+    private final Thread syncThread;
+
+    /** A record read back from the journal at startup. */
+    record Entry(long seq, Object entity) {
+    }
+
+    private StockJournal(Path dir, int segmentSize) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.syncThread = new Thread(this::syncLoop, "stock-journal-sync");
+        this.syncThread.setDaemon(true);
+    }
+
+    /** Opens the journal in {@code dir}, reading back every intact record. */
+    static StockJournal open(Path dir, int segmentSize) {
+        StockJournal journal = new StockJournal(dir, segmentSize);
+        try {
+            Files.createDirectories(dir);
+            journal.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open stock journal in " + dir, e);
+        }
+        journal.syncThread.start();
+        return journal;
+    }
+
+    /** Records found at startup, in sequence order. */
+    List<Entry> recovered() {
+        return recovered;
+    }
+
+    /**
+     * Appends a record and hands its sequence number to {@code onAppended} while still
+     * holding the append lock, so whatever the callback queues is in sequence order. If the
+     * callback throws, the record is erased again and the exception is rethrown.
+     */
+    long append(Object entity, LongConsumer onAppended) {
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new StockEngineOverloadedException("Stock journal is unavailable: " + failure.getMessage());
+            }
+            long seq = nextSeq;
+            byte[] body = encode(seq, entity);
+            int size = HEADER + body.length;
+            if (size > segmentSize) {
+                throw new IllegalArgumentException("Journal record of " + size + " bytes exceeds the segment size");
+            }
+            if (active == null || active.position + size > segmentSize) {
+                roll(seq);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            int position = active.position;
+            // Body and checksum first, length last, so a torn write never looks complete
+            active.buffer.putInt(position + 4, (int) crc.getValue());
+            active.buffer.put(position + HEADER, body);
+            active.buffer.putInt(position, body.length);
+            try {
+                onAppended.accept(seq);
+            } catch (RuntimeException e) {
+                active.buffer.putInt(position, 0);
+                throw e;
+            }
+            active.position += size;
+            active.lastSeq = seq;
+            nextSeq = seq + 1;
+            appendedSeq = seq;
+            appended.signal();
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Blocks until the record with {@code seq} has been forced to disk. */
+    void awaitDurable(long seq, long timeoutMs) {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (failure != null) {
+                    throw new StockEngineOverloadedException("Stock journal is unavailable: " + failure.getMessage());
+                }
+                if (remaining <= 0) {
+                    throw new StockEngineOverloadedException("Timed out waiting for the stock journal sync");
+                }
+                remaining = synced.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StockEngineOverloadedException("Interrupted while waiting for the stock journal sync");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Deletes full segments whose records are all applied up to {@code appliedSeq}. */
+    void truncate(long appliedSeq) {
+        List<Segment> removable = new ArrayList<>();
+        lock.lock();
+        try {
+            while (!closed.isEmpty() && closed.peekFirst().lastSeq <= appliedSeq) {
+                Segment segment = closed.pollFirst();
+                // Rolled over while the sync thread was forcing its tail
+                while (syncing == segment) {
+                    synced.awaitUninterruptibly();
+                }
+                removable.add(segment);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Segment segment : removable) {
+            unmap(segment);
+            try {
+                Files.deleteIfExists(segment.path);
+                log.debug("[JOURNAL] Deleted applied segment {}", segment.path.getFileName());
+            } catch (IOException e) {
+                log.warn("[JOURNAL] Could not delete segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Continues numbering after {@code seq}, the database checkpoint, in case the journal
+     * directory was emptied or replaced while the checkpoint was kept.
+     */
+    void startAfter(long seq) {
+        lock.lock();
+        try {
+            if (nextSeq <= seq) {
+                nextSeq = seq + 1;
+                appendedSeq = seq;
+                durableSeq = seq;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long lastSeq() {
+        lock.lock();
+        try {
+            return appendedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        lock.lock();
+        try {
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            syncThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Segment> segments = new ArrayList<>();
+        lock.lock();
+        try {
+            if (active != null && failure == null) {
+                active.buffer.force();
+            }
+            // The sync thread is gone unless the join timed out; then it may still be forcing
+            if (syncing == null) {
+                segments.addAll(closed);
+                closed.clear();
+                if (active != null) {
+                    segments.add(active);
+                    active = null;
+                }
+            }
+            if (failure == null) {
+                failure = new IllegalStateException("Stock journal is closed");
+            }
+        } finally {
+            lock.unlock();
+        }
+        segments.forEach(StockJournal::unmap);
+    }
+
+    // --- GROUP COMMIT ---
+
+    private void syncLoop() {
+        while (true) {
+            Segment segment;
+            int from;
+            int to;
+            long target;
+            lock.lock();
+            try {
+                while (running && appendedSeq == durableSeq) {
+                    appended.awaitUninterruptibly();
+                }
+                if (appendedSeq == durableSeq) {
+                    return;
+                }
+                segment = active;
+                from = segment.synced;
+                to = segment.position;
+                target = appendedSeq;
+                syncing = segment;
+            } finally {
+                lock.unlock();
+            }
+
+            RuntimeException error = null;
+            try {
+                // Earlier segments were forced completely when they were rolled over
+                if (to > from) {
+                    segment.buffer.force(from, to - from);
+                }
+            } catch (RuntimeException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                syncing = null;
+                if (error != null) {
+                    log.error("[JOURNAL] Sync failed, rejecting further writes", error);
+                    failure = error;
+                } else {
+                    segment.synced = Math.max(segment.synced, to);
+                    durableSeq = Math.max(durableSeq, target);
+                }
+                synced.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Called with the lock held
+    private void roll(long firstSeq) {
+        if (active != null) {
+            active.buffer.force();
+            active.synced = active.position;
+            closed.addLast(active);
+        }
+        Path path = dir.resolve(String.format("%020d%s", firstSeq, SUFFIX));
+        try {
+            active = Segment.map(path, segmentSize, true);
+            syncDirectory();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + path, e);
+        }
+        log.debug("[JOURNAL] Started segment {}", path.getFileName());
+    }
+
+    // Makes the new file name durable; not supported on every platform
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("[JOURNAL] Directory sync not supported: {}", e.getMessage());
+        }
+    }
+
+    // --- RECOVERY ---
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            Segment segment = Segment.map(file, (int) Math.max(Files.size(file), segmentSize), false);
+            scan(segment);
+            if (active != null) {
+                closed.addLast(active);
+            }
+            active = segment;
+        }
+        if (active != null) {
+            // Clear whatever a torn write left behind the last intact record
+            for (int i = active.position; i < active.buffer.capacity(); i++) {
+                active.buffer.put(i, (byte) 0);
+            }
+            active.buffer.force();
+            active.synced = active.position;
+            if (active.lastSeq == 0) {
+                active.lastSeq = firstSeqOf(active.path) - 1;
+            }
+        }
+        durableSeq = appendedSeq;
+        if (!recovered.isEmpty()) {
+            log.info("[JOURNAL] Read {} records from {} segments up to seq {}", recovered.size(), files.size(),
+                    appendedSeq);
+        }
+    }
+
+    private void scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER + length > buffer.capacity()) {
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(position + HEADER, body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("[JOURNAL] Checksum mismatch in {} at offset {}, ignoring the rest of the segment",
+                        segment.path.getFileName(), position);
+                break;
+            }
+            Entry entry = decode(body);
+            recovered.add(entry);
+            segment.lastSeq = entry.seq();
+            appendedSeq = entry.seq();
+            nextSeq = entry.seq() + 1;
+            position += HEADER + length;
+        }
+        segment.position = position;
+    }
+
+    // --- UNMAPPING ---
+
+    private static MethodHandle cleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("[JOURNAL] Cannot unmap segments on this JVM; deleting them may fail on Windows: {}",
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    // The buffer must not be touched afterwards; an access would crash the JVM
+    private static void unmap(Segment segment) {
+        if (CLEANER == null) {
+            return;
+        }
+        try {
+            CLEANER.invokeExact((ByteBuffer) segment.buffer);
+        } catch (Throwable e) {
+            log.warn("[JOURNAL] Could not unmap segment {}: {}", segment.path.getFileName(), e.getMessage());
+        }
+    }
+
+    private static long firstSeqOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    // --- ENCODING ---
+
+    static byte[] encode(long seq, Object entity) {
+        if (entity instanceof Order order) {
+            byte[] orderNo = order.getOrderNo() == null ? null : order.getOrderNo().getBytes(StandardCharsets.UTF_8);
+            ByteBuffer body = ByteBuffer.allocate(8 + 1 + 8 + 4 + 8 + 2 + (orderNo == null ? 0 : orderNo.length));
+            body.putLong(seq).put(ORDER).putLong(order.getItemId()).putInt(order.getQty())
+                    .putDouble(order.getPrice() == null ? 0 : order.getPrice());
+            if (orderNo == null) {
+                body.putShort((short) -1);
+            } else {
+                body.putShort((short) orderNo.length).put(orderNo);
+            }
+            return body.array();
+        }
+        Inventory inventory = (Inventory) entity;
+        return ByteBuffer.allocate(8 + 1 + 8 + 4 + 1)
+                .putLong(seq).put(INVENTORY).putLong(inventory.getItemId()).putInt(inventory.getQty())
+                .put((byte) inventory.getType().charAt(0))
+                .array();
+    }
+
+    static Entry decode(byte[] bytes) {
+        ByteBuffer body = ByteBuffer.wrap(bytes);
+        long seq = body.getLong();
+        byte kind = body.get();
+        long itemId = body.getLong();
+        int qty = body.getInt();
+        if (kind == ORDER) {
+            double price = body.getDouble();
+            short length = body.getShort();
+            String orderNo = null;
+            if (length >= 0) {
+                byte[] orderNoBytes = new byte[length];
+                body.get(orderNoBytes);
+                orderNo = new String(orderNoBytes, StandardCharsets.UTF_8);
+            }
+            return new Entry(seq, new Order(null, orderNo, itemId, qty, price, null, null));
+        }
+        String type = String.valueOf((char) body.get());
+        return new Entry(seq, new Inventory(null, itemId, qty, type, null));
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int synced;
+        private long lastSeq;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        static Segment map(Path path, int size, boolean create) throws IOException {
+            StandardOpenOption[] options = create
+                    ? new StandardOpenOption[]{StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                    : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+            // The mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(path, options)) {
+                return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+}
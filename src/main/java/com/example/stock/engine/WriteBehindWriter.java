@@ -0,0 +1,345 @@
+package com.example.stock.engine;
+
+import com.example.stock.exception.StockEngineOverloadedException;
+import com.example.stock.model.Inventory;
+import com.example.stock.model.Order;
+import com.example.stock.repository.InventoryRepository;
+import com.example.stock.repository.OrderRepository;
+import com.example.stock.service.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer for {@link InMemoryStockEngine}. Drains queued orders and inventory
+ * transactions in batches and writes them, together with the stock of every item touched
+ * since the last flush, in one transaction. The stock written counts the queued writes of
+ * this batch and earlier ones, but not those still waiting in the queue.
+ *
+ * <p>A batch that fails on a constraint (duplicate order number, deleted item) is
+ * retried row by row; rows that still fail are dropped and their stock is released.
+ * Any other failure keeps the batch for the next tick.
+ *
+ * <p>With the {@link StockJournal} enabled, writes carry their journal sequence number and
+ * each transaction also advances the {@code stock_journal_checkpoint} row, so a restart
+ * replays exactly the records that never reached the database.
+ */
+class WriteBehindWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindWriter.class);
+
+    private static final String CHECKPOINT_NAME = "engine";
+
+    private final InMemoryStockEngine engine;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderRepository orderRepository;
+    private final InventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final SalesRollupService salesRollupService;
+    private final int batchSize;
+    private final long maxLagNanos;
+    private final long enqueueTimeoutMs;
+
+    private final BlockingQueue<PendingWrite> pending;
+    // Batches that failed transiently; only the writer thread takes from it
+    private final ConcurrentLinkedDeque<PendingWrite> retry = new ConcurrentLinkedDeque<>();
+    private final Set<Long> dirtyItems = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stock-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    WriteBehindWriter(InMemoryStockEngine engine, TransactionTemplate transactionTemplate,
+                      OrderRepository orderRepository, InventoryRepository inventoryRepository,
+                      JdbcTemplate jdbcTemplate, SalesRollupService salesRollupService, int batchSize,
+                      int maxPending, long maxLagMs, long enqueueTimeoutMs) {
+        this.engine = engine;
+        this.transactionTemplate = transactionTemplate;
+        this.orderRepository = orderRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.salesRollupService = salesRollupService;
+        this.batchSize = batchSize;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMs);
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.pending = new ArrayBlockingQueue<>(maxPending);
+    }
+
+    void start(long flushIntervalMs) {
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("[ENGINE] Draining {} pending writes before shutdown", pending.size() + retry.size());
+        flushSafely();
+    }
+
+    void enqueue(Object entity) {
+        if (lagNanos() > maxLagNanos) {
+            throw new StockEngineOverloadedException("Write-behind flush is lagging, try again later");
+        }
+        try {
+            if (!pending.offer(new PendingWrite(entity, System.nanoTime(), 0), enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new StockEngineOverloadedException("Write-behind queue is full, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StockEngineOverloadedException("Interrupted while queueing write");
+        }
+    }
+
+    /**
+     * Queues a journaled write without waiting, called under the journal's append lock so
+     * the queue stays in sequence order.
+     */
+    void enqueueJournaled(Object entity, long seq) {
+        if (lagNanos() > maxLagNanos) {
+            throw new StockEngineOverloadedException("Write-behind flush is lagging, try again later");
+        }
+        if (!pending.offer(new PendingWrite(entity, System.nanoTime(), seq))) {
+            throw new StockEngineOverloadedException("Write-behind queue is full, try again later");
+        }
+    }
+
+    /** Writes not yet flushed, including batches waiting for a retry. */
+    int backlog() {
+        return pending.size() + retry.size();
+    }
+
+    /**
+     * Highest journal sequence number applied to the database; creates the row on first use.
+     * The table comes from db-init.sql or its migration.
+     */
+    long loadCheckpoint() {
+        List<Long> applied = jdbcTemplate.queryForList(
+                "SELECT applied_seq FROM stock_journal_checkpoint WHERE name = ?", Long.class, CHECKPOINT_NAME);
+        if (!applied.isEmpty()) {
+            return applied.get(0);
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO stock_journal_checkpoint (name, applied_seq) VALUES (?, 0)",
+                    CHECKPOINT_NAME);
+        } catch (DuplicateKeyException e) {
+            // Created concurrently
+        }
+        return 0;
+    }
+
+    void markDirty(Long itemId) {
+        dirtyItems.add(itemId);
+    }
+
+    long lagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lagNanos());
+    }
+
+    private long lagNanos() {
+        PendingWrite oldest = retry.peekFirst();
+        if (oldest == null) {
+            oldest = pending.peek();
+        }
+        return oldest == null ? 0 : System.nanoTime() - oldest.enqueuedAt();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("[ENGINE] Write-behind flush failed", e);
+        }
+    }
+
+    void flush() {
+        while (true) {
+            List<PendingWrite> batch = new ArrayList<>(batchSize);
+            PendingWrite retried;
+            while (batch.size() < batchSize && (retried = retry.pollFirst()) != null) {
+                batch.add(retried);
+            }
+            pending.drainTo(batch, batchSize - batch.size());
+            List<Long> items = takeDirtyItems();
+            if (batch.isEmpty() && items.isEmpty()) {
+                return;
+            }
+
+            try {
+                write(batch, items);
+            } catch (DataIntegrityViolationException e) {
+                log.warn("[ENGINE] Batch of {} rejected by a constraint, writing rows one by one", batch.size());
+                writeOneByOne(batch, items);
+            } catch (RuntimeException e) {
+                log.error("[ENGINE] Flush of {} rows failed, will retry: {}", batch.size(), e.getMessage());
+                requeue(batch, 0);
+                dirtyItems.addAll(items);
+                return;
+            }
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> batch, List<Long> items) {
+        List<Order> orders = new ArrayList<>();
+        List<Inventory> inventories = new ArrayList<>();
+        // Stock change this transaction writes, per item
+        Map<Long, Integer> flushing = new LinkedHashMap<>();
+        long maxSeq = 0;
+        for (PendingWrite write : batch) {
+            if (write.entity() instanceof Order order) {
+                orders.add(order);
+            } else {
+                inventories.add((Inventory) write.entity());
+            }
+            flushing.merge(itemIdOf(write.entity()), delta(write.entity()), Integer::sum);
+            maxSeq = Math.max(maxSeq, write.seq());
+        }
+        long checkpoint = maxSeq;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!orders.isEmpty()) {
+                orderRepository.saveAll(orders);
+                orderRepository.flush();
+                // Booked on the flush date, which is also the created_at the rows get
+                salesRollupService.recordOrders(orders);
+            }
+            if (!inventories.isEmpty()) {
+                inventoryRepository.saveAll(inventories);
+            }
+            writeStock(items, flushing);
+            recordCheckpoint(checkpoint);
+        });
+        flushing.forEach(engine::flushed);
+        if (checkpoint > 0) {
+            engine.journalApplied(checkpoint);
+        }
+    }
+
+    private void writeOneByOne(List<PendingWrite> batch, List<Long> items) {
+        // Dropped rows count as applied, so the checkpoint moves past them too
+        long processed = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            try {
+                write(List.of(write), List.of());
+                processed = Math.max(processed, write.seq());
+            } catch (DataIntegrityViolationException e) {
+                log.error("[ENGINE] Dropping {} after constraint violation, releasing its stock: {}",
+                        write.entity(), e.getMostSpecificCause().getMessage());
+                release(write.entity());
+                processed = Math.max(processed, write.seq());
+            } catch (RuntimeException e) {
+                log.error("[ENGINE] Row-by-row flush interrupted, will retry: {}", e.getMessage());
+                requeue(batch, i);
+                break;
+            }
+        }
+        // Releases above re-mark their items, so include those in the stock write
+        items.addAll(takeDirtyItems());
+        long checkpoint = processed;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                writeStock(items, Map.of());
+                recordCheckpoint(checkpoint);
+            });
+        } catch (RuntimeException e) {
+            dirtyItems.addAll(items);
+            throw e;
+        }
+        if (checkpoint > 0) {
+            engine.journalApplied(checkpoint);
+        }
+    }
+
+    // Puts batch[from..] back at the head of the retry queue, in order
+    private void requeue(List<PendingWrite> batch, int from) {
+        for (int i = batch.size() - 1; i >= from; i--) {
+            Object entity = batch.get(i).entity();
+            // Ids assigned by the rolled-back attempt must not be reused
+            if (entity instanceof Order order) {
+                order.setId(null);
+            } else {
+                ((Inventory) entity).setId(null);
+            }
+            retry.addFirst(batch.get(i));
+        }
+    }
+
+    private void release(Object entity) {
+        engine.adjustQueued(itemIdOf(entity), -delta(entity));
+    }
+
+    // Items of the batch are always written, even if an earlier flush already took them off the dirty set
+    private void writeStock(List<Long> items, Map<Long, Integer> flushing) {
+        Set<Long> ids = new LinkedHashSet<>(items);
+        ids.addAll(flushing.keySet());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long itemId : ids) {
+            Integer stock = engine.stockToPersist(itemId, flushing.getOrDefault(itemId, 0));
+            if (stock != null) {
+                args.add(new Object[]{stock, itemId});
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE item SET stock = ?, version = version + 1 WHERE id = ?", args);
+        }
+    }
+
+    private void recordCheckpoint(long seq) {
+        if (seq > 0) {
+            jdbcTemplate.update("UPDATE stock_journal_checkpoint SET applied_seq = ? WHERE name = ? AND applied_seq < ?",
+                    seq, CHECKPOINT_NAME, seq);
+        }
+    }
+
+    static Long itemIdOf(Object entity) {
+        return entity instanceof Order order ? order.getItemId() : ((Inventory) entity).getItemId();
+    }
+
+    // Stock change of an order or inventory transaction
+    static int delta(Object entity) {
+        if (entity instanceof Order order) {
+            return -order.getQty();
+        }
+        Inventory inventory = (Inventory) entity;
+        return "T".equals(inventory.getType()) ? inventory.getQty() : -inventory.getQty();
+    }
+
+    private List<Long> takeDirtyItems() {
+        List<Long> items = new ArrayList<>();
+        Iterator<Long> it = dirtyItems.iterator();
+        while (it.hasNext()) {
+            items.add(it.next());
+            it.remove();
+        }
+        return items;
+    }
+
+    // seq is the journal sequence number, 0 when not journaled
+    private record PendingWrite(Object entity, long enqueuedAt, long seq) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.stock.event;
+
+/**
+ * Published once when a committed change takes an item's stock below its reorder point.
+ * It is not repeated while the item stays below; it fires again only after a restock above.
+ */
+public record LowStockEvent(Long itemId, int stock, int reorderPoint) {
+}
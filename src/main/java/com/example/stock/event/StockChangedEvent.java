@@ -0,0 +1,8 @@
+package com.example.stock.event;
+
+/**
+ * Published inside the transaction that changed {@code item.stock}; listeners that only
+ * care about committed state use {@code @TransactionalEventListener}.
+ */
+public record StockChangedEvent(Long itemId) {
+}
@@ -0,0 +1,7 @@
+package com.example.stock.exception;
+
+public class ConcurrentStockUpdateException extends RuntimeException {
+    public ConcurrentStockUpdateException(String message) {
+        super(message);
+    }
+}
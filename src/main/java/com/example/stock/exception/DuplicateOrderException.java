@@ -0,0 +1,7 @@
+package com.example.stock.exception;
+
+public class DuplicateOrderException extends RuntimeException {
+    public DuplicateOrderException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.stock.exception;
+
+public class ReservationNotActiveException extends RuntimeException {
+    public ReservationNotActiveException(String message) {
+        super(message);
+    }
+}
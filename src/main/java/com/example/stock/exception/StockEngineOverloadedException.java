@@ -0,0 +1,7 @@
+package com.example.stock.exception;
+
+public class StockEngineOverloadedException extends RuntimeException {
+    public StockEngineOverloadedException(String message) {
+        super(message);
+    }
+}
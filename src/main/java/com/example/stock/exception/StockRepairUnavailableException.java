@@ -0,0 +1,7 @@
+package com.example.stock.exception;
+
+public class StockRepairUnavailableException extends RuntimeException {
+    public StockRepairUnavailableException(String message) {
+        super(message);
+    }
+}
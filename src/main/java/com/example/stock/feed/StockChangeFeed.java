@@ -0,0 +1,387 @@
+package com.example.stock.feed;
+
+import com.example.stock.cache.LowStockIndex;
+import com.example.stock.engine.InMemoryStockEngine;
+import com.example.stock.event.StockChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events feed of committed stock levels behind {@code GET /api/items/stream}.
+ *
+ * <p>Committed {@link StockChangedEvent}s, and every change the in-memory engine makes, only
+ * mark the item dirty. Every
+ * {@code stock.feed.dispatch-interval-ms} one dispatcher thread reads the current stock of all
+ * dirty items in one query and fans the values out, so a hot item costs one update per tick
+ * however many orders it takes. The same values keep the {@link LowStockIndex} current.
+ *
+ * <p>Each subscriber has its own buffer holding the latest value per item. A client that falls
+ * behind therefore skips intermediate values instead of queueing them; once more than
+ * {@code stock.feed.subscriber-buffer} items are waiting it is disconnected. Reconnecting with
+ * {@code Last-Event-ID} replays the latest value of every item changed since then, as long as
+ * that is still within the last {@code stock.feed.replay-size} updates; otherwise the client
+ * gets a {@code reset} event and should reload. Idle connections get a heartbeat comment every
+ * {@code stock.feed.heartbeat-ms}.
+ */
+@Component
+public class StockChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(StockChangeFeed.class);
+
+    private static final int LOAD_CHUNK = 1000;
+
+    /** Payload of a {@code stock} event. */
+    public record StockLevel(Long itemId, Integer stock) {
+    }
+
+    private record Update(long id, StockLevel level) {
+    }
+
+    private record ItemRow(int stock, Integer reorderPoint) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    // Resolves only when stock.engine.mode=memory; looked up lazily since the engine reports to the feed
+    @Autowired
+    private ObjectProvider<InMemoryStockEngine> stockEngine;
+
+    @Value("${stock.feed.dispatch-interval-ms:100}")
+    private long dispatchIntervalMs = 100;
+
+    @Value("${stock.feed.heartbeat-ms:15000}")
+    private long heartbeatMs = 15000;
+
+    @Value("${stock.feed.timeout-ms:1800000}")
+    private long timeoutMs = 1800000;
+
+    @Value("${stock.feed.subscriber-buffer:1000}")
+    private int subscriberBuffer = 1000;
+
+    @Value("${stock.feed.replay-size:10000}")
+    private int replaySize = 10000;
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Guarded by itself; also serialises fan-out with replays so a subscriber never goes backwards
+    private final ArrayDeque<Update> recent = new ArrayDeque<>();
+
+    // Starts from the clock so ids of a previous process are always older than the replay window
+    private long lastId = System.currentTimeMillis() * 1000;
+
+    private ScheduledExecutorService scheduler;
+
+    Executor senders;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger senderCount = new AtomicInteger();
+        senders = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "stock-feed-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stock-feed-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::dispatchSafely, dispatchIntervalMs, dispatchIntervalMs,
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> subscribers.forEach(Subscriber::heartbeat), heartbeatMs, heartbeatMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        if (senders instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        markChanged(event.itemId());
+    }
+
+    /** Queues the item for the next dispatch. Called directly by the in-memory engine. */
+    public void markChanged(Long itemId) {
+        dirty.add(itemId);
+    }
+
+    /**
+     * Opens a stream of stock levels, limited to {@code itemIds} unless that is null, resuming
+     * after {@code lastEventId} (the {@code Last-Event-ID} header) when the client is reconnecting.
+     */
+    public SseEmitter subscribe(Set<Long> itemIds, String lastEventId) {
+        SseEmitter emitter = createEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, itemIds);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        synchronized (recent) {
+            if (lastEventId != null) {
+                List<Update> missed = replayAfter(lastEventId.trim());
+                if (missed == null) {
+                    subscriber.reset();
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        log.debug("[FEED] Subscriber added ({} items, resuming after {}), {} connected",
+                itemIds == null ? "all" : itemIds.size(), lastEventId, subscribers.size());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    SseEmitter createEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    private void dispatchSafely() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            log.warn("[FEED] Dispatch failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    void dispatch() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove();
+        }
+        Map<Long, ItemRow> rows;
+        try {
+            rows = loadStock(ids);
+        } catch (RuntimeException e) {
+            dirty.addAll(ids);
+            throw e;
+        }
+        synchronized (recent) {
+            for (Long itemId : ids) {
+                ItemRow row = rows.get(itemId);
+                if (row == null) {
+                    // Deleted item
+                    lowStockIndex.remove(itemId);
+                    continue;
+                }
+                lowStockIndex.update(itemId, row.stock(), row.reorderPoint());
+                Update update = new Update(++lastId, new StockLevel(itemId, row.stock()));
+                recent.addLast(update);
+                if (recent.size() > replaySize) {
+                    recent.removeFirst();
+                }
+                subscribers.forEach(subscriber -> subscriber.offer(update));
+            }
+        }
+    }
+
+    // Latest update per item after lastEventId, oldest first; null when that is out of the window
+    private List<Update> replayAfter(String lastEventIdHeader) {
+        long lastEventId;
+        try {
+            lastEventId = Long.parseLong(lastEventIdHeader);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (lastEventId == lastId) {
+            return List.of();
+        }
+        Update oldest = recent.peekFirst();
+        if (lastEventId > lastId || oldest == null || oldest.id() > lastEventId + 1) {
+            return null;
+        }
+        Map<Long, Update> latest = new LinkedHashMap<>();
+        for (Update update : recent) {
+            if (update.id() > lastEventId) {
+                latest.remove(update.level().itemId());
+                latest.put(update.level().itemId(), update);
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    // Existing items only; in engine mode the stock is the engine's live value
+    private Map<Long, ItemRow> loadStock(List<Long> ids) {
+        Map<Long, ItemRow> rows = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK, ids.size()));
+            jdbcTemplate.query("SELECT id, stock, reorder_point FROM item WHERE id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")", rs -> {
+                rows.put(rs.getLong(1), new ItemRow(rs.getInt(2), rs.getObject(3, Integer.class)));
+            }, chunk.toArray());
+        }
+        InMemoryStockEngine engine = stockEngine.getIfAvailable();
+        if (engine != null) {
+            rows.replaceAll((id, row) -> {
+                Integer live = engine.currentStock(id);
+                return live == null ? row : new ItemRow(live, row.reorderPoint());
+            });
+        }
+        return rows;
+    }
+
+    private final class Subscriber {
+
+        final SseEmitter emitter;
+        final Set<Long> itemIds;
+
+        // Guarded by this; latest update per item, in the order items last changed
+        private final LinkedHashMap<Long, Update> pending = new LinkedHashMap<>();
+        private boolean resetDue;
+        private boolean heartbeatDue;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, Set<Long> itemIds) {
+            this.emitter = emitter;
+            this.itemIds = itemIds;
+        }
+
+        void offer(Update update) {
+            if (itemIds != null && !itemIds.contains(update.level().itemId())) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                pending.remove(update.level().itemId());
+                pending.put(update.level().itemId(), update);
+                if (pending.size() > subscriberBuffer) {
+                    log.info("[FEED] Subscriber fell {} items behind, disconnecting", pending.size());
+                    close();
+                    emitter.complete();
+                    return;
+                }
+            }
+            scheduleDrain();
+        }
+
+        void reset() {
+            synchronized (this) {
+                pending.clear();
+                resetDue = true;
+            }
+            scheduleDrain();
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                heartbeatDue = true;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            synchronized (this) {
+                if (draining || closed) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        // Runs on a sender thread; only one drain per subscriber at a time
+        private void drain() {
+            while (true) {
+                List<Update> batch;
+                boolean reset;
+                boolean heartbeat;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && !resetDue && !heartbeatDue)) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    reset = resetDue;
+                    heartbeat = heartbeatDue;
+                    resetDue = false;
+                    heartbeatDue = false;
+                }
+                try {
+                    if (reset) {
+                        emitter.send(SseEmitter.event().id(String.valueOf(lastIdSnapshot())).name("reset").data("{}"));
+                    }
+                    for (Update update : batch) {
+                        emitter.send(SseEmitter.event().id(String.valueOf(update.id())).name("stock")
+                                .data(update.level(), MediaType.APPLICATION_JSON));
+                    }
+                    if (heartbeat && batch.isEmpty() && !reset) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Client gone; the container completes the emitter
+                    close();
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                draining = false;
+                pending.clear();
+            }
+            subscribers.remove(this);
+        }
+    }
+
+    private long lastIdSnapshot() {
+        synchronized (recent) {
+            return lastId;
+        }
+    }
+}
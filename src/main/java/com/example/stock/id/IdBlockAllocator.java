@@ -0,0 +1,127 @@
+package com.example.stock.id;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out ids in blocks of {@code stock.id.block-size} reserved from the
+ * {@code id_generator} table ({@code next_val} holds the last id handed out). The table
+ * comes from db-init.sql or its migration; a missing row is seeded from {@code MAX(id)}.
+ *
+ * <p>Blocks are reserved over a dedicated one-connection pool. Doing it on the main
+ * pool from inside the caller's transaction (as Hibernate's table generator does)
+ * deadlocks once every pooled connection belongs to a transaction waiting for an id.
+ *
+ * <p>Hibernate instantiates {@link PooledIdGenerator} itself, so the allocator hands itself
+ * to the generators of its own context's session factory through a Hibernate setting.
+ */
+@Component
+public class IdBlockAllocator implements HibernatePropertiesCustomizer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdBlockAllocator.class);
+
+    /** Hibernate setting holding the allocator of the session factory's context. */
+    static final String SETTING = "stock.id.allocator";
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${stock.id.block-size:100}")
+    private int blockSize = 100;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("id-allocator");
+        dataSource.setMaximumPoolSize(1);
+        dataSource.setMinimumIdle(0);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(SETTING, this);
+    }
+
+    public long next(String table) {
+        return blocks.computeIfAbsent(table, Block::new).next();
+    }
+
+    private long reserve(String table) {
+        Long hi = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update("UPDATE id_generator SET next_val = next_val + ? WHERE gen_name = ?",
+                    blockSize, table) == 0) {
+                seed(table);
+                jdbcTemplate.update("UPDATE id_generator SET next_val = next_val + ? WHERE gen_name = ?",
+                        blockSize, table);
+            }
+            return jdbcTemplate.queryForObject("SELECT next_val FROM id_generator WHERE gen_name = ?",
+                    Long.class, table);
+        });
+        log.debug("[ID] Reserved {} ids for {} up to {}", blockSize, table, hi);
+        return hi;
+    }
+
+    // First use on a database created before id_generator existed: continue after MAX(id)
+    private void seed(String table) {
+        try {
+            jdbcTemplate.update("INSERT INTO id_generator (gen_name, next_val) SELECT ?, COALESCE(MAX(id), 0) FROM "
+                    + table, table);
+            log.info("[ID] Seeded id_generator row for {}", table);
+        } catch (DuplicateKeyException e) {
+            // Another instance seeded it first
+        }
+    }
+
+    private final class Block {
+        private final String table;
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next;
+        private long limit;
+
+        Block(String table) {
+            this.table = table;
+        }
+
+        long next() {
+            lock.lock();
+            try {
+                if (next == 0 || next > limit) {
+                    limit = reserve(table);
+                    next = limit - blockSize + 1;
+                }
+                return next++;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.stock.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns ids from blocks reserved in the {@code id_generator} table by
+ * {@link IdBlockAllocator}. Unlike IDENTITY, the id is known before the INSERT,
+ * so Hibernate can batch inserts.
+ */
+@IdGeneratorType(PooledIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledId {
+
+    /** Row in {@code id_generator}; also the table whose MAX(id) seeds it. */
+    String value();
+}
@@ -0,0 +1,437 @@
+package com.example.stock.lease;
+
+import com.example.stock.event.StockChangedEvent;
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.model.Order;
+import com.example.stock.model.StockLease;
+import com.example.stock.repository.ItemRepository;
+import com.example.stock.repository.OrderRepository;
+import com.example.stock.repository.StockLeaseRepository;
+import com.example.stock.service.SalesRollupService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Node-local stock quotas, enabled with {@code stock.lease.enabled=true}, for running
+ * several instances against one database.
+ *
+ * <p>An instance takes a block of stock for an item with one conditional {@code UPDATE} of
+ * {@code item.stock} and records it as a {@link StockLease}. Orders for that item are then
+ * served from the block with a CAS on a local counter; their transaction only inserts the
+ * order, tagged with the lease id, so instances no longer queue on the item row. A block
+ * that runs out is returned and replaced by one twice its size (up to
+ * {@code stock.lease.max-block}); a block left idle for {@code stock.lease.idle-return-ms}
+ * is returned and the next one is half the size (down to {@code stock.lease.min-block}).
+ *
+ * <p>Leases expire {@code stock.lease.ttl-ms} after they were granted or last renewed, and
+ * the owner stops ordering from a lease {@code stock.lease.safety-margin-ms} before that.
+ * Every instance periodically recovers expired leases, whatever their owner: the units not
+ * found in {@code orders} under the lease id go back to the item. Instance clocks must
+ * agree to within the safety margin.
+ *
+ * <p>{@code item.stock} therefore only counts units not leased out. Other stock writes
+ * (inventory, reservations, batch orders) keep using the configured strategy against it.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.lease.enabled", havingValue = "true")
+public class StockLeaseManager {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLeaseManager.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockLeaseRepository stockLeaseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${stock.lease.node-id:}")
+    private String nodeId = "";
+
+    @Value("${stock.lease.min-block:10}")
+    private int minBlock = 10;
+
+    @Value("${stock.lease.max-block:1000}")
+    private int maxBlock = 1000;
+
+    @Value("${stock.lease.ttl-ms:30000}")
+    private long ttlMs = 30000;
+
+    @Value("${stock.lease.safety-margin-ms:5000}")
+    private long safetyMarginMs = 5000;
+
+    @Value("${stock.lease.idle-return-ms:10000}")
+    private long idleReturnMs = 10000;
+
+    @Value("${stock.lease.check-interval-ms:1000}")
+    private long checkIntervalMs = 1000;
+
+    private final ConcurrentHashMap<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, Integer> blockSizes = new ConcurrentHashMap<>();
+
+    // Refills of one item are serialized. Not a monitor: the holder runs a transaction, which
+    // would pin the carrier thread of a virtual thread for its whole duration.
+    private final ConcurrentHashMap<Long, ReentrantLock> refillLocks = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    // Order inserts must finish well before the lease can be recovered elsewhere
+    private TransactionTemplate orderTemplate;
+
+    private ScheduledExecutorService maintainer;
+
+    @PostConstruct
+    public void start() {
+        if (safetyMarginMs >= ttlMs) {
+            throw new IllegalStateException("stock.lease.safety-margin-ms must be below stock.lease.ttl-ms");
+        }
+        if (nodeId.isBlank()) {
+            nodeId = defaultNodeId();
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        orderTemplate = new TransactionTemplate(transactionManager);
+        orderTemplate.setTimeout((int) Math.max(1, safetyMarginMs / 2000));
+        maintainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stock-lease-maintainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintainer.scheduleWithFixedDelay(this::maintain, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("[LEASE] Stock leasing enabled on node {} (blocks {}-{}, ttl {} ms)", nodeId, minBlock, maxBlock, ttlMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        maintainer.shutdownNow();
+        returnAll();
+    }
+
+    // --- HOT PATH ---
+
+    /**
+     * Places the order from this instance's lease on the item, taking a new block first
+     * when the lease cannot cover it.
+     *
+     * @throws ResourceNotFoundException  if the item does not exist
+     * @throws InsufficientStockException if neither the lease nor the unleased stock covers qty
+     */
+    public Order placeOrder(Order order) {
+        Lease lease = take(order.getItemId(), order.getQty());
+        boolean committed = false;
+        try {
+            order.setLeaseId(lease.id);
+            Order saved = orderTemplate.execute(status -> {
+                Order inserted = orderRepository.save(order);
+                orderRepository.flush();
+                salesRollupService.recordOrders(List.of(inserted));
+                return inserted;
+            });
+            committed = true;
+            return saved;
+        } finally {
+            lease.release(order.getQty(), committed);
+        }
+    }
+
+    /** Units left in this instance's lease on the item, 0 when it holds none. */
+    public int leasedStock(Long itemId) {
+        Lease lease = leases.get(itemId);
+        return lease == null ? 0 : lease.remaining.get();
+    }
+
+    /** Gives every lease held by this instance back to its item. */
+    public void returnAll() {
+        for (Lease lease : new ArrayList<>(leases.values())) {
+            ReentrantLock lock = refillLock(lease.itemId);
+            lock.lock();
+            try {
+                if (leases.get(lease.itemId) == lease) {
+                    retire(lease);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // --- MAINTENANCE ---
+
+    void maintain() {
+        try {
+            long now = System.nanoTime();
+            for (Lease lease : new ArrayList<>(leases.values())) {
+                if (now - lease.lastUsedNanos > TimeUnit.MILLISECONDS.toNanos(idleReturnMs)
+                        || now >= lease.deadlineNanos) {
+                    returnIdle(lease);
+                } else if (lease.deadlineNanos - now < TimeUnit.MILLISECONDS.toNanos(ttlMs) / 2) {
+                    renew(lease);
+                }
+            }
+            recoverExpired();
+        } catch (RuntimeException e) {
+            log.warn("[LEASE] Lease maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Closes leases, of any instance, that are past their expiry and returns the units not
+     * ordered under them. Returns the number of leases recovered.
+     */
+    public int recoverExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int recovered = 0;
+        for (StockLease expired : stockLeaseRepository.findByStatusAndExpiresAtBefore(StockLease.ACTIVE, now)) {
+            Lease local = leases.get(expired.getItemId());
+            if (local != null && local.id == expired.getId()) {
+                // Our own lease outlived its deadline without being returned
+                local.closed = true;
+                leases.remove(expired.getItemId(), local);
+            }
+            Integer returned = transactionTemplate.execute(status -> {
+                Long ordered = jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(SUM(qty), 0) FROM orders WHERE lease_id = ?", Long.class, expired.getId());
+                int unused = Math.toIntExact(expired.getGranted() - ordered);
+                if (stockLeaseRepository.markRecovered(expired.getId(), unused, now) == 0) {
+                    return null;
+                }
+                giveBack(expired.getItemId(), unused);
+                return unused;
+            });
+            if (returned != null) {
+                recovered++;
+                log.warn("[LEASE] Recovered expired lease {} of node {} on item {}: {} of {} units returned",
+                        expired.getId(), expired.getNodeId(), expired.getItemId(), returned, expired.getGranted());
+            }
+        }
+        return recovered;
+    }
+
+    private Lease take(Long itemId, int qty) {
+        while (true) {
+            Lease lease = leases.get(itemId);
+            if (lease != null && lease.tryTake(qty, System.nanoTime())) {
+                return lease;
+            }
+            refill(itemId, qty, lease);
+        }
+    }
+
+    private void refill(Long itemId, int qty, Lease seen) {
+        ReentrantLock lock = refillLock(itemId);
+        lock.lock();
+        try {
+            Lease current = leases.get(itemId);
+            if (current != seen) {
+                // Another order refilled it meanwhile
+                return;
+            }
+            int size = blockSizes.getOrDefault(itemId, minBlock);
+            if (current != null) {
+                if (!current.closed && System.nanoTime() < current.deadlineNanos) {
+                    // Used up: demand outgrew the block
+                    size = Math.min(maxBlock, size * 2);
+                    blockSizes.put(itemId, size);
+                }
+                retire(current);
+            }
+            leases.put(itemId, grant(itemId, qty, Math.max(size, qty)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lease grant(Long itemId, int qty, int size) {
+        long start = System.nanoTime();
+        return transactionTemplate.execute(status -> {
+            int amount = size;
+            if (itemRepository.decrementStock(itemId, amount) == 0) {
+                // Less than a block left: take all of it if it covers the order
+                List<Integer> left = jdbcTemplate.queryForList(
+                        "SELECT COALESCE(stock, 0) FROM item WHERE id = ?", Integer.class, itemId);
+                if (left.isEmpty()) {
+                    throw new ResourceNotFoundException("Item not found with id " + itemId);
+                }
+                amount = left.get(0);
+                if (amount < qty || itemRepository.decrementStock(itemId, amount) == 0) {
+                    throw new InsufficientStockException(
+                            "Insufficient stock. Current: " + amount + ", Requested: " + qty);
+                }
+            }
+            StockLease lease = stockLeaseRepository.save(new StockLease(null, itemId, nodeId, amount, null,
+                    StockLease.ACTIVE, LocalDateTime.now().plus(Duration.ofMillis(ttlMs)), null));
+            eventPublisher.publishEvent(new StockChangedEvent(itemId));
+            log.debug("[LEASE] Leased {} units of item {} (lease {})", amount, itemId, lease.getId());
+            return new Lease(lease.getId(), itemId, amount, deadlineFrom(start));
+        });
+    }
+
+    private void returnIdle(Lease lease) {
+        ReentrantLock lock = refillLock(lease.itemId);
+        lock.lock();
+        try {
+            if (leases.get(lease.itemId) != lease) {
+                return;
+            }
+            blockSizes.computeIfPresent(lease.itemId, (id, size) -> size / 2 <= minBlock ? null : size / 2);
+            retire(lease);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the item's refill lock
+    private void retire(Lease lease) {
+        leases.remove(lease.itemId, lease);
+        int unused = lease.close();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (stockLeaseRepository.markReturned(lease.id, unused) == 1) {
+                    giveBack(lease.itemId, unused);
+                }
+            });
+            log.debug("[LEASE] Returned {} of {} units of item {} (lease {})", unused, lease.granted, lease.itemId,
+                    lease.id);
+        } catch (DataAccessException e) {
+            // Still ACTIVE in the table, so it is recovered from the ledger once it expires
+            log.warn("[LEASE] Could not return lease {}; it will be recovered after expiry: {}", lease.id,
+                    e.getMessage());
+        }
+    }
+
+    private void renew(Lease lease) {
+        long start = System.nanoTime();
+        try {
+            Integer renewed = transactionTemplate.execute(status ->
+                    stockLeaseRepository.renew(lease.id, LocalDateTime.now().plus(Duration.ofMillis(ttlMs))));
+            if (renewed != null && renewed == 1) {
+                lease.deadlineNanos = deadlineFrom(start);
+                return;
+            }
+        } catch (DataAccessException e) {
+            log.warn("[LEASE] Could not renew lease {}: {}", lease.id, e.getMessage());
+            return;
+        }
+        // Closed by another instance; only possible when clocks disagree by more than the margin
+        lease.closed = true;
+        leases.remove(lease.itemId, lease);
+        log.warn("[LEASE] Lease {} on item {} was recovered by another instance", lease.id, lease.itemId);
+    }
+
+    private void giveBack(Long itemId, int units) {
+        if (units > 0 && itemRepository.incrementStock(itemId, units) == 1) {
+            eventPublisher.publishEvent(new StockChangedEvent(itemId));
+        }
+    }
+
+    private long deadlineFrom(long startNanos) {
+        return startNanos + TimeUnit.MILLISECONDS.toNanos(ttlMs - safetyMarginMs);
+    }
+
+    private ReentrantLock refillLock(Long itemId) {
+        return refillLocks.computeIfAbsent(itemId, id -> new ReentrantLock());
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        String id = host + "-" + ProcessHandle.current().pid();
+        return id.length() > 64 ? id.substring(id.length() - 64) : id;
+    }
+
+    private static final class Lease {
+        final long id;
+        final Long itemId;
+        final int granted;
+        final AtomicInteger remaining;
+        // Orders that took units and have not committed or rolled back yet
+        final AtomicInteger inFlight = new AtomicInteger();
+        volatile long deadlineNanos;
+        volatile long lastUsedNanos = System.nanoTime();
+        volatile boolean closed;
+
+        Lease(long id, Long itemId, int granted, long deadlineNanos) {
+            this.id = id;
+            this.itemId = itemId;
+            this.granted = granted;
+            this.remaining = new AtomicInteger(granted);
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        boolean tryTake(int qty, long now) {
+            // Counted before the closed check, so close() cannot miss this order
+            inFlight.incrementAndGet();
+            if (!closed && now < deadlineNanos) {
+                int current;
+                while ((current = remaining.get()) >= qty) {
+                    if (remaining.compareAndSet(current, current - qty)) {
+                        lastUsedNanos = now;
+                        return true;
+                    }
+                }
+            }
+            inFlight.decrementAndGet();
+            return false;
+        }
+
+        void release(int qty, boolean committed) {
+            if (!committed) {
+                remaining.addAndGet(qty);
+            }
+            inFlight.decrementAndGet();
+        }
+
+        // Stops new orders and waits for those in flight; the result is exactly the unused units
+        int close() {
+            closed = true;
+            while (inFlight.get() > 0) {
+                LockSupport.parkNanos(100_000);
+            }
+            return remaining.get();
+        }
+    }
+}
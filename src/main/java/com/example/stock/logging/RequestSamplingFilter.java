@@ -0,0 +1,43 @@
+package com.example.stock.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides once per request whether its success-path logs are kept, so a sampled request
+ * is logged completely and an unsampled one not at all. The decision is put in the MDC
+ * under {@link #MDC_KEY} and enforced by {@link SampledOutTurboFilter}; warnings and
+ * errors are always logged.
+ */
+@Component
+public class RequestSamplingFilter extends OncePerRequestFilter {
+
+    public static final String MDC_KEY = "sampled";
+
+    @Value("${stock.logging.success-sample-rate:1.0}")
+    private double sampleRate = 1.0;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (sampleRate >= 1.0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        MDC.put(MDC_KEY, ThreadLocalRandom.current().nextDouble() < sampleRate ? "true" : "false");
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+}
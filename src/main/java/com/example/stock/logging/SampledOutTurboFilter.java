@@ -0,0 +1,25 @@
+package com.example.stock.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Denies INFO and lower events of requests that {@link RequestSamplingFilter} did not
+ * sample. Runs before the event is created, so a denied call costs no formatting or
+ * allocation. Registered in {@code logback-spring.xml}.
+ */
+public class SampledOutTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        return "false".equals(MDC.get(RequestSamplingFilter.MDC_KEY)) ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+}
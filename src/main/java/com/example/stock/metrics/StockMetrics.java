@@ -0,0 +1,110 @@
+package com.example.stock.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase timers and rejection counters for the stock write paths.
+ *
+ * <p>Timers are registered once at startup and looked up through an {@link EnumMap}, so
+ * recording a phase is a {@code System.nanoTime()} call and a histogram update, with no
+ * registry lookup or allocation. Rejection and low-stock counters are registered on first
+ * use and cached by tag. Rejections are tagged by item for at most
+ * {@code stock.metrics.max-item-tags} distinct items; later items share the tag
+ * {@code other} so a scan over unknown ids cannot blow up the series count.
+ */
+@Component
+public class StockMetrics {
+
+    public enum Phase {
+        ITEM_LOOKUP("item", "lookup"),
+        ORDER_STOCK_UPDATE("order", "stock_update"),
+        ORDER_INSERT("order", "insert"),
+        INVENTORY_STOCK_UPDATE("inventory", "stock_update"),
+        INVENTORY_INSERT("inventory", "insert");
+
+        private final String operation;
+        private final String phase;
+
+        Phase(String operation, String phase) {
+            this.operation = operation;
+            this.phase = phase;
+        }
+    }
+
+    public static final String INSUFFICIENT_STOCK = "insufficient_stock";
+    public static final String NOT_FOUND = "not_found";
+    public static final String DUPLICATE_ORDER = "duplicate_order";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${stock.metrics.max-item-tags:200}")
+    private int maxItemTags = 200;
+
+    private final Map<Phase, Timer> timers = new EnumMap<>(Phase.class);
+
+    private final Set<Long> taggedItems = ConcurrentHashMap.newKeySet();
+
+    // reason -> item tag -> counter
+    private final Map<String, Map<String, Counter>> rejectionCounters = new ConcurrentHashMap<>();
+
+    // item tag -> counter
+    private final Map<String, Counter> lowStockCounters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (Phase phase : Phase.values()) {
+            timers.put(phase, Timer.builder("stock.phase")
+                    .description("Time spent in one phase of a stock operation")
+                    .tag("operation", phase.operation)
+                    .tag("phase", phase.phase)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /** Records the time since {@code startNanos}, taken from {@link System#nanoTime()}. */
+    public void recordPhase(Phase phase, long startNanos) {
+        timers.get(phase).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRejection(String reason, Long itemId) {
+        rejectionCounters.computeIfAbsent(reason, r -> new ConcurrentHashMap<>())
+                .computeIfAbsent(itemTag(itemId), tag -> Counter.builder("stock.rejections")
+                        .description("Orders and withdrawals rejected, by reason and item")
+                        .tag("reason", reason)
+                        .tag("item", tag)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    public void recordLowStock(Long itemId) {
+        lowStockCounters.computeIfAbsent(itemTag(itemId), tag -> Counter.builder("stock.low_stock")
+                        .description("Items whose stock fell below their reorder point")
+                        .tag("item", tag)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private String itemTag(Long itemId) {
+        if (itemId == null) {
+            return "none";
+        }
+        if (taggedItems.contains(itemId) || (taggedItems.size() < maxItemTags && taggedItems.add(itemId))) {
+            return itemId.toString();
+        }
+        return "other";
+    }
+}
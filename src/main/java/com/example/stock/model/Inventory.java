@@ -1,6 +1,8 @@
 package com.example.stock.model;
 
+import com.example.stock.id.PooledId;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -18,7 +20,7 @@ import java.time.LocalDateTime;
 public class Inventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("inventory")
     private Long id;
 
     @Column(name = "item_id", nullable = false)
@@ -30,6 +32,7 @@ public class Inventory {
     @Column(nullable = false, length = 10)
     private String type; // "T" or "W"
 
+    @ColumnDefault("CURRENT_TIMESTAMP")
     @Column(name = "created_at", insertable = false, updatable = false)
     private LocalDateTime createdAt;
 }
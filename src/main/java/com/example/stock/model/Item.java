@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "item", indexes = {
@@ -26,6 +27,17 @@ public class Item {
     private Double price;
 
     // Eagerly updated stock count for listing performance
-    @Column(columnDefinition = "integer default 0")
+    // No columnDefinition: Hibernate copies it into the casts of parameters bound against the column
+    @ColumnDefault("0")
+    @Column(nullable = false)
     private Integer stock = 0;
+
+    // Bumped on every stock write, used by the optimistic mutation strategy
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Stock level below which the item is reported for replenishment; null for none
+    @Column(name = "reorder_point")
+    private Integer reorderPoint;
 }
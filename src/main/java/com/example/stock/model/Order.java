@@ -1,6 +1,9 @@
 package com.example.stock.model;
 
+import com.example.stock.id.PooledId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,7 +14,8 @@ import java.time.LocalDateTime;
 @Table(name = "orders", indexes = {
         @Index(name = "idx_order_no", columnList = "order_no"),
         @Index(name = "idx_order_item_id", columnList = "item_id"),
-        @Index(name = "idx_order_created_at", columnList = "created_at")
+        @Index(name = "idx_order_created_at", columnList = "created_at"),
+        @Index(name = "idx_order_lease_id", columnList = "lease_id")
 })
 @Data
 @NoArgsConstructor
@@ -19,7 +23,7 @@ import java.time.LocalDateTime;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("orders")
     private Long id;
 
     @Column(name = "order_no", nullable = false, unique = true)
@@ -34,6 +38,12 @@ public class Order {
     @Column(nullable = false)
     private Double price;
 
+    @ColumnDefault("CURRENT_TIMESTAMP")
     @Column(name = "created_at", insertable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    // Stock lease the units came from (stock.lease.enabled), null otherwise
+    @JsonIgnore
+    @Column(name = "lease_id")
+    private Long leaseId;
 }
@@ -0,0 +1,54 @@
+package com.example.stock.model;
+
+import com.example.stock.id.PooledId;
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock held for a checkout. The units are taken from {@code item.stock} when the hold is
+ * created and either become an order on confirm or are returned on cancel or expiry.
+ */
+@Entity
+@Table(name = "reservation", indexes = {
+        @Index(name = "idx_reservation_item_id", columnList = "item_id"),
+        @Index(name = "idx_reservation_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Reservation {
+
+    public static final String HELD = "HELD";
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String EXPIRED = "EXPIRED";
+
+    @Id
+    @PooledId("reservation")
+    private Long id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private Integer qty;
+
+    @Column(nullable = false, length = 10)
+    private String status;
+
+    // Set when the hold is confirmed
+    @Column(name = "order_no")
+    private String orderNo;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
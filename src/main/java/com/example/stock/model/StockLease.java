@@ -0,0 +1,56 @@
+package com.example.stock.model;
+
+import com.example.stock.id.PooledId;
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A block of stock taken from {@code item.stock} by one instance. Orders placed from it
+ * carry its id in {@code orders.lease_id}; what was not ordered goes back to the item when
+ * the lease is returned, or when it is recovered after expiring.
+ */
+@Entity
+@Table(name = "stock_lease", indexes = {
+        @Index(name = "idx_stock_lease_item_id", columnList = "item_id"),
+        @Index(name = "idx_stock_lease_status_expires", columnList = "status, expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLease {
+
+    public static final String ACTIVE = "ACTIVE";
+    public static final String RETURNED = "RETURNED";
+    public static final String RECOVERED = "RECOVERED";
+
+    @Id
+    @PooledId("stock_lease")
+    private Long id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private Integer granted;
+
+    // Units given back to the item, set when the lease is closed
+    private Integer returned;
+
+    @Column(nullable = false, length = 10)
+    private String status;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -2,8 +2,22 @@ package com.example.stock.repository;
 
 import com.example.stock.model.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+
+    // Keyset pagination on (created_at, id), served by idx_inventory_created_at without OFFSET or COUNT
+    @Query(value = "SELECT * FROM inventory ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Inventory> findFirstKeysetPage(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM inventory WHERE created_at <= :createdAt AND (created_at < :createdAt OR id < :id) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Inventory> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                        @Param("limit") int limit);
 }
@@ -1,9 +1,29 @@
 package com.example.stock.repository;
 
 import com.example.stock.model.Item;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+
+    // Returns 0 when the item is missing or holds fewer than qty units
+    @Modifying
+    @Query("UPDATE Item i SET i.stock = i.stock - :qty, i.version = i.version + 1 WHERE i.id = :id AND i.stock >= :qty")
+    int decrementStock(@Param("id") Long id, @Param("qty") int qty);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.stock = i.stock + :qty, i.version = i.version + 1 WHERE i.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("qty") int qty);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
 }
@@ -2,8 +2,28 @@ package com.example.stock.repository;
 
 import com.example.stock.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    Optional<Order> findByOrderNo(String orderNo);
+
+    List<Order> findByOrderNoIn(Collection<String> orderNos);
+
+    // Keyset pagination on (created_at, id), served by idx_order_created_at without OFFSET or COUNT
+    @Query(value = "SELECT * FROM orders ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findFirstKeysetPage(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM orders WHERE created_at <= :createdAt AND (created_at < :createdAt OR id < :id) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                    @Param("limit") int limit);
 }
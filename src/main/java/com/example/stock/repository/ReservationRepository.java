@@ -0,0 +1,28 @@
+package com.example.stock.repository;
+
+import com.example.stock.model.Reservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    List<Reservation> findByStatus(String status);
+
+    // Returns 0 when the reservation is missing, no longer held or past its expiry
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = 'CONFIRMED', r.orderNo = :orderNo "
+            + "WHERE r.id = :id AND r.status = 'HELD' AND r.expiresAt > :now")
+    int confirm(@Param("id") Long id, @Param("orderNo") String orderNo, @Param("now") LocalDateTime now);
+
+    // Returns 0 when the reservation is missing or no longer held
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :status WHERE r.id = :id AND r.status = 'HELD'")
+    int release(@Param("id") Long id, @Param("status") String status);
+}
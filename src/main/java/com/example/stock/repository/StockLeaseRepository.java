@@ -0,0 +1,34 @@
+package com.example.stock.repository;
+
+import com.example.stock.model.StockLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockLeaseRepository extends JpaRepository<StockLease, Long> {
+
+    List<StockLease> findByStatusAndExpiresAtBefore(String status, LocalDateTime now);
+
+    // Returns 0 when the lease has been closed, e.g. recovered by another instance
+    @Modifying
+    @Query("UPDATE StockLease l SET l.expiresAt = :expiresAt WHERE l.id = :id AND l.status = 'ACTIVE'")
+    int renew(@Param("id") Long id, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Returns 0 when the lease is missing or already closed
+    @Modifying
+    @Query("UPDATE StockLease l SET l.status = 'RETURNED', l.returned = :returned "
+            + "WHERE l.id = :id AND l.status = 'ACTIVE'")
+    int markReturned(@Param("id") Long id, @Param("returned") int returned);
+
+    // Returns 0 when the lease is already closed or has been renewed past now
+    @Modifying
+    @Query("UPDATE StockLease l SET l.status = 'RECOVERED', l.returned = :returned "
+            + "WHERE l.id = :id AND l.status = 'ACTIVE' AND l.expiresAt < :now")
+    int markRecovered(@Param("id") Long id, @Param("returned") int returned, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,163 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.BatchOrderResult;
+import com.example.stock.event.StockChangedEvent;
+import com.example.stock.exception.DuplicateOrderException;
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.model.Order;
+import com.example.stock.repository.OrderRepository;
+import com.example.stock.service.strategy.StockMutationStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Places many orders in one transaction. Stock is deducted once per item for the
+ * whole group, falling back to order-by-order deductions only when the group total
+ * does not fit, and the accepted orders are inserted with JDBC batching.
+ */
+@Service
+public class BatchOrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchOrderService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockMutationStrategy stockMutationStrategy;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    /**
+     * Returns one result per input order, in input order.
+     */
+    public List<BatchOrderResult> placeOrders(List<Order> orders) {
+        try {
+            return stockMutationStrategy.execute(() -> transactionTemplate.execute(status -> process(orders)));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request inserted one of our order numbers; isolate it
+            log.warn("[BATCH] Constraint violation in batch of {}, retrying orders one by one", orders.size());
+            if (orders.size() == 1) {
+                return List.of(BatchOrderResult.failure(orders.get(0).getOrderNo(),
+                        "Rejected by the database (duplicate order number or unknown item)", e));
+            }
+            List<BatchOrderResult> results = new ArrayList<>(orders.size());
+            for (Order order : orders) {
+                // Ids handed out to the rolled-back attempt are discarded
+                order.setId(null);
+                results.addAll(placeOrders(List.of(order)));
+            }
+            return results;
+        }
+    }
+
+    private List<BatchOrderResult> process(List<Order> orders) {
+        BatchOrderResult[] results = new BatchOrderResult[orders.size()];
+        // Items in ascending id order so concurrent batches lock rows in the same order
+        Map<Long, List<Integer>> byItem = new TreeMap<>();
+
+        Set<String> existing = new HashSet<>();
+        List<String> orderNos = orders.stream().map(Order::getOrderNo).filter(no -> no != null).toList();
+        if (!orderNos.isEmpty()) {
+            orderRepository.findByOrderNoIn(orderNos).forEach(o -> existing.add(o.getOrderNo()));
+        }
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            String invalid = validate(order);
+            if (invalid != null) {
+                results[i] = BatchOrderResult.failure(order.getOrderNo(), new IllegalArgumentException(invalid));
+            } else if (existing.contains(order.getOrderNo()) || !seen.add(order.getOrderNo())) {
+                results[i] = BatchOrderResult.failure(order.getOrderNo(),
+                        new DuplicateOrderException("Duplicate order number"));
+            } else {
+                byItem.computeIfAbsent(order.getItemId(), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<Order> accepted = new ArrayList<>();
+        for (Map.Entry<Long, List<Integer>> group : byItem.entrySet()) {
+            deductGroup(group.getKey(), group.getValue(), orders, results, accepted);
+        }
+
+        orderRepository.saveAll(accepted);
+        orderRepository.flush();
+        salesRollupService.recordOrders(accepted);
+        for (int i = 0; i < orders.size(); i++) {
+            if (results[i] == null) {
+                results[i] = BatchOrderResult.success(orders.get(i));
+            }
+        }
+        log.info("[BATCH] Processed {} orders for {} items, {} accepted",
+                orders.size(), byItem.size(), accepted.size());
+        return List.of(results);
+    }
+
+    private void deductGroup(Long itemId, List<Integer> indexes, List<Order> orders,
+                             BatchOrderResult[] results, List<Order> accepted) {
+        int total = 0;
+        for (int i : indexes) {
+            total += orders.get(i).getQty();
+        }
+        try {
+            stockMutationStrategy.decrement(itemId, total);
+            indexes.forEach(i -> accepted.add(orders.get(i)));
+            eventPublisher.publishEvent(new StockChangedEvent(itemId));
+            return;
+        } catch (ResourceNotFoundException e) {
+            indexes.forEach(i -> results[i] = BatchOrderResult.failure(orders.get(i).getOrderNo(), e));
+            return;
+        } catch (InsufficientStockException e) {
+            log.debug("[BATCH] Item {} cannot cover {} units, allocating order by order", itemId, total);
+        }
+
+        // Not everything fits: serve orders in arrival order while stock lasts
+        for (int i : indexes) {
+            Order order = orders.get(i);
+            try {
+                stockMutationStrategy.decrement(itemId, order.getQty());
+                accepted.add(order);
+            } catch (InsufficientStockException e) {
+                results[i] = BatchOrderResult.failure(order.getOrderNo(), e);
+            }
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(itemId));
+    }
+
+    private String validate(Order order) {
+        if (order.getOrderNo() == null || order.getOrderNo().isBlank()) {
+            return "Order number is required";
+        }
+        if (order.getItemId() == null) {
+            return "Item ID is required";
+        }
+        if (order.getQty() == null || order.getQty() <= 0) {
+            return "Quantity must be positive";
+        }
+        if (order.getPrice() == null) {
+            return "Price is required";
+        }
+        return null;
+    }
+}
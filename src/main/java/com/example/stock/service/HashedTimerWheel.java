@@ -0,0 +1,148 @@
+package com.example.stock.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel for {@link ReservationService}: one timeout per key, fired on a single
+ * ticker thread once its delay has passed.
+ *
+ * <p>A timeout lands in bucket {@code deadlineTick % wheelSize} and carries the number of
+ * full turns left, so scheduling and cancelling are O(1) whatever the number of pending
+ * timeouts, and each tick only visits one bucket. Timeouts fire up to one tick late.
+ *
+ * <p>New timeouts are handed to the ticker through a queue, so only the ticker thread
+ * touches the buckets. Cancelling removes the key from the map; the bucket entry is
+ * dropped when the ticker next visits it.
+ */
+class HashedTimerWheel<K> {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedTimerWheel.class);
+
+    private static final class Timeout<K> {
+        private final K key;
+        private final long deadlineNanos;
+        private long remainingRounds;
+
+        Timeout(K key, long deadlineNanos) {
+            this.key = key;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Timeout<K>>> buckets;
+    private final Consumer<K> onExpiry;
+    private final long startNanos = System.nanoTime();
+
+    private final ConcurrentLinkedQueue<Timeout<K>> added = new ConcurrentLinkedQueue<>();
+    // Live timeouts; whoever removes a key first (cancel or expiry) owns it
+    private final ConcurrentHashMap<K, Timeout<K>> byKey = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+
+    // Next tick to process; only the ticker thread reads or writes it
+    private long tick;
+
+    HashedTimerWheel(long tickMillis, int wheelSize, Consumer<K> onExpiry) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.onExpiry = onExpiry;
+    }
+
+    void start(String threadName) {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = TimeUnit.NANOSECONDS.toMillis(tickNanos);
+        ticker.scheduleAtFixedRate(() -> advance(System.nanoTime()), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /** Fires {@code key} after {@code delayMillis}, replacing any timeout already set for it. */
+    void schedule(K key, long delayMillis) {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(delayMillis, 0));
+        Timeout<K> timeout = new Timeout<>(key, deadlineNanos);
+        byKey.put(key, timeout);
+        added.add(timeout);
+    }
+
+    /** Returns false when the key had no pending timeout, e.g. because it already fired. */
+    boolean cancel(K key) {
+        return byKey.remove(key) != null;
+    }
+
+    int size() {
+        return byKey.size();
+    }
+
+    // Processes every tick that ended by nowNanos, catching up after a slow expiry
+    void advance(long nowNanos) {
+        while ((tick + 1) * tickNanos <= nowNanos - startNanos) {
+            transferAdded();
+            expireBucket(buckets.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    private void transferAdded() {
+        Timeout<K> timeout;
+        while ((timeout = added.poll()) != null) {
+            if (byKey.get(timeout.key) != timeout) {
+                continue;
+            }
+            long deadlineTick = Math.max((timeout.deadlineNanos - startNanos) / tickNanos, tick);
+            timeout.remainingRounds = (deadlineTick - tick) / (mask + 1);
+            buckets.get((int) (deadlineTick & mask)).add(timeout);
+        }
+    }
+
+    private void expireBucket(List<Timeout<K>> bucket) {
+        int kept = 0;
+        for (Timeout<K> timeout : bucket) {
+            if (byKey.get(timeout.key) != timeout) {
+                // Cancelled or rescheduled
+                continue;
+            }
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                bucket.set(kept++, timeout);
+                continue;
+            }
+            if (byKey.remove(timeout.key, timeout)) {
+                fire(timeout.key);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    private void fire(K key) {
+        try {
+            onExpiry.accept(key);
+        } catch (RuntimeException e) {
+            log.error("[TIMER] Expiry of {} failed", key, e);
+        }
+    }
+}
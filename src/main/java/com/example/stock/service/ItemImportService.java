@@ -0,0 +1,337 @@
+package com.example.stock.service;
+
+import com.example.stock.cache.ItemCache;
+import com.example.stock.cache.ItemSearchIndex;
+import com.example.stock.dto.ExportFormat;
+import com.example.stock.dto.ImportReport;
+import com.example.stock.event.StockChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk upsert of catalogue items from a CSV or NDJSON stream.
+ *
+ * <p>The input is read line by line and validated as it goes; valid rows are collected into
+ * batches of {@code stock.import.batch-size}. Each batch is one transaction with three
+ * statements: a name lookup, a batched price update for the names that exist and a single
+ * multi-row {@code INSERT} for the rest. A later line for the same name wins.
+ *
+ * <p>Names are matched case-insensitively, like MySQL's default collation. There is no
+ * unique index on {@code item.name}, so an item created concurrently through
+ * {@code POST /api/items} may end up duplicated. Stock is never imported; new items start
+ * at 0 and are stocked through {@code POST /api/inventory}.
+ */
+@Service
+public class ItemImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemImportService.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final int MAX_NAME_LENGTH = 255;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Value("${stock.import.batch-size:1000}")
+    private int batchSize = 1000;
+
+    // Rejected lines listed in the report; further ones are only counted
+    @Value("${stock.import.max-errors:1000}")
+    private int maxErrors = 1000;
+
+    private record Row(long line, String name, double price) {
+    }
+
+    public ImportReport importItems(ExportFormat format, InputStream in) {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+        // Keyed by lower-case name, so a later line for the same item replaces the earlier one
+        Map<String, Row> batch = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            int[] columns = null;
+            long lineNo = 0;
+            String line;
+            if (format == ExportFormat.CSV) {
+                String header = reader.readLine();
+                lineNo++;
+                columns = header == null ? null : csvColumns(parseCsv(header));
+                if (columns == null) {
+                    addError(report, 1, "CSV header must contain the columns name and price");
+                    return finish(report, start, format);
+                }
+            }
+            while ((line = reader.readLine()) != null) {
+                long startLine = ++lineNo;
+                if (format == ExportFormat.CSV) {
+                    // A quoted field may span several lines
+                    while (hasOpenQuote(line)) {
+                        String next = reader.readLine();
+                        if (next == null) {
+                            break;
+                        }
+                        lineNo++;
+                        line = line + "\n" + next;
+                    }
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.setRows(report.getRows() + 1);
+                try {
+                    Row row = format == ExportFormat.CSV ? csvRow(startLine, line, columns) : jsonRow(startLine, line);
+                    batch.put(row.name().toLowerCase(Locale.ROOT), row);
+                } catch (IllegalArgumentException e) {
+                    addError(report, startLine, e.getMessage());
+                }
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, report);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, report);
+        }
+        return finish(report, start, format);
+    }
+
+    private ImportReport finish(ImportReport report, long start, ExportFormat format) {
+        report.setDurationMs(System.currentTimeMillis() - start);
+        log.info("[IMPORT] Imported {} item rows as {}: {} inserted, {} updated, {} rejected ({} ms)",
+                report.getRows(), format, report.getInserted(), report.getUpdated(), report.getFailed(),
+                report.getDurationMs());
+        return report;
+    }
+
+    private void writeBatch(Map<String, Row> batch, ImportReport report) {
+        List<Row> rows = new ArrayList<>(batch.values());
+        try {
+            int[] counts = transactionTemplate.execute(status -> upsert(rows));
+            report.setInserted(report.getInserted() + counts[0]);
+            report.setUpdated(report.getUpdated() + counts[1]);
+        } catch (DataAccessException e) {
+            log.warn("[IMPORT] Batch of {} rows starting at line {} failed: {}", rows.size(), rows.get(0).line(),
+                    e.getMostSpecificCause().getMessage());
+            for (Row row : rows) {
+                addError(report, row.line(), "Batch rejected by the database: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    // Returns {inserted, updated}
+    private int[] upsert(List<Row> rows) {
+        List<Object> names = new ArrayList<>(rows.size());
+        rows.forEach(row -> names.add(row.name()));
+        Set<String> existing = new HashSet<>();
+        List<Long> ids = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, name FROM item WHERE name IN (" + placeholders(rows.size(), "?") + ")",
+                rs -> {
+                    ids.add(rs.getLong(1));
+                    existing.add(rs.getString(2).toLowerCase(Locale.ROOT));
+                }, names.toArray());
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Object> inserts = new ArrayList<>();
+        for (Row row : rows) {
+            if (existing.contains(row.name().toLowerCase(Locale.ROOT))) {
+                updates.add(new Object[]{row.price(), row.name()});
+            } else {
+                inserts.add(row.name());
+                inserts.add(row.price());
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE item SET price = ?, version = version + 1 WHERE name = ?", updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO item (name, price, stock, version) VALUES "
+                    + placeholders(inserts.size() / 2, "(?, ?, 0, 0)"), inserts.toArray());
+            // New items start out of stock; let the low-stock index and the change stream know,
+            // and make them searchable
+            List<Object> inserted = new ArrayList<>(inserts.size() / 2);
+            for (int i = 0; i < inserts.size(); i += 2) {
+                inserted.add(inserts.get(i));
+            }
+            Map<Long, String> searchable = new LinkedHashMap<>();
+            jdbcTemplate.query("SELECT id, name FROM item WHERE name IN (" + placeholders(inserted.size(), "?") + ")",
+                    rs -> {
+                        searchable.put(rs.getLong(1), rs.getString(2));
+                        eventPublisher.publishEvent(new StockChangedEvent(rs.getLong(1)));
+                    }, inserted.toArray());
+            // A rolled-back batch must not leave unknown ids in the index
+            afterCommit(() -> searchable.forEach(itemSearchIndex::put));
+        }
+        // Evicting earlier would let a concurrent read cache the old price again until the commit
+        afterCommit(() -> itemCache.evictAll(ids));
+        return new int[]{inserts.size() / 2, updates.size()};
+    }
+
+    // The rows are committed by then: a failure here must not reach writeBatch and be reported as rejected rows
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.warn("[IMPORT] Post-commit update of the item cache or search index failed", e);
+                }
+            }
+        });
+    }
+
+    private static String placeholders(int count, String placeholder) {
+        return String.join(", ", Collections.nCopies(count, placeholder));
+    }
+
+    private void addError(ImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportReport.LineError(line, message));
+        }
+    }
+
+    // --- PARSING ---
+
+    private Row jsonRow(long line, String text) {
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        JsonNode name = node.path("name");
+        JsonNode price = node.path("price");
+        return validate(line, name.isTextual() ? name.asText() : null,
+                price.isNumber() || price.isTextual() ? price.asText() : null);
+    }
+
+    private Row csvRow(long line, String text, int[] columns) {
+        List<String> fields = parseCsv(text);
+        String name = columns[0] < fields.size() ? fields.get(columns[0]) : null;
+        String price = columns[1] < fields.size() ? fields.get(columns[1]) : null;
+        return validate(line, name, price);
+    }
+
+    private Row validate(long line, String name, String price) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        name = name.trim();
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Name is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        if (price == null || price.isBlank()) {
+            throw new IllegalArgumentException("Price is required");
+        }
+        double value;
+        try {
+            value = Double.parseDouble(price.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Price is not a number: " + price);
+        }
+        if (!Double.isFinite(value) || value < 0) {
+            throw new IllegalArgumentException("Price must be zero or positive: " + price);
+        }
+        return new Row(line, name, value);
+    }
+
+    // Positions of the name and price columns, null when either is missing
+    private static int[] csvColumns(List<String> header) {
+        int name = -1;
+        int price = -1;
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (column.equals("name")) {
+                name = i;
+            } else if (column.equals("price")) {
+                price = i;
+            }
+        }
+        return name < 0 || price < 0 ? null : new int[]{name, price};
+    }
+
+    private static boolean hasOpenQuote(String text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    // RFC 4180 fields: quoted fields may contain separators, line breaks and doubled quotes
+    private static List<String> parseCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"') {
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,436 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.KeysetCursor;
+import com.example.stock.model.Inventory;
+import com.example.stock.model.Order;
+import com.example.stock.service.LedgerExportService.Column;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves whole days of the orders and inventory ledgers older than
+ * {@code stock.archive.retention-days} out of the hot tables into gzip-compressed NDJSON files
+ * under {@code stock.archive.dir}, one file per table and day. The tables and their indexes
+ * then stay bounded by the retention window instead of growing forever.
+ *
+ * <p>Each archived day has a row in {@code ledger_archive} with its file, row count and highest
+ * id. Days are archived oldest first, so everything before the end of the newest archived day
+ * ({@link #archivedUntil}) is served from files: the ledger export and the keyset listings
+ * continue into them.
+ *
+ * <p>A day is archived in three steps: its rows are written to a new file, the file is
+ * registered in {@code ledger_archive}, and the rows are deleted in chunks of
+ * {@code stock.archive.purge-batch-size}. Each chunk adds the stock effect of the rows it
+ * deletes to {@code ledger_archive_balance} in the same transaction, so reconciliation counts
+ * every unit exactly once. Registration is the commit point: an instance that loses the race
+ * for a day drops its own file, and a purge cut short by a crash is finished on the next run.
+ */
+@Service
+public class LedgerArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerArchiveService.class);
+
+    private static final List<String> LEDGERS = List.of("orders", "inventory");
+
+    private static final String ADD_BALANCE = "INSERT INTO ledger_archive_balance (item_id, balance) VALUES (?, ?)"
+            + " ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)";
+
+    // Stock effect of one ledger row, as counted by StockReconciliationService
+    private static final String ORDER_EFFECT = "-qty";
+    private static final String INVENTORY_EFFECT = "CASE type WHEN 'T' THEN qty WHEN 'W' THEN -qty ELSE 0 END";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${stock.archive.retention-days:90}")
+    private int retentionDays = 90;
+
+    @Value("${stock.archive.dir:archive}")
+    private String archiveDir = "archive";
+
+    @Value("${stock.archive.purge-batch-size:1000}")
+    private int purgeBatchSize = 1000;
+
+    @Value("${stock.archive.max-days-per-run:31}")
+    private int maxDaysPerRun = 31;
+
+    @Value("${stock.export.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int fetchSize = Integer.MIN_VALUE;
+
+    // Separate template so the streaming fetch size does not leak into other queries
+    private JdbcTemplate streamingTemplate;
+
+    private TransactionTemplate purgeTemplate;
+
+    // One archived day of a ledger
+    private record Partition(LocalDate day, String fileName, long maxId) {
+    }
+
+    @PostConstruct
+    public void init() {
+        streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(fetchSize);
+        purgeTemplate = new TransactionTemplate(transactionManager);
+        // The locking read must see rows deleted by a concurrent purge as gone
+        purgeTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    @Scheduled(cron = "${stock.archive.cron:-}")
+    public void scheduledArchive() {
+        archive();
+    }
+
+    /**
+     * Archives every day older than the retention window, up to {@code stock.archive.max-days-per-run}
+     * days per ledger, after finishing any purge an earlier run did not complete.
+     */
+    public Map<String, Object> archive() {
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        int days = 0;
+        long rows = 0;
+        for (String table : LEDGERS) {
+            finishPurges(table);
+            for (int i = 0; i < maxDaysPerRun; i++) {
+                LocalDateTime until = archivedUntil(table);
+                Timestamp oldest = until == null
+                        ? jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM " + table
+                                + " WHERE created_at < ?", Timestamp.class, Timestamp.valueOf(cutoff))
+                        : jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM " + table
+                                + " WHERE created_at >= ? AND created_at < ?", Timestamp.class,
+                                Timestamp.valueOf(until), Timestamp.valueOf(cutoff));
+                if (oldest == null) {
+                    break;
+                }
+                long archived = archiveDay(table, oldest.toLocalDateTime().toLocalDate());
+                if (archived > 0) {
+                    days++;
+                    rows += archived;
+                }
+            }
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("days", days);
+        summary.put("rows", rows);
+        summary.put("cutoff", cutoff.toLocalDate());
+        summary.put("durationMs", System.currentTimeMillis() - start);
+        log.info("[ARCHIVE] Archived {} days ({} rows) before {} in {} ms", days, rows, cutoff.toLocalDate(),
+                summary.get("durationMs"));
+        return summary;
+    }
+
+    /** Start of the first day of {@code table} that is not archived, or null when none is. */
+    public LocalDateTime archivedUntil(String table) {
+        Date last = jdbcTemplate.queryForObject(
+                "SELECT MAX(partition_date) FROM ledger_archive WHERE ledger = ?", Date.class, table);
+        return last == null ? null : last.toLocalDate().plusDays(1).atStartOfDay();
+    }
+
+    /**
+     * Passes the archived rows of {@code table} in {@code [from, to)} (either bound may be null),
+     * optionally for one item, to {@code handler} in {@code (created_at, id)} order. Values are
+     * in the order of the export columns, with {@code createdAt} as a LocalDateTime.
+     */
+    public long readArchived(String table, LocalDateTime from, LocalDateTime to, Long itemId,
+                             Consumer<Object[]> handler) {
+        List<Column> columns = LedgerExportService.columns(table);
+        int itemColumn = indexOf(columns, "item_id");
+        int createdColumn = indexOf(columns, "created_at");
+        long[] count = new long[1];
+        for (Partition partition : partitions(table, from == null ? null : from.toLocalDate(),
+                to == null ? null : to.minusNanos(1).toLocalDate())) {
+            readFile(table, partition, columns, values -> {
+                LocalDateTime createdAt = (LocalDateTime) values[createdColumn];
+                if ((from == null || !createdAt.isBefore(from)) && (to == null || createdAt.isBefore(to))
+                        && (itemId == null || itemId == ((Number) values[itemColumn]).longValue())) {
+                    handler.accept(values);
+                    count[0]++;
+                }
+            });
+        }
+        return count[0];
+    }
+
+    /** Archived orders after {@code cursor} (from the newest when null) in keyset listing order. */
+    public List<Order> seekOrders(KeysetCursor cursor, int limit) {
+        return seek("orders", cursor, limit).stream()
+                .map(v -> new Order(((Number) v[0]).longValue(), (String) v[1], ((Number) v[2]).longValue(),
+                        ((Number) v[3]).intValue(), ((Number) v[4]).doubleValue(), (LocalDateTime) v[5], null))
+                .toList();
+    }
+
+    /** Archived inventory transactions after {@code cursor} (from the newest when null) in keyset listing order. */
+    public List<Inventory> seekInventory(KeysetCursor cursor, int limit) {
+        return seek("inventory", cursor, limit).stream()
+                .map(v -> new Inventory(((Number) v[0]).longValue(), ((Number) v[1]).longValue(),
+                        ((Number) v[2]).intValue(), (String) v[3], (LocalDateTime) v[4]))
+                .toList();
+    }
+
+    // Newest first, as the (created_at DESC, id DESC) keyset listings
+    private List<Object[]> seek(String table, KeysetCursor cursor, int limit) {
+        List<Column> columns = LedgerExportService.columns(table);
+        int createdColumn = indexOf(columns, "created_at");
+        List<Partition> partitions = partitions(table, null,
+                cursor == null ? null : cursor.createdAt().toLocalDate());
+        List<Object[]> page = new ArrayList<>(limit);
+        for (int i = partitions.size() - 1; i >= 0 && page.size() < limit; i--) {
+            int needed = limit - page.size();
+            // Files are in ascending order: keep the last rows before the cursor
+            ArrayDeque<Object[]> tail = new ArrayDeque<>(needed);
+            readFile(table, partitions.get(i), columns, values -> {
+                if (cursor == null || isBefore(values, createdColumn, cursor)) {
+                    if (tail.size() == needed) {
+                        tail.pollFirst();
+                    }
+                    tail.addLast(values);
+                }
+            });
+            while (!tail.isEmpty()) {
+                page.add(tail.pollLast());
+            }
+        }
+        return page;
+    }
+
+    private static boolean isBefore(Object[] values, int createdColumn, KeysetCursor cursor) {
+        int byTime = ((LocalDateTime) values[createdColumn]).compareTo(cursor.createdAt());
+        return byTime < 0 || byTime == 0 && ((Number) values[0]).longValue() < cursor.id();
+    }
+
+    // Returns the number of rows archived, 0 when another instance archived the day first
+    private long archiveDay(String table, LocalDate day) {
+        List<Column> columns = LedgerExportService.columns(table);
+        Timestamp dayStart = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp dayEnd = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(columns.get(i).sql());
+        }
+        sql.append(" FROM ").append(table).append(" WHERE created_at >= ? AND created_at < ? ORDER BY created_at, id");
+
+        // Unique per attempt, so instances racing for the same day never write the same file
+        String fileName = table + "-" + day + "-" + UUID.randomUUID().toString().substring(0, 8) + ".ndjson.gz";
+        Path dir = Path.of(archiveDir, table);
+        Path file = dir.resolve(fileName);
+        Path tmp = dir.resolve(fileName + ".tmp");
+        long[] written = new long[2];
+        boolean moved = false;
+        try {
+            Files.createDirectories(dir);
+            try (JsonGenerator json = LedgerExportService.JSON_FACTORY.createGenerator(
+                    new GZIPOutputStream(Files.newOutputStream(tmp), 1 << 16), JsonEncoding.UTF8)) {
+                json.setRootValueSeparator(null);
+                streamingTemplate.query(sql.toString(), rs -> {
+                    Object[] values = LedgerExportService.values(rs, columns.size());
+                    LedgerExportService.writeJsonRow(json, columns, values);
+                    written[0]++;
+                    written[1] = Math.max(written[1], ((Number) values[0]).longValue());
+                }, dayStart, dayEnd);
+            }
+            // The file must be on disk before the rows it holds are deleted
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write archive file " + file, e);
+        } finally {
+            if (!moved) {
+                deleteQuietly(tmp);
+            }
+        }
+
+        try {
+            jdbcTemplate.update("INSERT INTO ledger_archive (ledger, partition_date, file_name, row_count, max_id)"
+                    + " VALUES (?, ?, ?, ?, ?)", table, Date.valueOf(day), fileName, written[0], written[1]);
+        } catch (DuplicateKeyException e) {
+            deleteQuietly(file);
+            log.info("[ARCHIVE] {} for {} was archived by another instance", table, day);
+            return 0;
+        }
+        long purged = purge(table, new Partition(day, fileName, written[1]));
+        log.info("[ARCHIVE] {} for {}: {} rows written to {}, {} deleted", table, day, written[0], fileName, purged);
+        return written[0];
+    }
+
+    // Deletes rows of archived days that are still in the table after an interrupted run
+    private void finishPurges(String table) {
+        LocalDateTime until = archivedUntil(table);
+        if (until == null) {
+            return;
+        }
+        Timestamp leftover = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM " + table
+                + " WHERE created_at < ?", Timestamp.class, Timestamp.valueOf(until));
+        if (leftover == null) {
+            return;
+        }
+        long purged = 0;
+        for (Partition partition : partitions(table, leftover.toLocalDateTime().toLocalDate(), null)) {
+            purged += purge(table, partition);
+        }
+        Long kept = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE created_at < ?",
+                Long.class, Timestamp.valueOf(until));
+        if (purged > 0) {
+            log.info("[ARCHIVE] Finished an interrupted purge of {}: {} rows deleted", table, purged);
+        }
+        if (kept != null && kept > 0) {
+            log.warn("[ARCHIVE] {} rows of {} are older than the archive but in no archive file; kept in the table",
+                    kept, table);
+        }
+    }
+
+    private long purge(String table, Partition partition) {
+        long purged = 0;
+        int chunk;
+        do {
+            chunk = purgeChunk(table, partition);
+            purged += chunk;
+        } while (chunk == purgeBatchSize);
+        return purged;
+    }
+
+    private int purgeChunk(String table, Partition partition) {
+        String effect = "orders".equals(table) ? ORDER_EFFECT : INVENTORY_EFFECT;
+        Integer purged = purgeTemplate.execute(status -> {
+            // A concurrent purge of the same rows waits for this lock and then finds them gone
+            List<long[]> rows = jdbcTemplate.query("SELECT id, item_id, " + effect + " FROM " + table
+                            + " WHERE created_at >= ? AND created_at < ? AND id <= ? ORDER BY id LIMIT ? FOR UPDATE",
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                    Timestamp.valueOf(partition.day().atStartOfDay()),
+                    Timestamp.valueOf(partition.day().plusDays(1).atStartOfDay()), partition.maxId(), purgeBatchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            List<Object[]> ids = new ArrayList<>(rows.size());
+            // Ascending item id, so concurrent writers lock balance rows in the same order
+            Map<Long, Long> balance = new TreeMap<>();
+            for (long[] row : rows) {
+                ids.add(new Object[]{row[0]});
+                balance.merge(row[1], row[2], Long::sum);
+            }
+            jdbcTemplate.batchUpdate("DELETE FROM " + table + " WHERE id = ?", ids);
+            List<Object[]> args = new ArrayList<>(balance.size());
+            balance.forEach((itemId, units) -> args.add(new Object[]{itemId, units}));
+            jdbcTemplate.batchUpdate(ADD_BALANCE, args);
+            return rows.size();
+        });
+        return purged == null ? 0 : purged;
+    }
+
+    // Archived days of table in [fromDay, toDay] (either may be null), oldest first
+    private List<Partition> partitions(String table, LocalDate fromDay, LocalDate toDay) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT partition_date, file_name, max_id FROM ledger_archive WHERE ledger = ?");
+        List<Object> args = new ArrayList<>(List.of(table));
+        if (fromDay != null) {
+            sql.append(" AND partition_date >= ?");
+            args.add(Date.valueOf(fromDay));
+        }
+        if (toDay != null) {
+            sql.append(" AND partition_date <= ?");
+            args.add(Date.valueOf(toDay));
+        }
+        sql.append(" ORDER BY partition_date");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new Partition(rs.getDate(1).toLocalDate(),
+                rs.getString(2), rs.getLong(3)), args.toArray());
+    }
+
+    private void readFile(String table, Partition partition, List<Column> columns, Consumer<Object[]> handler) {
+        Path file = Path.of(archiveDir, table, partition.fileName());
+        int createdColumn = indexOf(columns, "created_at");
+        try (JsonParser parser = LedgerExportService.JSON_FACTORY.createParser(
+                new GZIPInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Object[] values = new Object[columns.size()];
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    int column = indexOfName(columns, parser.currentName());
+                    JsonToken token = parser.nextToken();
+                    Object value = switch (token) {
+                        case VALUE_NUMBER_INT -> parser.getLongValue();
+                        case VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+                        case VALUE_NULL -> null;
+                        default -> parser.getText();
+                    };
+                    if (column >= 0) {
+                        values[column] = value;
+                    }
+                }
+                values[createdColumn] = LocalDateTime.parse((String) values[createdColumn]);
+                handler.accept(values);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive file " + file, e);
+        }
+    }
+
+    private static int indexOf(List<Column> columns, String sql) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).sql().equals(sql)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No column " + sql);
+    }
+
+    private static int indexOfName(List<Column> columns, String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("[ARCHIVE] Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
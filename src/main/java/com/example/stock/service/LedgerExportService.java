@@ -0,0 +1,251 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.ExportFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the orders and inventory ledgers as NDJSON or CSV straight from a forward-only
+ * JDBC cursor. Rows are written as they are read and never mapped to entities, so memory
+ * use does not depend on the number of rows.
+ *
+ * <p>Days moved out of the hot tables by {@link LedgerArchiveService} are read back from
+ * their archive files first, in {@code (created_at, id)} order, followed by the rows still in
+ * the table in id order.
+ *
+ * <p>With MySQL Connector/J, a fetch size of {@link Integer#MIN_VALUE} (the default of
+ * {@code stock.export.fetch-size}) switches the driver to row-by-row streaming; other
+ * databases need a positive value.
+ */
+@Service
+public class LedgerExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerExportService.class);
+
+    static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Database column and the name used in the exported JSON/CSV header
+    record Column(String sql, String name) {
+    }
+
+    static final List<Column> ORDER_COLUMNS = List.of(
+            new Column("id", "id"), new Column("order_no", "orderNo"), new Column("item_id", "itemId"),
+            new Column("qty", "qty"), new Column("price", "price"), new Column("created_at", "createdAt"));
+
+    static final List<Column> INVENTORY_COLUMNS = List.of(
+            new Column("id", "id"), new Column("item_id", "itemId"), new Column("qty", "qty"),
+            new Column("type", "type"), new Column("created_at", "createdAt"));
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private LedgerArchiveService ledgerArchiveService;
+
+    @Value("${stock.export.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int fetchSize = Integer.MIN_VALUE;
+
+    // Separate template so the streaming fetch size does not leak into other queries
+    private JdbcTemplate streamingTemplate;
+
+    @PostConstruct
+    public void init() {
+        streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(fetchSize);
+    }
+
+    public long exportOrders(ExportFormat format, LocalDateTime from, LocalDateTime to, Long itemId,
+                             OutputStream out) {
+        return export("orders", ORDER_COLUMNS, format, from, to, itemId, out);
+    }
+
+    public long exportInventory(ExportFormat format, LocalDateTime from, LocalDateTime to, Long itemId,
+                                OutputStream out) {
+        return export("inventory", INVENTORY_COLUMNS, format, from, to, itemId, out);
+    }
+
+    static List<Column> columns(String table) {
+        return "orders".equals(table) ? ORDER_COLUMNS : INVENTORY_COLUMNS;
+    }
+
+    private long export(String table, List<Column> columns, ExportFormat format, LocalDateTime from,
+                        LocalDateTime to, Long itemId, OutputStream out) {
+        // Rows before this point are read from the archive, even if a purge has not removed them yet
+        LocalDateTime archivedUntil = ledgerArchiveService.archivedUntil(table);
+        boolean fromArchive = archivedUntil != null && (from == null || from.isBefore(archivedUntil));
+        LocalDateTime hotFrom = fromArchive ? archivedUntil : from;
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(columns.get(i).sql());
+        }
+        sql.append(" FROM ").append(table).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (hotFrom != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(hotFrom));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        if (itemId != null) {
+            sql.append(" AND item_id = ?");
+            args.add(itemId);
+        }
+        sql.append(" ORDER BY id");
+
+        long[] rows = new long[1];
+        try {
+            RowWriter writer = format == ExportFormat.CSV ? csvWriter(out, columns) : jsonWriter(out, columns);
+            if (fromArchive) {
+                LocalDateTime archivedTo = to == null || to.isAfter(archivedUntil) ? archivedUntil : to;
+                rows[0] += ledgerArchiveService.readArchived(table, from, archivedTo, itemId, writer::write);
+            }
+            streamingTemplate.query(sql.toString(), rs -> {
+                writer.write(values(rs, columns.size()));
+                rows[0]++;
+            }, args.toArray());
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("[EXPORT] Streamed {} rows from {} as {}", rows[0], table, format);
+        return rows[0];
+    }
+
+    private interface RowWriter {
+
+        void write(Object[] values);
+
+        void flush() throws IOException;
+    }
+
+    private RowWriter jsonWriter(OutputStream out, List<Column> columns) throws IOException {
+        JsonGenerator json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        json.setRootValueSeparator(null);
+        return new RowWriter() {
+            @Override
+            public void write(Object[] values) {
+                writeJsonRow(json, columns, values);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                json.flush();
+            }
+        };
+    }
+
+    private RowWriter csvWriter(OutputStream out, List<Column> columns) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        writeCsvHeader(writer, columns);
+        return new RowWriter() {
+            @Override
+            public void write(Object[] values) {
+                writeCsvRow(writer, values);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    // Column values of the current row, with timestamps as LocalDateTime
+    static Object[] values(ResultSet rs, int count) throws SQLException {
+        Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            Object value = rs.getObject(i + 1);
+            values[i] = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : value;
+        }
+        return values;
+    }
+
+    static void writeJsonRow(JsonGenerator json, List<Column> columns, Object[] values) {
+        try {
+            json.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                json.writeFieldName(columns.get(i).name());
+                Object value = values[i];
+                if (value == null) {
+                    json.writeNull();
+                } else if (value instanceof Number number) {
+                    json.writeNumber(number.toString());
+                } else {
+                    json.writeString(value.toString());
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvHeader(Writer writer, List<Column> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns.get(i).name());
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvRow(Writer writer, Object[] values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writeCsvField(writer, values[i].toString());
+                }
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break; double embedded quotes
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
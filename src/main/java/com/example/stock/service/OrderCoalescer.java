@@ -0,0 +1,169 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.BatchOrderResult;
+import com.example.stock.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Group commit for single orders, enabled with {@code stock.coalesce.enabled=true}.
+ *
+ * <p>Concurrent orders for the same item are queued per item. One of the waiting callers
+ * becomes the leader, collects what arrives within {@code stock.coalesce.window-ms} (up to
+ * {@code stock.coalesce.max-batch} orders) and places the group through
+ * {@link BatchOrderService}: one stock {@code UPDATE} and one batched insert instead of
+ * a row-lock round trip per order. Every caller still gets its own order back, or the
+ * exception a lone {@code placeOrder} would have thrown.
+ *
+ * <p>No extra threads are involved; when the leader's batch is done the next waiting
+ * caller takes over, so nobody processes batches for longer than it waits for its own.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.coalesce.enabled", havingValue = "true")
+public class OrderCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderCoalescer.class);
+
+    @Autowired
+    private BatchOrderService batchOrderService;
+
+    @Value("${stock.coalesce.window-ms:2}")
+    private long windowMs = 2;
+
+    @Value("${stock.coalesce.max-batch:200}")
+    private int maxBatch = 200;
+
+    private final ConcurrentHashMap<Long, ItemQueue> queues = new ConcurrentHashMap<>();
+
+    private static final class ItemQueue {
+        final ReentrantLock lock = new ReentrantLock();
+        // Signalled when the queue reaches max-batch, to cut the leader's window short
+        final Condition full = lock.newCondition();
+        // Signalled when a batch completes or leadership is released
+        final Condition done = lock.newCondition();
+        final ArrayDeque<Pending> pending = new ArrayDeque<>();
+        boolean leaderActive;
+        // Removed from the map once drained; callers still holding it fetch a fresh one
+        boolean retired;
+    }
+
+    private static final class Pending {
+        final Order order;
+        BatchOrderResult result;
+        RuntimeException error;
+
+        Pending(Order order) {
+            this.order = order;
+        }
+
+        boolean isDone() {
+            return result != null || error != null;
+        }
+    }
+
+    public Order placeOrder(Order order) {
+        Pending mine = new Pending(order);
+        ItemQueue queue = lockQueue(order.getItemId());
+        try {
+            queue.pending.add(mine);
+            if (queue.pending.size() >= maxBatch) {
+                queue.full.signal();
+            }
+            while (true) {
+                while (!mine.isDone() && queue.leaderActive) {
+                    queue.done.awaitUninterruptibly();
+                }
+                if (mine.isDone()) {
+                    return unwrap(mine);
+                }
+                queue.leaderActive = true;
+                List<Pending> batch = collect(queue);
+                queue.lock.unlock();
+                try {
+                    execute(batch);
+                } finally {
+                    queue.lock.lock();
+                    queue.leaderActive = false;
+                    if (queue.pending.isEmpty()) {
+                        queue.retired = true;
+                        queues.remove(order.getItemId(), queue);
+                    }
+                    queue.done.signalAll();
+                }
+            }
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    private ItemQueue lockQueue(Long itemId) {
+        while (true) {
+            ItemQueue queue = queues.computeIfAbsent(itemId, id -> new ItemQueue());
+            queue.lock.lock();
+            if (!queue.retired) {
+                return queue;
+            }
+            queue.lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private List<Pending> collect(ItemQueue queue) {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        boolean interrupted = false;
+        while (queue.pending.size() < maxBatch && remaining > 0) {
+            try {
+                remaining = queue.full.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                interrupted = true;
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        List<Pending> batch = new ArrayList<>(Math.min(queue.pending.size(), maxBatch));
+        while (!queue.pending.isEmpty() && batch.size() < maxBatch) {
+            batch.add(queue.pending.poll());
+        }
+        return batch;
+    }
+
+    private void execute(List<Pending> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        batch.forEach(p -> orders.add(p.order));
+        try {
+            List<BatchOrderResult> results = batchOrderService.placeOrders(orders);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result = results.get(i);
+            }
+            log.debug("[COALESCE] Placed {} orders for item {} in one batch", batch.size(),
+                    orders.get(0).getItemId());
+        } catch (RuntimeException e) {
+            batch.forEach(p -> p.error = e);
+        }
+    }
+
+    private Order unwrap(Pending pending) {
+        if (pending.error != null) {
+            throw pending.error;
+        }
+        BatchOrderResult result = pending.result;
+        if (result.isSuccess()) {
+            return result.getOrder();
+        }
+        throw result.getError();
+    }
+}
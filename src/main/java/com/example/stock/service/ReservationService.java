@@ -0,0 +1,239 @@
+package com.example.stock.service;
+
+import com.example.stock.cache.OrderNoIndex;
+import com.example.stock.dto.ReservationConfirmation;
+import com.example.stock.dto.ReservationRequest;
+import com.example.stock.event.StockChangedEvent;
+import com.example.stock.exception.DuplicateOrderException;
+import com.example.stock.exception.ReservationNotActiveException;
+import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.model.Order;
+import com.example.stock.model.Reservation;
+import com.example.stock.repository.OrderRepository;
+import com.example.stock.repository.ReservationRepository;
+import com.example.stock.service.strategy.StockMutationStrategy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Two-phase checkout: stock is held by a {@link Reservation} and later confirmed into an
+ * {@link Order} or released.
+ *
+ * <p>Every phase is one short transaction. Holding runs the usual stock decrement and
+ * inserts the reservation; confirming flips the reservation to {@code CONFIRMED} with a
+ * conditional update and inserts the order without touching {@code item.stock}; releasing
+ * flips it to {@code CANCELLED} or {@code EXPIRED} and gives the units back. The
+ * conditional update decides between a confirm and an expiry that race each other, so no
+ * lock is held while the customer is paying.
+ *
+ * <p>Expiry is driven by a {@link HashedTimerWheel} in memory, not by polling. Holds still
+ * {@code HELD} at startup are put back on the wheel, and those already past their expiry
+ * are released on the first tick.
+ */
+@Service
+public class ReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationService.class);
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockMutationStrategy stockMutationStrategy;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderNoIndex orderNoIndex;
+
+    @Value("${stock.reservation.default-ttl-seconds:900}")
+    private long defaultTtlSeconds = 900;
+
+    @Value("${stock.reservation.max-ttl-seconds:3600}")
+    private long maxTtlSeconds = 3600;
+
+    @Value("${stock.reservation.tick-ms:100}")
+    private long tickMs = 100;
+
+    @Value("${stock.reservation.wheel-size:512}")
+    private int wheelSize = 512;
+
+    // Delay before an expiry that failed (e.g. database unavailable) is tried again
+    @Value("${stock.reservation.expiry-retry-ms:5000}")
+    private long expiryRetryMs = 5000;
+
+    private HashedTimerWheel<Long> expiryWheel;
+
+    @PostConstruct
+    public void start() {
+        expiryWheel = new HashedTimerWheel<>(tickMs, wheelSize, this::expire);
+        expiryWheel.start("reservation-expiry");
+    }
+
+    @PreDestroy
+    public void stop() {
+        expiryWheel.stop();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleHeld() {
+        try {
+            List<Reservation> held = reservationRepository.findByStatus(Reservation.HELD);
+            LocalDateTime now = LocalDateTime.now();
+            for (Reservation reservation : held) {
+                expiryWheel.schedule(reservation.getId(), Duration.between(now, reservation.getExpiresAt()).toMillis());
+            }
+            log.info("[RESERVATION] {} held reservations scheduled for expiry", held.size());
+        } catch (DataAccessException e) {
+            log.warn("[RESERVATION] Could not load held reservations: {}", e.getMessage());
+        }
+    }
+
+    public Reservation hold(ReservationRequest request) {
+        if (request.getItemId() == null || request.getQty() == null || request.getQty() <= 0) {
+            throw new IllegalArgumentException("itemId and a positive qty are required");
+        }
+        long ttlSeconds = request.getTtlSeconds() == null ? defaultTtlSeconds
+                : Math.max(1, Math.min(request.getTtlSeconds(), maxTtlSeconds));
+        Reservation saved = stockMutationStrategy.execute(() -> transactionTemplate.execute(status -> {
+            stockMutationStrategy.decrement(request.getItemId(), request.getQty());
+            eventPublisher.publishEvent(new StockChangedEvent(request.getItemId()));
+            return reservationRepository.save(new Reservation(null, request.getItemId(), request.getQty(),
+                    Reservation.HELD, null, LocalDateTime.now().plusSeconds(ttlSeconds), null));
+        }));
+        expiryWheel.schedule(saved.getId(), Duration.ofSeconds(ttlSeconds).toMillis());
+        log.atInfo().setMessage("[RESERVATION] Stock held")
+                .addKeyValue("id", saved.getId())
+                .addKeyValue("itemId", saved.getItemId())
+                .addKeyValue("qty", saved.getQty())
+                .addKeyValue("ttlSeconds", ttlSeconds)
+                .log();
+        return saved;
+    }
+
+    public Optional<Reservation> find(Long id) {
+        return reservationRepository.findById(id);
+    }
+
+    /**
+     * Turns a held reservation into an order. Confirming again with the same order number
+     * returns that order.
+     */
+    public Order confirm(Long id, ReservationConfirmation confirmation) {
+        if (confirmation.getOrderNo() == null || confirmation.getPrice() == null) {
+            throw new IllegalArgumentException("orderNo and price are required");
+        }
+        Order order;
+        try {
+            order = transactionTemplate.execute(status -> {
+                if (reservationRepository.confirm(id, confirmation.getOrderNo(), LocalDateTime.now()) == 0) {
+                    return replayConfirmed(id, confirmation.getOrderNo());
+                }
+                Reservation reservation = reservationRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id " + id));
+                Order saved = orderRepository.save(new Order(null, confirmation.getOrderNo(),
+                        reservation.getItemId(), reservation.getQty(), confirmation.getPrice(), null, null));
+                orderRepository.flush();
+                salesRollupService.recordOrders(List.of(saved));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Rolled back, so the reservation is still held
+            throw new DuplicateOrderException("Order number " + confirmation.getOrderNo() + " is already used");
+        }
+        expiryWheel.cancel(id);
+        orderNoIndex.add(order.getOrderNo());
+        log.atInfo().setMessage("[RESERVATION] Reservation confirmed")
+                .addKeyValue("id", id)
+                .addKeyValue("orderNo", order.getOrderNo())
+                .addKeyValue("itemId", order.getItemId())
+                .addKeyValue("qty", order.getQty())
+                .log();
+        return order;
+    }
+
+    /** Returns the held units to stock. Cancelling a reservation that already ended is a no-op. */
+    public Reservation cancel(Long id) {
+        Reservation reservation = release(id, Reservation.CANCELLED);
+        if (Reservation.CONFIRMED.equals(reservation.getStatus())) {
+            throw new ReservationNotActiveException("Reservation " + id + " is already confirmed");
+        }
+        expiryWheel.cancel(id);
+        return reservation;
+    }
+
+    int pendingExpiries() {
+        return expiryWheel.size();
+    }
+
+    // Runs on the wheel's ticker thread
+    void expire(Long id) {
+        try {
+            Reservation reservation = release(id, Reservation.EXPIRED);
+            log.atInfo().setMessage("[RESERVATION] Reservation expired")
+                    .addKeyValue("id", id)
+                    .addKeyValue("status", reservation.getStatus())
+                    .log();
+        } catch (ResourceNotFoundException e) {
+            log.debug("[RESERVATION] Expired reservation {} no longer exists", id);
+        } catch (RuntimeException e) {
+            log.warn("[RESERVATION] Expiry of reservation {} failed, retrying in {} ms: {}",
+                    id, expiryRetryMs, e.getMessage());
+            expiryWheel.schedule(id, expiryRetryMs);
+        }
+    }
+
+    // Returns the reservation as it is after the call, released or not
+    private Reservation release(Long id, String newStatus) {
+        return stockMutationStrategy.execute(() -> transactionTemplate.execute(status -> {
+            boolean released = reservationRepository.release(id, newStatus) == 1;
+            Reservation reservation = reservationRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id " + id));
+            if (released) {
+                stockMutationStrategy.increment(reservation.getItemId(), reservation.getQty());
+                eventPublisher.publishEvent(new StockChangedEvent(reservation.getItemId()));
+            }
+            return reservation;
+        }));
+    }
+
+    private Order replayConfirmed(Long id, String orderNo) {
+        Reservation reservation = reservationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id " + id));
+        if (Reservation.CONFIRMED.equals(reservation.getStatus()) && orderNo.equals(reservation.getOrderNo())) {
+            Optional<Order> existing = orderRepository.findByOrderNo(orderNo);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+        String state = Reservation.HELD.equals(reservation.getStatus())
+                ? "expired" : reservation.getStatus().toLowerCase();
+        throw new ReservationNotActiveException("Reservation " + id + " is " + state);
+    }
+}
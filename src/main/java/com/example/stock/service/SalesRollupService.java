@@ -0,0 +1,201 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.DailyItemSales;
+import com.example.stock.model.Order;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Maintains the {@code daily_item_sales} rollup (units and revenue per item per day) and
+ * answers sales reports from it.
+ *
+ * <p>The order write paths call {@link #recordOrders} and {@link #recordAdjustment} inside
+ * their own transaction, so the rollup commits or rolls back together with the order. New
+ * orders are booked on {@code CURRENT_DATE}, the same clock that fills {@code created_at}.
+ *
+ * <p>{@link #backfill} rebuilds the rollup from {@code orders}, one day per transaction and
+ * several days in parallel. Days already moved to the archive are left as they are. Each day
+ * is read with {@code SELECT ... FOR UPDATE} under REPEATABLE READ, which on InnoDB also locks
+ * the gaps of the {@code created_at} range: orders placed, changed or deleted on that day wait
+ * until the day is rebuilt and then book their change on top of the new rows.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final String ADD_TODAY = "INSERT INTO daily_item_sales (item_id, sale_date, units, revenue)"
+            + " VALUES (?, CURRENT_DATE, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE units = units + VALUES(units), revenue = revenue + VALUES(revenue)";
+
+    private static final String ADD_ON_DATE = "INSERT INTO daily_item_sales (item_id, sale_date, units, revenue)"
+            + " VALUES (?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE units = units + VALUES(units), revenue = revenue + VALUES(revenue)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LedgerArchiveService ledgerArchiveService;
+
+    // Keep well below the connection pool size; each worker holds one connection per day
+    @Value("${stock.rollup.backfill-parallelism:4}")
+    private int backfillParallelism = 4;
+
+    private TransactionTemplate backfillTemplate;
+
+    @PostConstruct
+    public void init() {
+        backfillTemplate = new TransactionTemplate(transactionManager);
+        backfillTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Books newly placed orders on today's rows. Must run in the transaction that inserts them,
+     * after the insert is flushed: a backfill locks a day's orders before its rollup rows, and
+     * writers have to take the two in the same order.
+     */
+    public void recordOrders(Collection<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        // One row per item, in ascending id order so concurrent writers lock rows in the same order
+        Map<Long, double[]> byItem = new TreeMap<>();
+        for (Order order : orders) {
+            double[] totals = byItem.computeIfAbsent(order.getItemId(), id -> new double[2]);
+            totals[0] += order.getQty();
+            totals[1] += order.getQty() * order.getPrice();
+        }
+        List<Object[]> args = new ArrayList<>(byItem.size());
+        byItem.forEach((itemId, totals) -> args.add(new Object[]{itemId, (long) totals[0], totals[1]}));
+        jdbcTemplate.batchUpdate(ADD_TODAY, args);
+    }
+
+    /**
+     * Adds a (possibly negative) correction to the day an existing order was placed on, after
+     * the change to or deletion of the order was flushed.
+     */
+    public void recordAdjustment(Long itemId, LocalDateTime createdAt, long units, double revenue) {
+        if (units == 0 && revenue == 0) {
+            return;
+        }
+        jdbcTemplate.update(ADD_ON_DATE, itemId, Date.valueOf(createdAt.toLocalDate()), units, revenue);
+    }
+
+    public List<DailyItemSales> findDailySales(LocalDate from, LocalDate to, Long itemId) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT item_id, sale_date, units, revenue FROM daily_item_sales WHERE sale_date BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        if (itemId != null) {
+            sql.append(" AND item_id = ?");
+            args.add(itemId);
+        }
+        sql.append(" ORDER BY sale_date, item_id");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new DailyItemSales(rs.getLong(1),
+                rs.getDate(2).toLocalDate(), rs.getLong(3), rs.getDouble(4)), args.toArray());
+    }
+
+    /**
+     * Rebuilds the rollup for every day in {@code [from, to]} from {@code orders}. Either bound
+     * may be null to start at the first or end at the last order.
+     */
+    public Map<String, Object> backfill(LocalDate from, LocalDate to) {
+        long start = System.currentTimeMillis();
+        if (from == null || to == null) {
+            Map<String, Object> range = jdbcTemplate.queryForMap(
+                    "SELECT MIN(created_at) AS first_order, MAX(created_at) AS last_order FROM orders");
+            if (range.get("first_order") == null) {
+                return summary(0, 0, start);
+            }
+            from = from != null ? from : ((Timestamp) range.get("first_order")).toLocalDateTime().toLocalDate();
+            to = to != null ? to : ((Timestamp) range.get("last_order")).toLocalDateTime().toLocalDate();
+        }
+        // The orders of archived days are no longer in the table; rebuilding would wipe their rows
+        LocalDateTime archivedUntil = ledgerArchiveService.archivedUntil("orders");
+        if (archivedUntil != null && from.isBefore(archivedUntil.toLocalDate())) {
+            from = archivedUntil.toLocalDate();
+        }
+
+        List<Callable<Integer>> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate current = day;
+            days.add(() -> backfillDay(current));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(backfillParallelism);
+        int rows = 0;
+        try {
+            for (Future<Integer> future : pool.invokeAll(days)) {
+                rows += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sales rollup backfill interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime
+                    : new IllegalStateException("Sales rollup backfill failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("[ROLLUP] Rebuilt daily_item_sales for {} days ({} to {}), {} rows", days.size(), from, to, rows);
+        return summary(days.size(), rows, start);
+    }
+
+    private int backfillDay(LocalDate day) {
+        Timestamp dayStart = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp dayEnd = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        Date saleDate = Date.valueOf(day);
+        Integer rows = backfillTemplate.execute(status -> {
+            // Lock before deleting, so no order of the day commits between the two
+            Map<Long, double[]> byItem = new TreeMap<>();
+            jdbcTemplate.query("SELECT item_id, qty, price FROM orders WHERE created_at >= ? AND created_at < ?"
+                    + " FOR UPDATE", rs -> {
+                double[] totals = byItem.computeIfAbsent(rs.getLong(1), id -> new double[2]);
+                totals[0] += rs.getInt(2);
+                totals[1] += rs.getInt(2) * rs.getDouble(3);
+            }, dayStart, dayEnd);
+            jdbcTemplate.update("DELETE FROM daily_item_sales WHERE sale_date = ?", saleDate);
+            List<Object[]> args = new ArrayList<>(byItem.size());
+            byItem.forEach((itemId, totals) -> args.add(new Object[]{itemId, saleDate, (long) totals[0], totals[1]}));
+            if (!args.isEmpty()) {
+                jdbcTemplate.batchUpdate(ADD_ON_DATE, args);
+            }
+            return args.size();
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private Map<String, Object> summary(int days, int rows, long start) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("days", days);
+        body.put("rows", rows);
+        body.put("durationMs", System.currentTimeMillis() - start);
+        return body;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.ReconciliationReport;
+import com.example.stock.dto.ReconciliationReport.Mismatch;
+import com.example.stock.engine.InMemoryStockEngine;
+import com.example.stock.event.StockChangedEvent;
+import com.example.stock.exception.StockRepairUnavailableException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Recomputes {@code item.stock} from the ledger (top-ups minus withdrawals minus orders
+ * minus units still held by reservations) and reports, or optionally repairs, the items where the two disagree.
+ * Units leased to an instance and not yet ordered are also taken: an active lease counts its
+ * granted units minus the orders placed under it. Ledger rows moved to the archive are counted
+ * through their per-item total in {@code ledger_archive_balance}.
+ *
+ * <p>The {@code item} id range is split into chunks of {@code stock.reconcile.chunk-size}
+ * ids that are checked in parallel on a dedicated fork/join pool. Each chunk costs six
+ * queries (the item rows and one {@code GROUP BY} per ledger table), run in one
+ * read-only transaction so they see the same snapshot without taking locks.
+ *
+ * <p>A repair re-checks the single item under {@code SELECT ... FOR UPDATE}, so the row is
+ * locked only for the time of five indexed reads and one update, and orders placed since the
+ * snapshot are taken into account. Opening stock entered directly on the item is not part
+ * of the ledger and is treated as drift.
+ */
+@Service
+public class StockReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReconciliationService.class);
+
+    private static final String INVENTORY_BALANCE = "SUM(CASE type WHEN 'T' THEN qty WHEN 'W' THEN -qty ELSE 0 END)";
+
+    // One row per active lease: units granted and not ordered yet
+    private static final String LEASED_UNORDERED = "SELECT l.item_id, l.granted - COALESCE(SUM(o.qty), 0)"
+            + " FROM stock_lease l LEFT JOIN orders o ON o.lease_id = l.id"
+            + " WHERE l.item_id BETWEEN ? AND ? AND l.status = 'ACTIVE' GROUP BY l.id, l.item_id, l.granted";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Present only when stock.engine.mode=memory
+    @Autowired(required = false)
+    private InMemoryStockEngine stockEngine;
+
+    @Value("${stock.reconcile.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    // Keep well below the connection pool size; each worker holds one connection per chunk
+    @Value("${stock.reconcile.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${stock.reconcile.repair-on-schedule:false}")
+    private boolean repairOnSchedule;
+
+    private TransactionTemplate snapshotTemplate;
+
+    private TransactionTemplate repairTemplate;
+
+    @PostConstruct
+    public void init() {
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setReadOnly(true);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        repairTemplate = new TransactionTemplate(transactionManager);
+        // Every statement after the row lock must see the latest committed ledger rows
+        repairTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    @Scheduled(cron = "${stock.reconcile.cron:-}")
+    public void scheduledReconcile() {
+        reconcile(repairOnSchedule);
+    }
+
+    public ReconciliationReport reconcile(boolean repair) {
+        if (repair && stockEngine != null) {
+            // The engine owns the live stock and would overwrite the repaired column
+            throw new StockRepairUnavailableException("Stock repair is not available when stock.engine.mode=memory");
+        }
+        long start = System.currentTimeMillis();
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM item");
+        ChunkResult result = ChunkResult.EMPTY;
+        if (range.get("lo") != null) {
+            long lo = ((Number) range.get("lo")).longValue();
+            long hi = ((Number) range.get("hi")).longValue();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                result = pool.invoke(new ChunkTask(lo, hi));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        int repaired = 0;
+        if (repair) {
+            for (Mismatch mismatch : result.mismatches()) {
+                if (repairItem(mismatch.getItemId())) {
+                    repaired++;
+                }
+            }
+        }
+
+        ReconciliationReport report = new ReconciliationReport(result.items(), result.chunks(), repair, repaired,
+                System.currentTimeMillis() - start, result.mismatches());
+        if (report.getMismatches().isEmpty()) {
+            log.info("[RECONCILE] {} items checked in {} chunks, no drift ({} ms)",
+                    report.getItemsChecked(), report.getChunks(), report.getDurationMs());
+        } else {
+            log.warn("[RECONCILE] {} items checked in {} chunks, {} drifted, {} repaired ({} ms)",
+                    report.getItemsChecked(), report.getChunks(), report.getMismatches().size(), repaired,
+                    report.getDurationMs());
+        }
+        return report;
+    }
+
+    private record ChunkResult(long items, int chunks, List<Mismatch> mismatches) {
+
+        static final ChunkResult EMPTY = new ChunkResult(0, 0, List.of());
+
+        ChunkResult merge(ChunkResult other) {
+            List<Mismatch> all = new ArrayList<>(mismatches.size() + other.mismatches.size());
+            all.addAll(mismatches);
+            all.addAll(other.mismatches);
+            return new ChunkResult(items + other.items, chunks + other.chunks, all);
+        }
+    }
+
+    private final class ChunkTask extends RecursiveTask<ChunkResult> {
+
+        private final long lo;
+        private final long hi;
+
+        ChunkTask(long lo, long hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            if (hi - lo < chunkSize) {
+                return checkChunk(lo, hi);
+            }
+            long mid = lo + (hi - lo) / 2;
+            ChunkTask left = new ChunkTask(lo, mid);
+            left.fork();
+            ChunkResult right = new ChunkTask(mid + 1, hi).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private ChunkResult checkChunk(long lo, long hi) {
+        return snapshotTemplate.execute(status -> {
+            Map<Long, Integer> recorded = new HashMap<>();
+            jdbcTemplate.query("SELECT id, COALESCE(stock, 0) FROM item WHERE id BETWEEN ? AND ?",
+                    rs -> {
+                        recorded.put(rs.getLong(1), rs.getInt(2));
+                    }, lo, hi);
+            if (recorded.isEmpty()) {
+                return new ChunkResult(0, 1, List.of());
+            }
+            Map<Long, Long> expected = new HashMap<>();
+            sumByItem("SELECT item_id, " + INVENTORY_BALANCE + " FROM inventory"
+                    + " WHERE item_id BETWEEN ? AND ? GROUP BY item_id", lo, hi, 1, expected);
+            sumByItem("SELECT item_id, SUM(qty) FROM orders"
+                    + " WHERE item_id BETWEEN ? AND ? GROUP BY item_id", lo, hi, -1, expected);
+            sumByItem("SELECT item_id, SUM(qty) FROM reservation"
+                    + " WHERE item_id BETWEEN ? AND ? AND status = 'HELD' GROUP BY item_id", lo, hi, -1, expected);
+            sumByItem(LEASED_UNORDERED, lo, hi, -1, expected);
+            sumByItem("SELECT item_id, balance FROM ledger_archive_balance WHERE item_id BETWEEN ? AND ?",
+                    lo, hi, 1, expected);
+
+            List<Mismatch> mismatches = new ArrayList<>();
+            recorded.forEach((id, stock) -> {
+                long balance = expected.getOrDefault(id, 0L);
+                if (stock != balance) {
+                    mismatches.add(new Mismatch(id, stock, balance));
+                }
+            });
+            mismatches.sort((a, b) -> Long.compare(a.getItemId(), b.getItemId()));
+            return new ChunkResult(recorded.size(), 1, mismatches);
+        });
+    }
+
+    private void sumByItem(String sql, long lo, long hi, int sign, Map<Long, Long> into) {
+        jdbcTemplate.query(sql, rs -> {
+            into.merge(rs.getLong(1), sign * rs.getLong(2), Long::sum);
+        }, lo, hi);
+    }
+
+    // Returns true when the stock column was changed
+    private boolean repairItem(Long itemId) {
+        Boolean changed = repairTemplate.execute(status -> {
+            List<Integer> locked = jdbcTemplate.queryForList(
+                    "SELECT COALESCE(stock, 0) FROM item WHERE id = ? FOR UPDATE", Integer.class, itemId);
+            if (locked.isEmpty()) {
+                return false;
+            }
+            Long topUps = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(" + INVENTORY_BALANCE + ", 0) FROM inventory WHERE item_id = ?", Long.class, itemId);
+            Long ordered = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(qty), 0) FROM orders WHERE item_id = ?", Long.class, itemId);
+            Long held = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(qty), 0) FROM reservation WHERE item_id = ? AND status = 'HELD'",
+                    Long.class, itemId);
+            Map<Long, Long> leased = new HashMap<>();
+            sumByItem(LEASED_UNORDERED, itemId, itemId, 1, leased);
+            Long archived = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(balance), 0) FROM ledger_archive_balance WHERE item_id = ?", Long.class, itemId);
+            int balance = Math.toIntExact(topUps - ordered - held - leased.getOrDefault(itemId, 0L) + archived);
+            if (locked.get(0) == balance) {
+                return false;
+            }
+            jdbcTemplate.update("UPDATE item SET stock = ?, version = version + 1 WHERE id = ?", balance, itemId);
+            eventPublisher.publishEvent(new StockChangedEvent(itemId));
+            log.info("[RECONCILE] Item {} stock repaired: {} -> {}", itemId, locked.get(0), balance);
+            return true;
+        });
+        return Boolean.TRUE.equals(changed);
+    }
+}
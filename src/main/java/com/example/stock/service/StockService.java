@@ -1,22 +1,63 @@
 package com.example.stock.service;
 
+import com.example.stock.cache.ItemCache;
+import com.example.stock.cache.ItemSearchIndex;
+import com.example.stock.cache.LowStockIndex;
+import com.example.stock.cache.OrderNoIndex;
+import com.example.stock.config.ReplicaRoutingDataSource;
+import com.example.stock.dto.BatchOrderResult;
+import com.example.stock.dto.DailyItemSales;
+import com.example.stock.dto.ExportFormat;
+import com.example.stock.dto.ImportReport;
+import com.example.stock.dto.KeysetCursor;
+import com.example.stock.dto.LowStockItem;
+import com.example.stock.dto.ReconciliationReport;
+import com.example.stock.dto.ReservationConfirmation;
+import com.example.stock.dto.ReservationRequest;
+import com.example.stock.engine.InMemoryStockEngine;
+import com.example.stock.event.StockChangedEvent;
+import com.example.stock.exception.DuplicateOrderException;
 import com.example.stock.exception.InsufficientStockException;
 import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.feed.StockChangeFeed;
+import com.example.stock.lease.StockLeaseManager;
+import com.example.stock.metrics.StockMetrics;
 import com.example.stock.model.Inventory;
 import com.example.stock.model.Item;
 import com.example.stock.model.Order;
+import com.example.stock.model.Reservation;
 import com.example.stock.repository.InventoryRepository;
 import com.example.stock.repository.ItemRepository;
 import com.example.stock.repository.OrderRepository;
-import jakarta.transaction.Transactional;
+import com.example.stock.service.strategy.StockMutationStrategy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Service
 public class StockService {
@@ -32,17 +73,112 @@ public class StockService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private StockMutationStrategy stockMutationStrategy;
+
+    @Autowired
+    private BatchOrderService batchOrderService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private OrderNoIndex orderNoIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StockMetrics stockMetrics;
+
+    @Autowired
+    private LedgerExportService ledgerExportService;
+
+    @Autowired
+    private LedgerArchiveService ledgerArchiveService;
+
+    @Autowired
+    private StockReconciliationService reconciliationService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private ItemImportService itemImportService;
+
+    @Autowired
+    private StockChangeFeed stockChangeFeed;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    // Present only when stock.engine.mode=memory
+    @Autowired(required = false)
+    private InMemoryStockEngine stockEngine;
+
+    // Present only when stock.coalesce.enabled=true
+    @Autowired(required = false)
+    private OrderCoalescer orderCoalescer;
+
+    // Present only when stock.lease.enabled=true
+    @Autowired(required = false)
+    private StockLeaseManager stockLeaseManager;
+
     // --- ITEM ---
     public Page<Item> getAllItems(Pageable pageable) {
-        return itemRepository.findAll(pageable);
+        Page<Item> items = itemCache.getPage(pageable);
+        return stockEngine == null ? items : items.map(this::withLiveStock);
     }
 
     public Optional<Item> getItem(Long id) {
-        return itemRepository.findById(id);
+        long start = System.nanoTime();
+        Optional<Item> item = itemCache.get(id);
+        stockMetrics.recordPhase(StockMetrics.Phase.ITEM_LOOKUP, start);
+        return stockEngine == null ? item : item.map(this::withLiveStock);
+    }
+
+    public Page<Item> searchItems(String query, Pageable pageable) {
+        ItemSearchIndex.SearchResult result = itemSearchIndex.search(query, pageable.getOffset(),
+                pageable.getPageSize());
+        Page<Item> items = new PageImpl<>(itemCache.getAll(result.itemIds()), pageable, result.total());
+        return stockEngine == null ? items : items.map(this::withLiveStock);
+    }
+
+    public Map<String, Object> getItemCacheStats() {
+        return itemCache.stats();
+    }
+
+    public List<LowStockItem> getLowStockItems(Integer threshold, int limit) {
+        return lowStockIndex.lowest(threshold, limit);
+    }
+
+    public SseEmitter streamStockChanges(Set<Long> itemIds, String lastEventId) {
+        return stockChangeFeed.subscribe(itemIds, lastEventId);
+    }
+
+    public ReconciliationReport reconcileStock(boolean repair) {
+        return reconciliationService.reconcile(repair);
     }
 
     public Item saveItem(Item item) {
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        itemCache.put(saved);
+        itemSearchIndex.put(saved.getId(), saved.getName());
+        stockChangeFeed.markChanged(saved.getId());
+        return saved;
+    }
+
+    public ImportReport importItems(ExportFormat format, InputStream in) {
+        return itemImportService.importItems(format, in);
     }
 
     public Item updateItem(Long id, Item itemDetails) {
@@ -51,51 +187,119 @@ public class StockService {
 
         item.setName(itemDetails.getName());
         item.setPrice(itemDetails.getPrice());
+        item.setReorderPoint(itemDetails.getReorderPoint());
 
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        itemCache.put(saved);
+        itemSearchIndex.put(saved.getId(), saved.getName());
+        // Refreshes the reorder point in the low-stock index
+        stockChangeFeed.markChanged(saved.getId());
+        return saved;
     }
 
     public void deleteItem(Long id) {
         itemRepository.deleteById(id);
+        itemCache.evict(id);
+        itemSearchIndex.remove(id);
+        if (stockEngine != null) {
+            stockEngine.evict(id);
+        }
+        // Drops it from the low-stock index
+        stockChangeFeed.markChanged(id);
     }
 
     // --- INVENTORY ---
+    @Transactional(readOnly = true)
     public Page<Inventory> getAllInventory(Pageable pageable) {
+        ReplicaRoutingDataSource.preferReplica();
         return inventoryRepository.findAll(pageable);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public Slice<Inventory> getInventoryAfter(KeysetCursor cursor, int size) {
+        ReplicaRoutingDataSource.preferReplica();
+        List<Inventory> rows = cursor == null
+                ? inventoryRepository.findFirstKeysetPage(size + 1)
+                : inventoryRepository.findKeysetPageAfter(cursor.createdAt(), cursor.id(), size + 1);
+        rows = continueIntoArchive(rows, cursor, size, ledgerArchiveService.archivedUntil("inventory"),
+                Inventory::getCreatedAt, Inventory::getId, ledgerArchiveService::seekInventory);
+        return toSlice(rows, size);
+    }
+
     public Inventory addInventory(Inventory inventory) {
-        log.info("[INVENTORY] Processing inventory transaction - Type: {}, Qty: {}, Item ID: {}",
-                inventory.getType(), inventory.getQty(), inventory.getItemId());
-        Item item = itemRepository.findById(inventory.getItemId())
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id " + inventory.getItemId()));
-
-        int oldStock = item.getStock();
-        if ("T".equals(inventory.getType())) {
-            item.setStock(item.getStock() + inventory.getQty());
-            log.info("[INVENTORY] Top-up processed - Item: {}, Stock: {} -> {}",
-                    item.getName(), oldStock, item.getStock());
-        } else if ("W".equals(inventory.getType())) {
-            if (item.getStock() < inventory.getQty()) {
-                log.warn("[INVENTORY] Insufficient stock for withdrawal - Item ID: {}, Current: {}, Requested: {}",
-                        inventory.getItemId(), item.getStock(), inventory.getQty());
-                throw new InsufficientStockException("Insufficient stock for withdrawal. Current: " + item.getStock());
-            }
-            item.setStock(item.getStock() - inventory.getQty());
-            log.info("[INVENTORY] Withdrawal processed - Item: {}, Stock: {} -> {}",
-                    item.getName(), oldStock, item.getStock());
-        } else {
+        try {
+            return doAddInventory(inventory);
+        } catch (InsufficientStockException e) {
+            stockMetrics.recordRejection(StockMetrics.INSUFFICIENT_STOCK, inventory.getItemId());
+            throw e;
+        } catch (ResourceNotFoundException e) {
+            stockMetrics.recordRejection(StockMetrics.NOT_FOUND, inventory.getItemId());
+            throw e;
+        }
+    }
+
+    private Inventory doAddInventory(Inventory inventory) {
+        log.atDebug().setMessage("[INVENTORY] Processing inventory transaction")
+                .addKeyValue("type", inventory.getType())
+                .addKeyValue("qty", inventory.getQty())
+                .addKeyValue("itemId", inventory.getItemId())
+                .log();
+        if (!"T".equals(inventory.getType()) && !"W".equals(inventory.getType())) {
             log.error("[INVENTORY] Invalid inventory type: {}", inventory.getType());
             throw new IllegalArgumentException("Invalid inventory type: " + inventory.getType());
         }
 
-        itemRepository.save(item);
-        Inventory saved = inventoryRepository.save(inventory);
-        log.info("[INVENTORY] Transaction saved with ID: {}", saved.getId());
+        if (stockEngine != null) {
+            Inventory accepted = stockEngine.addInventory(inventory);
+            log.atInfo().setMessage("[INVENTORY] Transaction accepted in memory")
+                    .addKeyValue("itemId", inventory.getItemId())
+                    .addKeyValue("type", inventory.getType())
+                    .addKeyValue("qty", inventory.getQty())
+                    .log();
+            return accepted;
+        }
+
+        long[] insertStart = new long[1];
+        Inventory saved = stockMutationStrategy.execute(() -> transactionTemplate.execute(status -> {
+            long updateStart = System.nanoTime();
+            if ("T".equals(inventory.getType())) {
+                stockMutationStrategy.increment(inventory.getItemId(), inventory.getQty());
+                log.debug("[INVENTORY] Top-up processed - Item ID: {}, Stock: +{}",
+                        inventory.getItemId(), inventory.getQty());
+            } else {
+                try {
+                    stockMutationStrategy.decrement(inventory.getItemId(), inventory.getQty());
+                } catch (InsufficientStockException e) {
+                    log.atWarn().setMessage("[INVENTORY] Insufficient stock for withdrawal")
+                            .addKeyValue("itemId", inventory.getItemId())
+                            .addKeyValue("qty", inventory.getQty())
+                            .log();
+                    throw e;
+                }
+                log.debug("[INVENTORY] Withdrawal processed - Item ID: {}, Stock: -{}",
+                        inventory.getItemId(), inventory.getQty());
+            }
+            stockMetrics.recordPhase(StockMetrics.Phase.INVENTORY_STOCK_UPDATE, updateStart);
+            eventPublisher.publishEvent(new StockChangedEvent(inventory.getItemId()));
+            insertStart[0] = System.nanoTime();
+            return inventoryRepository.save(inventory);
+        }));
+        // The INSERT is flushed at commit, so this phase covers insert and commit
+        stockMetrics.recordPhase(StockMetrics.Phase.INVENTORY_INSERT, insertStart[0]);
+        log.atInfo().setMessage("[INVENTORY] Transaction saved")
+                .addKeyValue("id", saved.getId())
+                .addKeyValue("itemId", saved.getItemId())
+                .addKeyValue("type", saved.getType())
+                .addKeyValue("qty", saved.getQty())
+                .log();
         return saved;
     }
 
+    public long exportInventory(ExportFormat format, LocalDateTime from, LocalDateTime to, Long itemId,
+                                OutputStream out) {
+        return ledgerExportService.exportInventory(format, from, to, itemId, out);
+    }
+
     public Inventory updateInventory(Long id, Inventory details) {
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with id " + id));
@@ -111,46 +315,283 @@ public class StockService {
     }
 
     // --- ORDER ---
+    @Transactional(readOnly = true)
     public Page<Order> getAllOrders(Pageable pageable) {
+        ReplicaRoutingDataSource.preferReplica();
         return orderRepository.findAll(pageable);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public Slice<Order> getOrdersAfter(KeysetCursor cursor, int size) {
+        ReplicaRoutingDataSource.preferReplica();
+        List<Order> rows = cursor == null
+                ? orderRepository.findFirstKeysetPage(size + 1)
+                : orderRepository.findKeysetPageAfter(cursor.createdAt(), cursor.id(), size + 1);
+        rows = continueIntoArchive(rows, cursor, size, ledgerArchiveService.archivedUntil("orders"),
+                Order::getCreatedAt, Order::getId, ledgerArchiveService::seekOrders);
+        return toSlice(rows, size);
+    }
+
     public Order placeOrder(Order order) {
-        log.info("[ORDER] Processing order - Order No: {}, Item ID: {}, Qty: {}",
-                order.getOrderNo(), order.getItemId(), order.getQty());
-        Item item = itemRepository.findById(order.getItemId())
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id " + order.getItemId()));
-
-        if (item.getStock() < order.getQty()) {
-            log.warn("[ORDER] Insufficient stock - Order No: {}, Item: {}, Current: {}, Requested: {}",
-                    order.getOrderNo(), item.getName(), item.getStock(), order.getQty());
-            throw new InsufficientStockException(
-                    "Insufficient stock for order. Current: " + item.getStock() + ", Requested: " + order.getQty());
+        try {
+            return doPlaceOrder(order);
+        } catch (InsufficientStockException e) {
+            stockMetrics.recordRejection(StockMetrics.INSUFFICIENT_STOCK, order.getItemId());
+            throw e;
+        } catch (ResourceNotFoundException e) {
+            stockMetrics.recordRejection(StockMetrics.NOT_FOUND, order.getItemId());
+            throw e;
+        } catch (DuplicateOrderException e) {
+            stockMetrics.recordRejection(StockMetrics.DUPLICATE_ORDER, order.getItemId());
+            throw e;
+        }
+    }
+
+    private Order doPlaceOrder(Order order) {
+        log.atDebug().setMessage("[ORDER] Processing order")
+                .addKeyValue("orderNo", order.getOrderNo())
+                .addKeyValue("itemId", order.getItemId())
+                .addKeyValue("qty", order.getQty())
+                .log();
+
+        // Known order number: answer from the stored order without touching stock
+        if (orderNoIndex.contains(order.getOrderNo())) {
+            Optional<Order> replay = findReplay(order);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+            if (stockEngine != null) {
+                throw new DuplicateOrderException("Order " + order.getOrderNo() + " is still being processed");
+            }
+            // Deleted since it was indexed
+            orderNoIndex.remove(order.getOrderNo());
+        }
+
+        if (stockEngine != null) {
+            Order accepted = stockEngine.placeOrder(order);
+            orderNoIndex.add(accepted.getOrderNo());
+            log.atInfo().setMessage("[ORDER] Order accepted in memory")
+                    .addKeyValue("orderNo", accepted.getOrderNo())
+                    .addKeyValue("itemId", accepted.getItemId())
+                    .addKeyValue("qty", accepted.getQty())
+                    .log();
+            return accepted;
         }
 
-        int oldStock = item.getStock();
-        item.setStock(item.getStock() - order.getQty());
-        itemRepository.save(item);
-        log.info("[ORDER] Stock updated - Item: {}, Stock: {} -> {}",
-                item.getName(), oldStock, item.getStock());
+        Order placed;
+        try {
+            if (stockLeaseManager != null) {
+                placed = placeLeased(order);
+            } else {
+                placed = orderCoalescer != null ? placeCoalesced(order) : placeInTransaction(order);
+            }
+        } catch (DataIntegrityViolationException | DuplicateOrderException e) {
+            // Not in the index, but the unique order_no index knows it
+            Optional<Order> replay = findReplay(order);
+            if (replay.isEmpty()) {
+                throw e;
+            }
+            return replay.get();
+        }
+        orderNoIndex.add(placed.getOrderNo());
+        return placed;
+    }
 
+    private Order placeCoalesced(Order order) {
+        Order placed = orderCoalescer.placeOrder(order);
+        log.atInfo().setMessage("[ORDER] Order placed in coalesced batch")
+                .addKeyValue("orderNo", placed.getOrderNo())
+                .addKeyValue("id", placed.getId())
+                .addKeyValue("itemId", placed.getItemId())
+                .addKeyValue("qty", placed.getQty())
+                .log();
+        return placed;
+    }
+
+    private Order placeLeased(Order order) {
+        Order placed = stockLeaseManager.placeOrder(order);
+        log.atInfo().setMessage("[ORDER] Order placed from stock lease")
+                .addKeyValue("orderNo", placed.getOrderNo())
+                .addKeyValue("id", placed.getId())
+                .addKeyValue("itemId", placed.getItemId())
+                .addKeyValue("qty", placed.getQty())
+                .addKeyValue("leaseId", placed.getLeaseId())
+                .log();
+        return placed;
+    }
 
-        Order savedOrder = orderRepository.save(order);
-        log.info("[ORDER] Order placed successfully - Order No: {}, ID: {}",
-                savedOrder.getOrderNo(), savedOrder.getId());
+    private Order placeInTransaction(Order order) {
+        long[] insertStart = new long[1];
+        Order savedOrder = stockMutationStrategy.execute(() -> transactionTemplate.execute(status -> {
+            long updateStart = System.nanoTime();
+            try {
+                stockMutationStrategy.decrement(order.getItemId(), order.getQty());
+            } catch (InsufficientStockException e) {
+                log.atWarn().setMessage("[ORDER] Insufficient stock")
+                        .addKeyValue("orderNo", order.getOrderNo())
+                        .addKeyValue("itemId", order.getItemId())
+                        .addKeyValue("qty", order.getQty())
+                        .log();
+                throw e;
+            }
+            stockMetrics.recordPhase(StockMetrics.Phase.ORDER_STOCK_UPDATE, updateStart);
+            log.debug("[ORDER] Stock updated - Item ID: {}, Stock: -{}", order.getItemId(), order.getQty());
+            eventPublisher.publishEvent(new StockChangedEvent(order.getItemId()));
+            insertStart[0] = System.nanoTime();
+            Order saved = orderRepository.save(order);
+            orderRepository.flush();
+            salesRollupService.recordOrders(List.of(saved));
+            return saved;
+        }));
+        // Covers the INSERT, the rollup update and the commit
+        stockMetrics.recordPhase(StockMetrics.Phase.ORDER_INSERT, insertStart[0]);
+        log.atInfo().setMessage("[ORDER] Order placed")
+                .addKeyValue("orderNo", savedOrder.getOrderNo())
+                .addKeyValue("id", savedOrder.getId())
+                .addKeyValue("itemId", savedOrder.getItemId())
+                .addKeyValue("qty", savedOrder.getQty())
+                .log();
         return savedOrder;
     }
 
+    // The stored order when the request is a retry of it, empty when the number is free
+    private Optional<Order> findReplay(Order order) {
+        Optional<Order> existing = orderRepository.findByOrderNo(order.getOrderNo());
+        if (existing.isEmpty()) {
+            return existing;
+        }
+        orderNoIndex.add(order.getOrderNo());
+        Order original = existing.get();
+        if (!Objects.equals(original.getItemId(), order.getItemId())
+                || !Objects.equals(original.getQty(), order.getQty())
+                || !Objects.equals(original.getPrice(), order.getPrice())) {
+            log.atWarn().setMessage("[ORDER] Order number already used by a different order")
+                    .addKeyValue("orderNo", order.getOrderNo())
+                    .addKeyValue("itemId", order.getItemId())
+                    .log();
+            throw new DuplicateOrderException("Order number " + order.getOrderNo() + " is already used");
+        }
+        log.atInfo().setMessage("[ORDER] Replayed order returned")
+                .addKeyValue("orderNo", original.getOrderNo())
+                .addKeyValue("id", original.getId())
+                .log();
+        return existing;
+    }
+
+    public List<BatchOrderResult> placeOrders(List<Order> orders) {
+        log.info("[ORDER] Processing batch of {} orders", orders.size());
+        List<BatchOrderResult> results = batchOrderService.placeOrders(orders);
+        results.stream().filter(BatchOrderResult::isSuccess).forEach(r -> orderNoIndex.add(r.getOrderNo()));
+        long failed = results.stream().filter(r -> !r.isSuccess()).count();
+        log.info("[ORDER] Batch processed - Accepted: {}, Failed: {}", results.size() - failed, failed);
+        return results;
+    }
+
+    public long exportOrders(ExportFormat format, LocalDateTime from, LocalDateTime to, Long itemId,
+                             OutputStream out) {
+        return ledgerExportService.exportOrders(format, from, to, itemId, out);
+    }
+
     public Order updateOrder(Long id, Order details) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id " + id));
-        order.setQty(details.getQty());
-        order.setPrice(details.getPrice());
-        return orderRepository.save(order);
+        return transactionTemplate.execute(status -> {
+            Order order = orderRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found with id " + id));
+            long oldUnits = order.getQty();
+            double oldRevenue = order.getQty() * order.getPrice();
+            order.setQty(details.getQty());
+            order.setPrice(details.getPrice());
+            Order saved = orderRepository.save(order);
+            orderRepository.flush();
+            salesRollupService.recordAdjustment(saved.getItemId(), saved.getCreatedAt(),
+                    saved.getQty() - oldUnits, saved.getQty() * saved.getPrice() - oldRevenue);
+            return saved;
+        });
     }
 
     public void deleteOrder(Long id) {
-        orderRepository.deleteById(id);
+        transactionTemplate.executeWithoutResult(status -> orderRepository.findById(id).ifPresent(order -> {
+            orderRepository.delete(order);
+            orderRepository.flush();
+            orderNoIndex.remove(order.getOrderNo());
+            salesRollupService.recordAdjustment(order.getItemId(), order.getCreatedAt(),
+                    -order.getQty(), -order.getQty() * order.getPrice());
+        }));
+    }
+
+    // --- RESERVATION ---
+    public Reservation holdStock(ReservationRequest request) {
+        try {
+            return reservationService.hold(request);
+        } catch (InsufficientStockException e) {
+            stockMetrics.recordRejection(StockMetrics.INSUFFICIENT_STOCK, request.getItemId());
+            throw e;
+        } catch (ResourceNotFoundException e) {
+            stockMetrics.recordRejection(StockMetrics.NOT_FOUND, request.getItemId());
+            throw e;
+        }
+    }
+
+    public Optional<Reservation> getReservation(Long id) {
+        return reservationService.find(id);
+    }
+
+    public Order confirmReservation(Long id, ReservationConfirmation confirmation) {
+        return reservationService.confirm(id, confirmation);
+    }
+
+    public Reservation cancelReservation(Long id) {
+        return reservationService.cancel(id);
+    }
+
+    // --- REPORTS ---
+    public List<DailyItemSales> getDailySales(LocalDate from, LocalDate to, Long itemId) {
+        return salesRollupService.findDailySales(from, to, itemId);
+    }
+
+    public Map<String, Object> backfillDailySales(LocalDate from, LocalDate to) {
+        return salesRollupService.backfill(from, to);
+    }
+
+    public Map<String, Object> archiveLedgers() {
+        return ledgerArchiveService.archive();
+    }
+
+    // In engine mode item.stock lags behind the in-memory counters; never touch the cached instance
+    private Item withLiveStock(Item cached) {
+        Integer live = stockEngine.currentStock(cached.getId());
+        if (live == null || live.equals(cached.getStock())) {
+            return cached;
+        }
+        return new Item(cached.getId(), cached.getName(), cached.getPrice(), live, cached.getVersion(),
+                cached.getReorderPoint());
+    }
+
+    // Keyset pages run newest first, so once the table rows reach the archive boundary the
+    // page is filled from the archive files. Table rows before the boundary are skipped: they
+    // are already archived and only wait for their purge.
+    private <T> List<T> continueIntoArchive(List<T> rows, KeysetCursor cursor, int size, LocalDateTime archivedUntil,
+                                            Function<T, LocalDateTime> createdAt, Function<T, Long> id,
+                                            BiFunction<KeysetCursor, Integer, List<T>> archived) {
+        if (archivedUntil == null) {
+            return rows;
+        }
+        List<T> page = new ArrayList<>(size + 1);
+        for (T row : rows) {
+            if (!createdAt.apply(row).isBefore(archivedUntil)) {
+                page.add(row);
+            }
+        }
+        if (page.size() <= size) {
+            T last = page.isEmpty() ? null : page.get(page.size() - 1);
+            KeysetCursor from = last == null ? cursor : new KeysetCursor(createdAt.apply(last), id.apply(last));
+            page.addAll(archived.apply(from, size + 1 - page.size()));
+        }
+        return page;
+    }
+
+    // One extra row was fetched to learn whether another page exists
+    private <T> Slice<T> toSlice(List<T> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
     }
 }
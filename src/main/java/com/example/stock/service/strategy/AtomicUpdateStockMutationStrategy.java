@@ -0,0 +1,40 @@
+package com.example.stock.service.strategy;
+
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.model.Item;
+import com.example.stock.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single conditional UPDATE per mutation. The row lock is only held from the UPDATE
+ * until commit and no read is needed on the success path.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.mutation.strategy", havingValue = "atomic", matchIfMissing = true)
+public class AtomicUpdateStockMutationStrategy implements StockMutationStrategy {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Override
+    public void decrement(Long itemId, int qty) {
+        if (itemRepository.decrementStock(itemId, qty) == 1) {
+            return;
+        }
+        // Failure path only: find out whether the item is missing or just short
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id " + itemId));
+        throw new InsufficientStockException(
+                "Insufficient stock. Current: " + item.getStock() + ", Requested: " + qty);
+    }
+
+    @Override
+    public void increment(Long itemId, int qty) {
+        if (itemRepository.incrementStock(itemId, qty) == 0) {
+            throw new ResourceNotFoundException("Item not found with id " + itemId);
+        }
+    }
+}
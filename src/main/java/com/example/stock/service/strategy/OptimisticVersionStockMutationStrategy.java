@@ -0,0 +1,74 @@
+package com.example.stock.service.strategy;
+
+import com.example.stock.exception.ConcurrentStockUpdateException;
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.model.Item;
+import com.example.stock.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Reads the item without a lock and relies on {@link Item#getVersion()} to detect a
+ * concurrent writer at flush time. On a conflict the whole unit of work is retried
+ * in a fresh transaction, up to {@code stock.mutation.optimistic.max-attempts} times.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.mutation.strategy", havingValue = "optimistic")
+public class OptimisticVersionStockMutationStrategy implements StockMutationStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticVersionStockMutationStrategy.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Value("${stock.mutation.optimistic.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Override
+    public void decrement(Long itemId, int qty) {
+        Item item = find(itemId);
+        if (item.getStock() < qty) {
+            throw new InsufficientStockException(
+                    "Insufficient stock. Current: " + item.getStock() + ", Requested: " + qty);
+        }
+        item.setStock(item.getStock() - qty);
+        // Flush now so a version conflict surfaces before anything else is written
+        itemRepository.saveAndFlush(item);
+    }
+
+    @Override
+    public void increment(Long itemId, int qty) {
+        Item item = find(itemId);
+        item.setStock(item.getStock() + qty);
+        itemRepository.saveAndFlush(item);
+    }
+
+    @Override
+    public <T> T execute(Supplier<T> unitOfWork) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return unitOfWork.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("[STOCK] Giving up after {} optimistic attempts", attempt);
+                    throw new ConcurrentStockUpdateException(
+                            "Stock was modified concurrently, giving up after " + attempt + " attempts");
+                }
+                log.debug("[STOCK] Version conflict on attempt {}, retrying", attempt);
+            }
+        }
+    }
+
+    private Item find(Long itemId) {
+        return itemRepository.findById(itemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id " + itemId));
+    }
+}
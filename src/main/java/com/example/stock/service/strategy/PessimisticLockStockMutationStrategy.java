@@ -0,0 +1,42 @@
+package com.example.stock.service.strategy;
+
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.model.Item;
+import com.example.stock.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the item with {@code SELECT ... FOR UPDATE} and lets dirty checking write the
+ * new stock at commit. Concurrent mutations of the same item queue on the row lock.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.mutation.strategy", havingValue = "pessimistic")
+public class PessimisticLockStockMutationStrategy implements StockMutationStrategy {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Override
+    public void decrement(Long itemId, int qty) {
+        Item item = lock(itemId);
+        if (item.getStock() < qty) {
+            throw new InsufficientStockException(
+                    "Insufficient stock. Current: " + item.getStock() + ", Requested: " + qty);
+        }
+        item.setStock(item.getStock() - qty);
+    }
+
+    @Override
+    public void increment(Long itemId, int qty) {
+        Item item = lock(itemId);
+        item.setStock(item.getStock() + qty);
+    }
+
+    private Item lock(Long itemId) {
+        return itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id " + itemId));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.stock.service.strategy;
+
+import java.util.function.Supplier;
+
+/**
+ * Applies stock deltas to {@code item.stock}.
+ * The active implementation is chosen with {@code stock.mutation.strategy}
+ * (atomic, pessimistic or optimistic).
+ */
+public interface StockMutationStrategy {
+
+    /**
+     * Removes qty units from the item. Must be called inside a transaction.
+     *
+     * @throws com.example.stock.exception.ResourceNotFoundException  if the item does not exist
+     * @throws com.example.stock.exception.InsufficientStockException if the item holds fewer than qty units
+     */
+    void decrement(Long itemId, int qty);
+
+    /**
+     * Adds qty units to the item. Must be called inside a transaction.
+     *
+     * @throws com.example.stock.exception.ResourceNotFoundException if the item does not exist
+     */
+    void increment(Long itemId, int qty);
+
+    /**
+     * Runs a whole unit of work (usually one transaction) that mutates stock.
+     * Strategies that detect conflicts at commit time retry it here.
+     */
+    default <T> T execute(Supplier<T> unitOfWork) {
+        return unitOfWork.get();
+    }
+}
@@ -8,7 +8,9 @@ CREATE TABLE IF NOT EXISTS item (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     price DOUBLE NOT NULL,
-    stock INT NOT NULL DEFAULT 0 COMMENT 'Real-time stock count'
+    stock INT NOT NULL DEFAULT 0 COMMENT 'Real-time stock count',
+    version BIGINT NOT NULL DEFAULT 0 COMMENT 'Optimistic lock version',
+    reorder_point INT NULL COMMENT 'Stock level that triggers replenishment'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Product/Item master data';
 
 -- Create indexes for ITEM based on controller queries
@@ -27,6 +29,7 @@ CREATE TABLE IF NOT EXISTS orders (
     qty INT NOT NULL,
     price DOUBLE NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    lease_id BIGINT NULL COMMENT 'Stock lease the units came from',
     CONSTRAINT fk_order_item FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Customer orders';
 
@@ -58,6 +61,99 @@ CREATE INDEX idx_inventory_type ON inventory(type);
 -- InventoryController may filter/sort by created_at for reporting
 CREATE INDEX idx_inventory_created_at ON inventory(created_at);
 
+-- Create RESERVATION table
+-- Stock held for a checkout until it is confirmed into an order, cancelled or expired
+CREATE TABLE IF NOT EXISTS reservation (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    qty INT NOT NULL,
+    status VARCHAR(10) NOT NULL COMMENT 'HELD, CONFIRMED, CANCELLED or EXPIRED',
+    order_no VARCHAR(50) NULL COMMENT 'Order created on confirm',
+    expires_at DATETIME NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_reservation_item FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Checkout stock holds';
+
+-- Held units per item for StockReconciliationService
+CREATE INDEX idx_reservation_item_id ON reservation(item_id);
+-- Held reservations are rescheduled for expiry at startup
+CREATE INDEX idx_reservation_status ON reservation(status);
+
+-- Create STOCK_LEASE table
+-- Blocks of stock taken by one instance; orders placed from a block reference it in orders.lease_id
+CREATE TABLE IF NOT EXISTS stock_lease (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    node_id VARCHAR(64) NOT NULL,
+    granted INT NOT NULL,
+    returned INT NULL COMMENT 'Units given back when the lease was closed',
+    status VARCHAR(10) NOT NULL COMMENT 'ACTIVE, RETURNED or RECOVERED',
+    expires_at DATETIME NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_stock_lease_item FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Node-local stock quotas';
+
+-- Leased units per item for StockReconciliationService
+CREATE INDEX idx_stock_lease_item_id ON stock_lease(item_id);
+-- Expired active leases are recovered periodically
+CREATE INDEX idx_stock_lease_status_expires ON stock_lease(status, expires_at);
+-- Units ordered under a lease, summed when it is recovered
+CREATE INDEX idx_order_lease_id ON orders(lease_id);
+
+-- Create DAILY_ITEM_SALES table
+-- Units and revenue per item per day, kept up to date by every order write
+CREATE TABLE IF NOT EXISTS daily_item_sales (
+    item_id BIGINT NOT NULL,
+    sale_date DATE NOT NULL,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue DOUBLE NOT NULL DEFAULT 0,
+    PRIMARY KEY (item_id, sale_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Sales rollup for reporting';
+
+-- Sales report over a date range for all items
+CREATE INDEX idx_daily_item_sales_date ON daily_item_sales(sale_date);
+
+-- Create ID_GENERATOR table
+-- Id blocks for orders and inventory (next_val = last id handed out), so inserts can be batched
+CREATE TABLE IF NOT EXISTS id_generator (
+    gen_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Pooled id allocation';
+
+-- Create LEDGER_ARCHIVE table
+-- One row per day of orders or inventory moved to an archive file by LedgerArchiveService
+CREATE TABLE IF NOT EXISTS ledger_archive (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ledger VARCHAR(20) NOT NULL COMMENT 'orders or inventory',
+    partition_date DATE NOT NULL,
+    file_name VARCHAR(255) NOT NULL COMMENT 'Under stock.archive.dir/<ledger>/',
+    row_count BIGINT NOT NULL,
+    max_id BIGINT NOT NULL COMMENT 'Highest id in the file; only rows up to it are purged',
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_ledger_archive_day UNIQUE (ledger, partition_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Index of archived ledger days';
+
+-- Create LEDGER_ARCHIVE_BALANCE table
+-- Stock effect of archived ledger rows per item, so reconciliation still adds up
+CREATE TABLE IF NOT EXISTS ledger_archive_balance (
+    item_id BIGINT NOT NULL PRIMARY KEY,
+    balance BIGINT NOT NULL DEFAULT 0 COMMENT 'Archived top-ups minus withdrawals minus orders',
+    CONSTRAINT fk_ledger_archive_balance_item FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Archived ledger totals';
+
+-- Create STOCK_JOURNAL_CHECKPOINT table
+-- Last stock journal record the in-memory engine has applied (stock.engine.journal.enabled)
+CREATE TABLE IF NOT EXISTS stock_journal_checkpoint (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    applied_seq BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Stock journal checkpoint';
+
+-- Create SCHEMA_VERSION table
+-- Number of db-migration scripts the schema includes; one row, written by DatabaseInitializer
+CREATE TABLE IF NOT EXISTS schema_version (
+    version INT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Applied schema migrations';
+
 -- Insert sample data (based on the uploaded image)
 -- ITEM data
 INSERT IGNORE INTO item (id, name, price, stock) VALUES
@@ -93,3 +189,11 @@ INSERT IGNORE INTO orders (order_no, item_id, qty, price) VALUES
 ('O8', 2, 4, 10),
 ('O9', 3, 2, 30),
 ('O10', 4, 3, 3);
+
+-- Roll up the sample orders
+INSERT IGNORE INTO daily_item_sales (item_id, sale_date, units, revenue)
+SELECT item_id, DATE(created_at), SUM(qty), SUM(qty * price) FROM orders GROUP BY item_id, DATE(created_at);
+
+-- Continue id allocation after the sample rows
+INSERT IGNORE INTO id_generator (gen_name, next_val) SELECT 'orders', COALESCE(MAX(id), 0) FROM orders;
+INSERT IGNORE INTO id_generator (gen_name, next_val) SELECT 'inventory', COALESCE(MAX(id), 0) FROM inventory;
@@ -0,0 +1,4 @@
+-- Number of db-migration scripts the schema includes; one row, written by DatabaseInitializer
+CREATE TABLE IF NOT EXISTS schema_version (
+    version INT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Applied schema migrations';
@@ -0,0 +1,2 @@
+-- Optimistic lock version for stock.mutation.strategy=optimistic
+ALTER TABLE item ADD COLUMN version BIGINT NOT NULL DEFAULT 0 COMMENT 'Optimistic lock version';
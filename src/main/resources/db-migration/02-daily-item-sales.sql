@@ -0,0 +1,10 @@
+-- Sales rollup; fill it once with POST /api/reports/daily-sales/backfill
+CREATE TABLE daily_item_sales (
+    item_id BIGINT NOT NULL,
+    sale_date DATE NOT NULL,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue DOUBLE NOT NULL DEFAULT 0,
+    PRIMARY KEY (item_id, sale_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Sales rollup for reporting';
+
+CREATE INDEX idx_daily_item_sales_date ON daily_item_sales(sale_date);
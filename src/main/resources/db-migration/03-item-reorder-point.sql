@@ -0,0 +1,2 @@
+-- Low-stock threshold per item
+ALTER TABLE item ADD COLUMN reorder_point INT NULL COMMENT 'Stock level that triggers replenishment';
@@ -0,0 +1,14 @@
+-- Checkout stock holds
+CREATE TABLE reservation (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    qty INT NOT NULL,
+    status VARCHAR(10) NOT NULL COMMENT 'HELD, CONFIRMED, CANCELLED or EXPIRED',
+    order_no VARCHAR(50) NULL COMMENT 'Order created on confirm',
+    expires_at DATETIME NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_reservation_item FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Checkout stock holds';
+
+CREATE INDEX idx_reservation_item_id ON reservation(item_id);
+CREATE INDEX idx_reservation_status ON reservation(status);
@@ -0,0 +1,4 @@
+-- Stock lease an order's units came from
+ALTER TABLE orders ADD COLUMN lease_id BIGINT NULL COMMENT 'Stock lease the units came from';
+
+CREATE INDEX idx_order_lease_id ON orders(lease_id);
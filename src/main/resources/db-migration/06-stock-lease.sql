@@ -0,0 +1,15 @@
+-- Node-local stock quotas
+CREATE TABLE stock_lease (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    node_id VARCHAR(64) NOT NULL,
+    granted INT NOT NULL,
+    returned INT NULL COMMENT 'Units given back when the lease was closed',
+    status VARCHAR(10) NOT NULL COMMENT 'ACTIVE, RETURNED or RECOVERED',
+    expires_at DATETIME NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_stock_lease_item FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Node-local stock quotas';
+
+CREATE INDEX idx_stock_lease_item_id ON stock_lease(item_id);
+CREATE INDEX idx_stock_lease_status_expires ON stock_lease(status, expires_at);
@@ -0,0 +1,11 @@
+-- Index of ledger days moved to archive files
+CREATE TABLE ledger_archive (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ledger VARCHAR(20) NOT NULL COMMENT 'orders or inventory',
+    partition_date DATE NOT NULL,
+    file_name VARCHAR(255) NOT NULL COMMENT 'Under stock.archive.dir/<ledger>/',
+    row_count BIGINT NOT NULL,
+    max_id BIGINT NOT NULL COMMENT 'Highest id in the file; only rows up to it are purged',
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_ledger_archive_day UNIQUE (ledger, partition_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Index of archived ledger days';
@@ -0,0 +1,6 @@
+-- Stock effect of archived ledger rows per item
+CREATE TABLE ledger_archive_balance (
+    item_id BIGINT NOT NULL PRIMARY KEY,
+    balance BIGINT NOT NULL DEFAULT 0 COMMENT 'Archived top-ups minus withdrawals minus orders',
+    CONSTRAINT fk_ledger_archive_balance_item FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Archived ledger totals';
@@ -0,0 +1,5 @@
+-- Last stock journal record the in-memory engine has applied (stock.engine.journal.enabled)
+CREATE TABLE stock_journal_checkpoint (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    applied_seq BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Stock journal checkpoint';
@@ -0,0 +1,6 @@
+-- Id blocks for orders and inventory (next_val = last id handed out), so inserts can be batched.
+-- Rows are seeded from MAX(id) by IdBlockAllocator the first time a table needs ids.
+CREATE TABLE id_generator (
+    gen_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Pooled id allocation';
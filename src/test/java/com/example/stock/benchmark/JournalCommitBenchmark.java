@@ -0,0 +1,152 @@
+package com.example.stock.benchmark;
+
+import com.example.stock.StockServiceApplication;
+import com.example.stock.model.Inventory;
+import com.example.stock.model.Item;
+import com.example.stock.model.Order;
+import com.example.stock.service.StockService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Durable commits per second: the default path, one JPA transaction per order, against
+ * the in-memory engine with the stock journal, which answers once the journal record is
+ * fsynced and applies it to the database later. Each mode runs in its own application
+ * context and database; the orders are spread over a few items.
+ *
+ * <p>After each run the context is closed, which drains the write-behind queue, and the
+ * stock in the database is checked against the accepted orders. Run with
+ * {@code mvn test -Pbenchmark -Dtest=JournalCommitBenchmark}; tune with
+ * -Dbenchmark.seconds, and set -Djournal.dir to put the journal on the disk to measure
+ * (default {@code target/journal-benchmark}).
+ */
+@Tag("benchmark")
+class JournalCommitBenchmark {
+
+    private static final int[] THREAD_COUNTS = {8, 64};
+    private static final int ITEMS = 16;
+    private static final long SECONDS = Long.getLong("benchmark.seconds", 5);
+    private static final Path JOURNAL_DIR = Path.of(System.getProperty("journal.dir", "target/journal-benchmark"));
+    private static final int INITIAL_STOCK = Integer.MAX_VALUE / 4;
+
+    private final AtomicLong orderSeq = new AtomicLong();
+
+    @Test
+    void compareJpaAndJournaledCommits() throws Exception {
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-10s %8s %12s %10s", "mode", "threads", "commits/s", "failed"));
+        int run = 0;
+        for (int threads : THREAD_COUNTS) {
+            for (String mode : List.of("jpa", "journal")) {
+                String url = "jdbc:h2:mem:journal-bench-" + (++run)
+                        + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000";
+                long[] result = runMode(mode, url, threads);
+
+                assertTrue(result[0] > 0, "no order completed in " + mode + " mode");
+                report.add(String.format("%-10s %8d %12.0f %10d", mode, threads, result[0] / (double) SECONDS,
+                        result[1]));
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    // Returns {completed, failed}
+    private long[] runMode(String mode, String url, int threads) throws InterruptedException {
+        FileSystemUtils.deleteRecursively(JOURNAL_DIR.toFile());
+        List<Long> itemIds = new ArrayList<>();
+        long[] result;
+        try (ConfigurableApplicationContext context = start(mode, url)) {
+            StockService stockService = context.getBean(StockService.class);
+            for (int i = 0; i < ITEMS; i++) {
+                Item item = stockService.saveItem(new Item(null, "Journal " + i, 1.0, 0, null, null));
+                stockService.addInventory(new Inventory(null, item.getId(), INITIAL_STOCK, "T", null));
+                itemIds.add(item.getId());
+            }
+            measure(stockService, itemIds, threads, TimeUnit.SECONDS.toNanos(1));
+            result = measure(stockService, itemIds, threads, TimeUnit.SECONDS.toNanos(SECONDS));
+        }
+
+        // Closing the context flushed everything the engine acknowledged
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url));
+        Long ordered = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(qty), 0) FROM orders", Long.class);
+        Long stock = jdbcTemplate.queryForObject("SELECT SUM(stock) FROM item", Long.class);
+        assertEquals((long) INITIAL_STOCK * ITEMS - ordered, stock, "stock does not match orders in " + mode + " mode");
+        jdbcTemplate.execute("SHUTDOWN");
+        return result;
+    }
+
+    private static ConfigurableApplicationContext start(String mode, String url) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                // Keep the tables after close for the stock check
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--spring.datasource.hikari.maximum-pool-size=12",
+                "--spring.datasource.hikari.connection-timeout=60000",
+                "--spring.jpa.show-sql=false",
+                "--stock.db-init.enabled=false",
+                "--logging.level.com.example.stock=WARN",
+                "--logging.level.org.hibernate.SQL=WARN"));
+        if ("journal".equals(mode)) {
+            args.add("--stock.engine.mode=memory");
+            args.add("--stock.engine.journal.enabled=true");
+            args.add("--stock.engine.journal.dir=" + JOURNAL_DIR);
+        }
+        return new SpringApplicationBuilder(StockServiceApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+
+    private long[] measure(StockService stockService, List<Long> itemIds, int threads, long durationNanos)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        for (int t = 0; t < threads; t++) {
+            Long itemId = itemIds.get(t % itemIds.size());
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long deadline = System.nanoTime() + durationNanos;
+                while (System.nanoTime() < deadline) {
+                    Order order = new Order(null, "JOURNAL-" + orderSeq.incrementAndGet(), itemId, 1, 1.0, null, null);
+                    try {
+                        stockService.placeOrder(order);
+                        completed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+        return new long[]{completed.get(), failed.get()};
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.stock.benchmark;
+
+import com.example.stock.config.DatabaseInitializer;
+import com.example.stock.dto.ReconciliationReport;
+import com.example.stock.engine.InMemoryStockEngine;
+import com.example.stock.model.Inventory;
+import com.example.stock.model.Item;
+import com.example.stock.service.StockService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Open-loop HTTP load test: requests arrive at {@code load.rate} per second (Poisson) whether
+ * or not earlier ones have finished, over a mix of item reads, orders and inventory
+ * transactions with Zipf-skewed item choice. Latency is measured from each request's
+ * scheduled send time, so a stalled server shows up in the percentiles instead of slowing
+ * the load down.
+ *
+ * <p>The request plan is generated up front from {@code load.seed}, so two runs with the
+ * same settings send the same requests in the same order. After the run the test checks
+ * that no item's stock went negative and that reconciliation finds no drift.
+ *
+ * <p>Run with {@code mvn test -Pbenchmark -Dtest=LoadTestBenchmark}. Settings (defaults):
+ * {@code load.rate} (500), {@code load.seconds} (30), {@code load.warmup-seconds} (5),
+ * {@code load.items} (1000), {@code load.zipf} (1.1, 0 for uniform), {@code load.initial-stock}
+ * (100), {@code load.seed} (42) and {@code load.mix}
+ * ({@code get=45,list=5,order=35,topup=8,withdraw=7}). Application settings such as
+ * {@code -Dstock.mutation.strategy=pessimistic} apply as usual. Percentile distributions
+ * are written to {@code target/load-test/*.hgrm}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.stock=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@ActiveProfiles("test")
+class LoadTestBenchmark {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "500"));
+    private static final long SECONDS = Long.getLong("load.seconds", 30);
+    private static final long WARMUP_SECONDS = Long.getLong("load.warmup-seconds", 5);
+    private static final int ITEMS = Integer.getInteger("load.items", 1000);
+    private static final double ZIPF = Double.parseDouble(System.getProperty("load.zipf", "1.1"));
+    private static final int INITIAL_STOCK = Integer.getInteger("load.initial-stock", 100);
+    private static final long SEED = Long.getLong("load.seed", 42);
+    private static final String MIX = System.getProperty("load.mix", "get=45,list=5,order=35,topup=8,withdraw=7");
+
+    // Latencies are recorded in microseconds, up to a minute
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    @MockBean
+    private DatabaseInitializer databaseInitializer;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<InMemoryStockEngine> stockEngine;
+
+    @LocalServerPort
+    private int port;
+
+    private enum Operation { GET, LIST, ORDER, TOPUP, WITHDRAW }
+
+    private record Planned(long offsetNanos, Operation operation, long itemId, int qty) {
+    }
+
+    @Test
+    void replayMixedLoad() throws Exception {
+        long[] itemIds = createItems();
+        Map<Operation, Integer> mix = parseMix(MIX);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newCachedThreadPool())
+                .build();
+
+        if (WARMUP_SECONDS > 0) {
+            run(client, plan(new SplittableRandom(SEED ^ 0x5DEECE66DL), itemIds, mix, WARMUP_SECONDS), "W");
+        }
+        List<Planned> plan = plan(new SplittableRandom(SEED), itemIds, mix, SECONDS);
+        long start = System.nanoTime();
+        Stats stats = run(client, plan, "L");
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        report(stats, plan.size(), elapsedSeconds);
+        awaitEngineFlush();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item WHERE stock < 0", Integer.class),
+                "an item's stock went negative");
+        ReconciliationReport reconciliation = stockService.reconcileStock(false);
+        assertTrue(reconciliation.getMismatches().isEmpty(),
+                "item.stock disagrees with the ledger: " + reconciliation.getMismatches());
+        assertTrue(stats.total.getTotalCount() > 0, "no request completed");
+    }
+
+    // Stock comes from top-ups so the ledger accounts for all of it
+    private long[] createItems() {
+        long[] ids = new long[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = stockService.saveItem(new Item(null, "Load item " + i, 1.0 + i % 50, 0, null, null));
+            if (INITIAL_STOCK > 0) {
+                stockService.addInventory(new Inventory(null, item.getId(), INITIAL_STOCK, "T", null));
+            }
+            ids[i] = item.getId();
+        }
+        return ids;
+    }
+
+    private List<Planned> plan(SplittableRandom random, long[] itemIds, Map<Operation, Integer> mix, long seconds) {
+        ZipfSampler items = new ZipfSampler(itemIds.length, ZIPF);
+        int weights = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        double meanGapNanos = 1e9 / RATE;
+        List<Planned> plan = new ArrayList<>((int) (RATE * seconds * 1.1));
+        double offset = 0;
+        while (true) {
+            // Exponential gaps give Poisson arrivals
+            offset += -Math.log(1 - random.nextDouble()) * meanGapNanos;
+            if (offset >= durationNanos) {
+                return plan;
+            }
+            int pick = random.nextInt(weights);
+            Operation operation = null;
+            for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    operation = entry.getKey();
+                    break;
+                }
+            }
+            long itemId = itemIds[items.sample(random)];
+            int qty = operation == Operation.TOPUP ? 1 + random.nextInt(10) : 1 + random.nextInt(3);
+            plan.add(new Planned((long) offset, operation, itemId, qty));
+        }
+    }
+
+    private Stats run(HttpClient client, List<Planned> plan, String phase) throws InterruptedException {
+        Stats stats = new Stats();
+        CountDownLatch done = new CountDownLatch(plan.size());
+        long start = System.nanoTime();
+        for (int i = 0; i < plan.size(); i++) {
+            Planned planned = plan.get(i);
+            long intended = start + planned.offsetNanos();
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            client.sendAsync(request(planned, phase + "-" + SEED + "-" + i), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long micros = Math.min(MAX_LATENCY_MICROS, (System.nanoTime() - intended) / 1000);
+                        stats.record(planned.operation(), micros, error == null ? response.statusCode() : -1);
+                        done.countDown();
+                    });
+        }
+        if (!done.await(2, TimeUnit.MINUTES)) {
+            System.out.printf("%d requests still outstanding after the run%n", done.getCount());
+        }
+        return stats;
+    }
+
+    private HttpRequest request(Planned planned, String orderNo) {
+        String base = "http://localhost:" + port;
+        return switch (planned.operation()) {
+            case GET -> HttpRequest.newBuilder(URI.create(base + "/api/items/" + planned.itemId())).GET().build();
+            case LIST -> HttpRequest.newBuilder(URI.create(base + "/api/items?page=0&size=20")).GET().build();
+            case ORDER -> post(base + "/api/orders", String.format(
+                    "{\"orderNo\":\"LOAD-%s\",\"itemId\":%d,\"qty\":%d,\"price\":1.0}",
+                    orderNo, planned.itemId(), planned.qty()));
+            case TOPUP, WITHDRAW -> post(base + "/api/inventory", String.format(
+                    "{\"itemId\":%d,\"qty\":%d,\"type\":\"%s\"}",
+                    planned.itemId(), planned.qty(), planned.operation() == Operation.TOPUP ? "T" : "W"));
+        };
+    }
+
+    private static HttpRequest post(String uri, String body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private void report(Stats stats, int planned, double elapsedSeconds) throws IOException {
+        Path dir = Path.of("target", "load-test");
+        Files.createDirectories(dir);
+        List<String> rows = new ArrayList<>();
+        rows.add(String.format("%-10s %9s %9s %9s %9s %10s %10s %10s %10s", "operation", "requests", "ok",
+                "rejected", "failed", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = stats.latencies.get(operation);
+            if (histogram.getTotalCount() > 0) {
+                rows.add(row(operation.name().toLowerCase(), histogram, stats.counts(operation)));
+                writeDistribution(dir.resolve(operation.name().toLowerCase() + ".hgrm"), histogram);
+            }
+        }
+        rows.add(row("total", stats.total, stats.totalCounts()));
+        writeDistribution(dir.resolve("total.hgrm"), stats.total);
+        rows.add(String.format("target %.0f req/s, planned %d, achieved %.0f req/s over %.1f s (seed %d, zipf %.2f, %d items)",
+                RATE, planned, stats.total.getTotalCount() / elapsedSeconds, elapsedSeconds, SEED, ZIPF, ITEMS));
+        rows.forEach(System.out::println);
+    }
+
+    private static String row(String name, Histogram histogram, long[] counts) {
+        return String.format("%-10s %9d %9d %9d %9d %10.2f %10.2f %10.2f %10.2f", name, histogram.getTotalCount(),
+                counts[0], counts[1], counts[2], histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            // Values are in microseconds; scale to milliseconds
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    // The in-memory engine persists stock asynchronously; check the database once it caught up
+    private void awaitEngineFlush() throws InterruptedException {
+        InMemoryStockEngine engine = stockEngine.getIfAvailable();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (engine != null && engine.lagMillis() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+
+    private static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no positive weight: " + spec);
+        }
+        return mix;
+    }
+
+    private static final class Stats {
+        final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        final Histogram total = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        // ok, rejected (4xx) and failed (5xx or no response): three slots per operation
+        private final AtomicLongArray outcomes = new AtomicLongArray(Operation.values().length * 3);
+
+        Stats() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            }
+        }
+
+        void record(Operation operation, long micros, int status) {
+            latencies.get(operation).recordValue(micros);
+            total.recordValue(micros);
+            int outcome = status >= 200 && status < 300 ? 0 : status >= 400 && status < 500 ? 1 : 2;
+            outcomes.incrementAndGet(operation.ordinal() * 3 + outcome);
+        }
+
+        long[] counts(Operation operation) {
+            int base = operation.ordinal() * 3;
+            return new long[]{outcomes.get(base), outcomes.get(base + 1), outcomes.get(base + 2)};
+        }
+
+        long[] totalCounts() {
+            long[] sums = new long[3];
+            for (int i = 0; i < outcomes.length(); i++) {
+                sums[i % 3] += outcomes.get(i);
+            }
+            return sums;
+        }
+    }
+
+    /** Item index with probability proportional to 1 / (rank + 1)^exponent. */
+    static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double u = random.nextDouble();
+            int lo = 0;
+            int hi = cumulative.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < u) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.stock.benchmark;
+
+import com.example.stock.config.DatabaseInitializer;
+import com.example.stock.model.Item;
+import com.example.stock.model.Order;
+import com.example.stock.repository.ItemRepository;
+import com.example.stock.service.OrderCoalescer;
+import com.example.stock.service.StockService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Single hot item: 8, 64 and 256 threads place one-unit orders either one transaction
+ * per order or through the {@link OrderCoalescer}. Reports orders/s and checks that
+ * the stock went down by exactly the number of accepted orders.
+ * Run with {@code mvn test -Pbenchmark}; tune with -Dbenchmark.seconds.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:coalescing;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=12",
+        "spring.datasource.hikari.connection-timeout=60000",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.stock=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@ActiveProfiles("test")
+class OrderCoalescingBenchmark {
+
+    private static final int[] THREAD_COUNTS = {8, 64, 256};
+    private static final long SECONDS = Long.getLong("benchmark.seconds", 5);
+    private static final int INITIAL_STOCK = Integer.MAX_VALUE / 2;
+
+    @MockBean
+    private DatabaseInitializer databaseInitializer;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    private final AtomicLong orderSeq = new AtomicLong();
+
+    @Test
+    void compareSingleAndCoalescedOrders() throws Exception {
+        OrderCoalescer coalescer = beanFactory.createBean(OrderCoalescer.class);
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-12s %8s %12s %10s", "mode", "threads", "orders/s", "failed"));
+        for (int threads : THREAD_COUNTS) {
+            for (String mode : List.of("single", "coalesced")) {
+                Function<Order, Order> place = "single".equals(mode) ? stockService::placeOrder : coalescer::placeOrder;
+                Long itemId = newItem();
+                measure(place, itemId, threads, TimeUnit.SECONDS.toNanos(1));
+                long before = itemRepository.findById(itemId).orElseThrow().getStock();
+                long[] result = measure(place, itemId, threads, TimeUnit.SECONDS.toNanos(SECONDS));
+                long after = itemRepository.findById(itemId).orElseThrow().getStock();
+
+                assertTrue(result[0] > 0, "no order completed in " + mode + " mode");
+                assertEquals(result[0], before - after, "stock does not match accepted orders in " + mode + " mode");
+                report.add(String.format("%-12s %8d %12.0f %10d", mode, threads, result[0] / (double) SECONDS, result[1]));
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    private Long newItem() {
+        Item item = new Item();
+        item.setName("Hot item");
+        item.setPrice(1.0);
+        item.setStock(INITIAL_STOCK);
+        return itemRepository.save(item).getId();
+    }
+
+    // Returns {completed, failed}
+    private long[] measure(Function<Order, Order> place, Long itemId, int threads, long durationNanos)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long deadline = System.nanoTime() + durationNanos;
+                while (System.nanoTime() < deadline) {
+                    Order order = new Order();
+                    order.setOrderNo("BENCH-" + orderSeq.incrementAndGet());
+                    order.setItemId(itemId);
+                    order.setQty(1);
+                    order.setPrice(1.0);
+                    try {
+                        place.apply(order);
+                        completed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+        return new long[]{completed.get(), failed.get()};
+    }
+}
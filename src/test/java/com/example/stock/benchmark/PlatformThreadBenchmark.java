@@ -0,0 +1,26 @@
+package com.example.stock.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Baseline for {@link VirtualThreadBenchmark}: Tomcat's default platform thread pool.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:platform;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=12",
+        "spring.threads.virtual.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.stock=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@ActiveProfiles("test")
+class PlatformThreadBenchmark extends ThreadModeBenchmark {
+
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
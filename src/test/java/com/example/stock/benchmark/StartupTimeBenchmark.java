@@ -0,0 +1,145 @@
+package com.example.stock.benchmark;
+
+import com.example.stock.StockServiceApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Measures time from process launch to the first successful {@code GET /api/items}, which is
+ * what a scaled-out or restarted instance costs before it can take traffic. Every run starts
+ * a fresh JVM against an empty in-memory database.
+ *
+ * <p>By default the application is launched from the test classpath. To measure a packaged
+ * build, point {@code startup.jar} at the jar and pass the JVM options to compare through
+ * {@code startup.jvm-args}, e.g. a plain jar against
+ * {@code -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true} from a
+ * {@code mvn -Pfast-startup package} build (see "Fast Startup" in README.md).
+ *
+ * <p>Run with {@code mvn test -Pbenchmark -Dtest=StartupTimeBenchmark}. Settings (defaults):
+ * {@code startup.runs} (5), {@code startup.jar} (none), {@code startup.jvm-args} (none),
+ * {@code startup.app-args} (none) and {@code startup.timeout-seconds} (120). Application
+ * output goes to {@code target/startup-test/run-N.log}.
+ */
+@Tag("benchmark")
+class StartupTimeBenchmark {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+    private static final String JAR = System.getProperty("startup.jar", "");
+    private static final String JVM_ARGS = System.getProperty("startup.jvm-args", "");
+    private static final String APP_ARGS = System.getProperty("startup.app-args", "");
+    private static final long TIMEOUT_SECONDS = Long.getLong("startup.timeout-seconds", 120);
+
+    private static final Path LOG_DIR = Path.of("target", "startup-test");
+
+    @Test
+    void measureTimeToFirstRequest() throws Exception {
+        Files.createDirectories(LOG_DIR);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        long[] millis = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            millis[run] = timeToFirstRequest(client, run + 1);
+            System.out.printf("[STARTUP] run %d: %d ms%n", run + 1, millis[run]);
+        }
+
+        Arrays.sort(millis);
+        System.out.printf("[STARTUP] %s%s: runs=%d min=%d ms median=%d ms max=%d ms%n",
+                JAR.isEmpty() ? "classpath" : JAR,
+                JVM_ARGS.isBlank() ? "" : " " + JVM_ARGS,
+                RUNS, millis[0], millis[RUNS / 2], millis[RUNS - 1]);
+    }
+
+    private long timeToFirstRequest(HttpClient client, int run) throws Exception {
+        int port = freePort();
+        Path log = LOG_DIR.resolve("run-" + run + ".log");
+        ProcessBuilder builder = new ProcessBuilder(command(port, run))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/items"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            long deadline = start + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    fail("Application exited with code " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            fail("No successful GET /api/items within " + TIMEOUT_SECONDS + " s, see " + log);
+            return -1;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private List<String> command(int port, int run) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(split(JVM_ARGS));
+        if (JAR.isEmpty()) {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(StockServiceApplication.class.getName());
+        } else {
+            assertTrue(new File(JAR).isFile(), "startup.jar not found: " + JAR);
+            command.add("-jar");
+            command.add(JAR);
+        }
+        command.add("--server.port=" + port);
+        command.add("--spring.profiles.active=test");
+        command.add("--spring.datasource.url=jdbc:h2:mem:startup" + run
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+        command.add("--spring.jpa.show-sql=false");
+        command.add("--logging.level.com.example.stock=WARN");
+        command.add("--logging.level.org.hibernate.SQL=WARN");
+        command.addAll(split(APP_ARGS));
+        return command;
+    }
+
+    private static List<String> split(String args) {
+        return args.isBlank() ? List.of() : Arrays.asList(args.trim().split("\\s+"));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
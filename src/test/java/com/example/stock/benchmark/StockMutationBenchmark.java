@@ -0,0 +1,151 @@
+package com.example.stock.benchmark;
+
+import com.example.stock.config.DatabaseInitializer;
+import com.example.stock.model.Item;
+import com.example.stock.repository.ItemRepository;
+import com.example.stock.service.strategy.AtomicUpdateStockMutationStrategy;
+import com.example.stock.service.strategy.OptimisticVersionStockMutationStrategy;
+import com.example.stock.service.strategy.PessimisticLockStockMutationStrategy;
+import com.example.stock.service.strategy.StockMutationStrategy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contention benchmark for the stock mutation strategies: 1, 8 and 64 threads
+ * decrement the same item on H2 and we report throughput and p99 latency.
+ * Run with {@code mvn test -Pbenchmark}; tune with -Dbenchmark.seconds.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=12",
+        "spring.datasource.hikari.connection-timeout=60000",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.stock=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@ActiveProfiles("test")
+class StockMutationBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 8, 64};
+    private static final long SECONDS = Long.getLong("benchmark.seconds", 5);
+
+    @MockBean
+    private DatabaseInitializer databaseInitializer;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareStrategies() throws Exception {
+        List<Class<? extends StockMutationStrategy>> strategies = List.of(
+                AtomicUpdateStockMutationStrategy.class,
+                PessimisticLockStockMutationStrategy.class,
+                OptimisticVersionStockMutationStrategy.class);
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-40s %8s %12s %12s %10s", "strategy", "threads", "ops/s", "p99 (ms)", "failed"));
+        for (Class<? extends StockMutationStrategy> type : strategies) {
+            StockMutationStrategy strategy = beanFactory.createBean(type);
+            for (int threads : THREAD_COUNTS) {
+                Result result = run(strategy, threads);
+                report.add(String.format("%-40s %8d %12.0f %12.3f %10d",
+                        type.getSimpleName(), threads, result.throughput, result.p99Millis, result.failed));
+                assertTrue(result.completed > 0, "no operation completed for " + type.getSimpleName());
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    private Result run(StockMutationStrategy strategy, int threads) throws InterruptedException {
+        Item item = new Item();
+        item.setName("Hot item");
+        item.setPrice(1.0);
+        item.setStock(Integer.MAX_VALUE / 2);
+        Long itemId = itemRepository.save(item).getId();
+
+        // Short warm-up so JIT and pool start-up do not end up in the numbers
+        measure(strategy, itemId, threads, TimeUnit.SECONDS.toNanos(1));
+        return measure(strategy, itemId, threads, TimeUnit.SECONDS.toNanos(SECONDS));
+    }
+
+    private Result measure(StockMutationStrategy strategy, Long itemId, int threads, long durationNanos)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong failed = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        List<int[]> counts = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            long[] samples = new long[Math.max(1 << 12, (1 << 22) / threads)];
+            int[] count = new int[1];
+            latencies.add(samples);
+            counts.add(count);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long deadline = System.nanoTime() + durationNanos;
+                while (System.nanoTime() < deadline && count[0] < samples.length) {
+                    long begin = System.nanoTime();
+                    try {
+                        strategy.execute(() -> transactionTemplate.execute(status -> {
+                            strategy.decrement(itemId, 1);
+                            return null;
+                        }));
+                        samples[count[0]++] = System.nanoTime() - begin;
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+        double elapsedSeconds = (System.nanoTime() - began) / 1e9;
+
+        int total = counts.stream().mapToInt(c -> c[0]).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(latencies.get(t), 0, all, offset, counts.get(t)[0]);
+            offset += counts.get(t)[0];
+        }
+        Arrays.sort(all);
+        double p99 = total == 0 ? 0 : all[Math.min(total - 1, (int) Math.ceil(total * 0.99) - 1)] / 1e6;
+        return new Result(total, failed.get(), total / elapsedSeconds, p99);
+    }
+
+    private record Result(long completed, long failed, double throughput, double p99Millis) {
+    }
+}
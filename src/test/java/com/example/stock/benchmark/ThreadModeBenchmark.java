@@ -0,0 +1,148 @@
+package com.example.stock.benchmark;
+
+import com.example.stock.config.DatabaseInitializer;
+import com.example.stock.model.Item;
+import com.example.stock.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HTTP load against a running server: concurrent clients mix {@code GET /api/items/{id}}
+ * with {@code POST /api/orders} over a handful of items. Subclasses pick the thread mode;
+ * run both with {@code mvn test -Pbenchmark} (JDK 21 and {@code -Pjava21} for the
+ * virtual-thread one) and compare the printed rows.
+ */
+abstract class ThreadModeBenchmark {
+
+    private static final int[] CLIENT_COUNTS = {100, 500, 2000};
+    private static final long SECONDS = Long.getLong("benchmark.seconds", 5);
+    private static final int ITEMS = 16;
+
+    @MockBean
+    private DatabaseInitializer databaseInitializer;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @LocalServerPort
+    private int port;
+
+    private final AtomicLong orderSeq = new AtomicLong();
+
+    protected abstract String mode();
+
+    @Test
+    void mixedReadWriteLoad() throws Exception {
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item();
+            item.setName("Benchmark item " + i);
+            item.setPrice(1.0);
+            item.setStock(Integer.MAX_VALUE / 2);
+            itemIds.add(itemRepository.save(item).getId());
+        }
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newCachedThreadPool())
+                .build();
+
+        List<String> report = new ArrayList<>();
+        for (int clients : CLIENT_COUNTS) {
+            measure(client, itemIds, clients, TimeUnit.SECONDS.toNanos(1));
+            Result result = measure(client, itemIds, clients, TimeUnit.SECONDS.toNanos(SECONDS));
+            assertTrue(result.completed > 0, "no request completed with " + clients + " clients");
+            report.add(String.format("%-10s %8d clients %10.0f req/s %10.1f p99 ms %8d errors",
+                    mode(), clients, result.completed / (double) SECONDS, result.p99Millis, result.errors));
+        }
+        report.forEach(System.out::println);
+    }
+
+    private Result measure(HttpClient client, List<Long> itemIds, int clients, long durationNanos)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        List<int[]> counts = new ArrayList<>();
+
+        for (int c = 0; c < clients; c++) {
+            long[] samples = new long[Math.max(1 << 10, (1 << 22) / clients)];
+            int[] count = new int[1];
+            latencies.add(samples);
+            counts.add(count);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long deadline = System.nanoTime() + durationNanos;
+                while (System.nanoTime() < deadline && count[0] < samples.length) {
+                    Long itemId = itemIds.get(ThreadLocalRandom.current().nextInt(itemIds.size()));
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request(itemId), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            samples[count[0]++] = System.nanoTime() - begin;
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+
+        int total = counts.stream().mapToInt(c -> c[0]).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies.get(c), 0, all, offset, counts.get(c)[0]);
+            offset += counts.get(c)[0];
+        }
+        Arrays.sort(all);
+        double p99 = total == 0 ? 0 : all[Math.min(total - 1, (int) Math.ceil(total * 0.99) - 1)] / 1e6;
+        return new Result(total, errors.get(), p99);
+    }
+
+    // Three reads per write, roughly the production mix
+    private HttpRequest request(Long itemId) {
+        if (ThreadLocalRandom.current().nextInt(4) > 0) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/items/" + itemId)).GET().build();
+        }
+        String body = String.format("{\"orderNo\":\"VT-%s-%d\",\"itemId\":%d,\"qty\":1,\"price\":1.0}",
+                mode(), orderSeq.incrementAndGet(), itemId);
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private record Result(long completed, long errors, double p99Millis) {
+    }
+}
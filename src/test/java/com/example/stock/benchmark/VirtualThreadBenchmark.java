@@ -0,0 +1,36 @@
+package com.example.stock.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Same load as {@link PlatformThreadBenchmark} with request handling on virtual threads
+ * and the connection-acquisition limiter in front of the pool. Skipped below JDK 21.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:virtual;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=12",
+        "spring.threads.virtual.enabled=true",
+        "stock.vthreads.connection-limit.acquire-timeout-ms=5000",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.stock=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@ActiveProfiles("test")
+class VirtualThreadBenchmark extends ThreadModeBenchmark {
+
+    @BeforeAll
+    static void requireVirtualThreads() {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need JDK 21+");
+    }
+
+    @Override
+    protected String mode() {
+        return "virtual";
+    }
+}
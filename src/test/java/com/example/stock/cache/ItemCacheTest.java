@@ -0,0 +1,143 @@
+package com.example.stock.cache;
+
+import com.example.stock.event.StockChangedEvent;
+import com.example.stock.model.Item;
+import com.example.stock.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemCacheTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemCache itemCache;
+
+    private Item sampleItem;
+
+    @BeforeEach
+    void setUp() {
+        itemCache.init();
+
+        sampleItem = new Item();
+        sampleItem.setId(1L);
+        sampleItem.setName("Test Item");
+        sampleItem.setPrice(10.0);
+        sampleItem.setStock(100);
+    }
+
+    @Test
+    void testGet_LoadsOnceThenServesFromCache() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
+
+        assertEquals(Optional.of(sampleItem), itemCache.get(1L));
+        assertEquals(Optional.of(sampleItem), itemCache.get(1L));
+
+        verify(itemRepository, times(1)).findById(1L);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> items = (Map<String, Object>) itemCache.stats().get("items");
+        assertEquals(1L, items.get("hitCount"));
+        assertEquals(1L, items.get("missCount"));
+    }
+
+    @Test
+    void testGet_MissingItemIsNotCached() {
+        when(itemRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertTrue(itemCache.get(99L).isEmpty());
+        assertTrue(itemCache.get(99L).isEmpty());
+
+        verify(itemRepository, times(2)).findById(99L);
+    }
+
+    @Test
+    void testStockChange_EvictsItem() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
+        itemCache.get(1L);
+
+        itemCache.onStockChanged(new StockChangedEvent(1L));
+        itemCache.get(1L);
+
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testGetPage_HydratesFromItemCacheAfterStockChange() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(itemRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(sampleItem), pageable, 1));
+
+        itemCache.getPage(pageable);
+        itemCache.onStockChanged(new StockChangedEvent(1L));
+
+        Item restocked = new Item(1L, "Test Item", 10.0, 80, 2L, null);
+        when(itemRepository.findAllById(anyIterable())).thenReturn(List.of(restocked));
+        Page<Item> result = itemCache.getPage(pageable);
+
+        assertEquals(80, result.getContent().get(0).getStock());
+        assertEquals(1, result.getTotalElements());
+        // The page itself was not reloaded, only the evicted item
+        verify(itemRepository, times(1)).findAll(pageable);
+    }
+
+    @Test
+    void testGetPage_DoesNotKeepRowsChangedDuringTheLoad() {
+        Pageable pageable = PageRequest.of(0, 10);
+        // The order commits after the page query read the row
+        when(itemRepository.findAll(pageable)).thenAnswer(invocation -> {
+            itemCache.onStockChanged(new StockChangedEvent(1L));
+            return new PageImpl<>(List.of(sampleItem), pageable, 1);
+        });
+        Item restocked = new Item(1L, "Test Item", 10.0, 80, 2L, null);
+        when(itemRepository.findAllById(anyIterable())).thenReturn(List.of(restocked));
+
+        Page<Item> result = itemCache.getPage(pageable);
+
+        assertEquals(80, result.getContent().get(0).getStock());
+        assertEquals(Optional.of(restocked), itemCache.get(1L));
+        verify(itemRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetPage_SortedByStockIsNotCached() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("stock"));
+        when(itemRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(sampleItem), pageable, 1));
+
+        itemCache.getPage(pageable);
+        itemCache.getPage(pageable);
+
+        verify(itemRepository, times(2)).findAll(pageable);
+    }
+
+    @Test
+    void testPut_DropsCachedPages() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(itemRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(sampleItem), pageable, 1));
+
+        itemCache.getPage(pageable);
+        itemCache.put(sampleItem);
+        itemCache.getPage(pageable);
+
+        verify(itemRepository, times(2)).findAll(pageable);
+        verify(itemRepository, never()).findById(any());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.stock.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchIndexTest {
+
+    private EmbeddedDatabase database;
+
+    private ItemSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE item (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO item VALUES (1, 'Blue Pen'), (2, 'Pen'), (3, 'Pencil Case'),"
+                + " (4, 'Open Notebook'), (5, 'Crème brûlée torch')");
+
+        searchIndex = new ItemSearchIndex();
+        ReflectionTestUtils.setField(searchIndex, "jdbcTemplate", jdbcTemplate);
+        // Several seed pages
+        ReflectionTestUtils.setField(searchIndex, "seedPageSize", 2);
+        searchIndex.seed();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testSeedIndexesAllItems() {
+        assertEquals(5, searchIndex.size());
+    }
+
+    @Test
+    void testRanksExactThenPrefixThenWordPrefixThenInfix() {
+        ItemSearchIndex.SearchResult result = searchIndex.search("pen", 0, 10);
+
+        assertEquals(4, result.total());
+        assertEquals(List.of(2L, 3L, 1L, 4L), result.itemIds());
+    }
+
+    @Test
+    void testShortWordsMatchWordStartsOnly() {
+        assertEquals(List.of(2L, 3L, 1L), searchIndex.search("pe", 0, 10).itemIds());
+        assertEquals(List.of(1L), searchIndex.search("b pen", 0, 10).itemIds());
+    }
+
+    @Test
+    void testAllWordsMustMatch() {
+        assertEquals(List.of(3L), searchIndex.search("case PENC", 0, 10).itemIds());
+        assertEquals(0, searchIndex.search("pen xyz", 0, 10).total());
+        // "eno" only occurs across the word boundary in "open notebook"
+        assertEquals(0, searchIndex.search("penote", 0, 10).total());
+    }
+
+    @Test
+    void testAccentsAndPunctuationAreIgnored() {
+        assertEquals(List.of(5L), searchIndex.search("creme-brulee", 0, 10).itemIds());
+    }
+
+    @Test
+    void testPaging() {
+        ItemSearchIndex.SearchResult second = searchIndex.search("pen", 2, 2);
+
+        assertEquals(4, second.total());
+        assertEquals(List.of(1L, 4L), second.itemIds());
+        assertTrue(searchIndex.search("pen", 10, 2).itemIds().isEmpty());
+    }
+
+    @Test
+    void testPutRenamesAndRemoveDrops() {
+        searchIndex.put(2L, "Marker");
+        searchIndex.put(6L, "Penguin Mug");
+        searchIndex.remove(3L);
+
+        assertEquals(List.of(6L, 1L, 4L), searchIndex.search("pen", 0, 10).itemIds());
+        assertEquals(List.of(2L), searchIndex.search("mark", 0, 10).itemIds());
+        assertEquals(5, searchIndex.size());
+    }
+
+    @Test
+    void testBlankQuery() {
+        assertEquals(0, searchIndex.search(" -- ", 0, 10).total());
+    }
+}
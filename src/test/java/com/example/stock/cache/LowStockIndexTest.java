@@ -0,0 +1,109 @@
+package com.example.stock.cache;
+
+import com.example.stock.dto.LowStockItem;
+import com.example.stock.event.LowStockEvent;
+import com.example.stock.metrics.StockMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class LowStockIndexTest {
+
+    private EmbeddedDatabase database;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private LowStockIndex lowStockIndex;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE item (id BIGINT PRIMARY KEY, stock INT, reorder_point INT)");
+        jdbcTemplate.update("INSERT INTO item VALUES (1, 50, 10), (2, 5, NULL), (3, 20, NULL), (4, 5, 8)");
+
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        lowStockIndex = new LowStockIndex();
+        ReflectionTestUtils.setField(lowStockIndex, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(lowStockIndex, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(lowStockIndex, "stockMetrics", mock(StockMetrics.class));
+        lowStockIndex.seed();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testSeedOrdersByStockThenId() {
+        List<LowStockItem> lowest = lowStockIndex.lowest(null, 3);
+
+        assertEquals(4, lowStockIndex.size());
+        assertEquals(List.of(2L, 4L, 3L), lowest.stream().map(LowStockItem::getItemId).toList());
+        assertEquals(8, lowest.get(1).getReorderPoint());
+        // Already below its reorder point at startup, not a crossing
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testThresholdStopsAtFirstItemAtOrAbove() {
+        List<LowStockItem> lowest = lowStockIndex.lowest(20, 100);
+
+        assertEquals(List.of(2L, 4L), lowest.stream().map(LowStockItem::getItemId).toList());
+    }
+
+    @Test
+    void testUpdateMovesItem() {
+        lowStockIndex.update(1L, 1, 10);
+        lowStockIndex.update(2L, 100, null);
+
+        List<LowStockItem> lowest = lowStockIndex.lowest(null, 10);
+
+        assertEquals(List.of(1L, 4L, 3L, 2L), lowest.stream().map(LowStockItem::getItemId).toList());
+        assertEquals(1, lowest.get(0).getStock());
+    }
+
+    @Test
+    void testFallingBelowReorderPointPublishesOnce() {
+        lowStockIndex.update(1L, 9, 10);
+        lowStockIndex.update(1L, 3, 10);
+
+        verify(eventPublisher).publishEvent(new LowStockEvent(1L, 9, 10));
+        verify(eventPublisher, never()).publishEvent(new LowStockEvent(1L, 3, 10));
+    }
+
+    @Test
+    void testRestockAboveReorderPointRearms() {
+        lowStockIndex.update(4L, 8, 8);
+        lowStockIndex.update(4L, 7, 8);
+
+        verify(eventPublisher).publishEvent(new LowStockEvent(4L, 7, 8));
+    }
+
+    @Test
+    void testRemove() {
+        lowStockIndex.remove(2L);
+
+        assertEquals(3, lowStockIndex.size());
+        assertTrue(lowStockIndex.lowest(null, 10).stream().noneMatch(item -> item.getItemId() == 2L));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.stock.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderNoIndexTest {
+
+    private EmbeddedDatabase database;
+
+    private OrderNoIndex orderNoIndex;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:export-test-schema.sql")
+                .build();
+        orderNoIndex = new OrderNoIndex();
+        ReflectionTestUtils.setField(orderNoIndex, "jdbcTemplate", new JdbcTemplate(database));
+        ReflectionTestUtils.setField(orderNoIndex, "maxEntries", 2L);
+        orderNoIndex.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testSeedLoadsNewestOrderNumbers() {
+        orderNoIndex.seed();
+
+        assertTrue(orderNoIndex.contains("ORD-003"));
+        assertTrue(orderNoIndex.contains("ORD-002"));
+        assertFalse(orderNoIndex.contains("ORD-001"));
+    }
+
+    @Test
+    void testSeedFailureLeavesIndexUsable() {
+        new JdbcTemplate(database).execute("DROP TABLE orders");
+
+        orderNoIndex.seed();
+        orderNoIndex.add("ORD-100");
+
+        assertTrue(orderNoIndex.contains("ORD-100"));
+    }
+
+    @Test
+    void testAddAndRemove() {
+        orderNoIndex.add("ORD-100");
+        assertTrue(orderNoIndex.contains("ORD-100"));
+
+        orderNoIndex.remove("ORD-100");
+        assertFalse(orderNoIndex.contains("ORD-100"));
+        assertFalse(orderNoIndex.contains(null));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.stock.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Test
+    void testRejectsCheckoutBeyondLimitUntilAConnectionIsClosed() throws Exception {
+        when(target.getConnection()).thenReturn(connection);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 10);
+
+        Connection first = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        first.close(); // a second close must not hand out an extra permit
+        assertEquals(1, dataSource.availablePermits());
+        assertNotNull(dataSource.getConnection());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void testPermitReturnedWhenPoolFails() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 10);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    void testProxyKeepsIdentityEquality() throws Exception {
+        when(target.getConnection()).thenReturn(connection);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 2, 10);
+
+        Connection proxy = dataSource.getConnection();
+
+        assertEquals(proxy, proxy);
+        assertNotEquals(proxy, dataSource.getConnection());
+        assertSame(connection, proxy.unwrap(Connection.class));
+    }
+}
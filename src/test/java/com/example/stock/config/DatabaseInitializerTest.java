@@ -0,0 +1,96 @@
+package com.example.stock.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseInitializerTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private DatabaseInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:init-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        initializer = new DatabaseInitializer();
+        ReflectionTestUtils.setField(initializer, "dataSource", dataSource);
+        ReflectionTestUtils.setField(initializer, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void testOriginalSchemaIsMigrated() throws Exception {
+        // The three tables of the first db-init.sql, with data
+        jdbcTemplate.execute("CREATE TABLE item (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) NOT NULL,"
+                + " price DOUBLE NOT NULL, stock INT NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT AUTO_INCREMENT PRIMARY KEY, order_no VARCHAR(50) NOT NULL,"
+                + " item_id BIGINT NOT NULL, qty INT NOT NULL, price DOUBLE NOT NULL,"
+                + " created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE inventory (id BIGINT AUTO_INCREMENT PRIMARY KEY, item_id BIGINT NOT NULL,"
+                + " qty INT NOT NULL, type VARCHAR(10) NOT NULL, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO item (name, price, stock) VALUES ('Pen', 5, 10)");
+
+        initializer.run();
+
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM item", Long.class));
+        assertNull(jdbcTemplate.queryForObject("SELECT reorder_point FROM item", Integer.class));
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT stock FROM item", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(lease_id) FROM orders", Integer.class));
+        for (String table : new String[]{"daily_item_sales", "reservation", "stock_lease", "ledger_archive",
+                "ledger_archive_balance", "stock_journal_checkpoint", "id_generator"}) {
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class), table);
+        }
+
+        assertEquals(migrationCount(), jdbcTemplate.queryForObject("SELECT version FROM schema_version", Integer.class));
+
+        // Nothing left to apply on the next start
+        assertDoesNotThrow(() -> initializer.run());
+    }
+
+    @Test
+    void testCurrentSchemaVersionSkipsEverything() throws Exception {
+        jdbcTemplate.execute("CREATE TABLE schema_version (version INT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO schema_version (version) VALUES (?)", migrationCount());
+
+        initializer.run();
+
+        // Neither db-init.sql nor any migration ran
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'item'", Integer.class));
+    }
+
+    @Test
+    void testMigrationsResumeFromRecordedVersion() throws Exception {
+        jdbcTemplate.execute("CREATE TABLE item (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) NOT NULL,"
+                + " price DOUBLE NOT NULL, stock INT NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE schema_version (version INT NOT NULL)");
+        // Only the last migration is pending
+        jdbcTemplate.update("INSERT INTO schema_version (version) VALUES (?)", migrationCount() - 1);
+
+        initializer.run();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM id_generator", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'reservation'", Integer.class));
+        assertEquals(migrationCount(), jdbcTemplate.queryForObject("SELECT version FROM schema_version", Integer.class));
+    }
+
+    private static int migrationCount() {
+        return ((List<?>) ReflectionTestUtils.getField(DatabaseInitializer.class, "MIGRATIONS")).size();
+    }
+}
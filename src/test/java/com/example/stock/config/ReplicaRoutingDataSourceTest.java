@@ -0,0 +1,152 @@
+package com.example.stock.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two H2 databases stand in for the primary and the replica; each item table names its database
+class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primaryDatabase;
+
+    private EmbeddedDatabase replicaDatabase;
+
+    private volatile boolean replicaDown;
+
+    private ReplicaLagMonitor lagMonitor;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnlyTemplate;
+
+    private TransactionTemplate readWriteTemplate;
+
+    @BeforeEach
+    void setUp() {
+        primaryDatabase = database("Primary");
+        replicaDatabase = database("Replica");
+        new JdbcTemplate(replicaDatabase).execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat BIGINT NOT NULL)");
+        replicateHeartbeat(System.currentTimeMillis());
+
+        DelegatingDataSource replica = new DelegatingDataSource(replicaDatabase) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (replicaDown) {
+                    throw new SQLTransientConnectionException("replica unreachable");
+                }
+                return super.getConnection();
+            }
+        };
+        lagMonitor = new ReplicaLagMonitor(new JdbcTemplate(primaryDatabase), new JdbcTemplate(replica), 3000, 1000);
+        lagMonitor.check();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDatabase, replica, lagMonitor));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+        readWriteTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryDatabase.shutdown();
+        replicaDatabase.shutdown();
+    }
+
+    @Test
+    void testPreferredReadOnlyTransactionReadsReplica() {
+        assertTrue(lagMonitor.isReplicaUsable());
+        assertEquals("Replica", readOnlyTemplate.execute(status -> {
+            ReplicaRoutingDataSource.preferReplica();
+            return readName();
+        }));
+    }
+
+    @Test
+    void testOtherTransactionsStayOnPrimary() {
+        readOnlyTemplate.execute(status -> {
+            ReplicaRoutingDataSource.preferReplica();
+            return readName();
+        });
+
+        // Not carried over from the previous transaction
+        assertEquals("Primary", readOnlyTemplate.execute(status -> readName()));
+        assertEquals("Primary", readWriteTemplate.execute(status -> {
+            ReplicaRoutingDataSource.preferReplica();
+            return readName();
+        }));
+        assertEquals("Primary", readName());
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() {
+        replicateHeartbeat(System.currentTimeMillis() - 10_000);
+        lagMonitor.check();
+
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertTrue(lagMonitor.lagMillis() >= 10_000);
+        assertEquals("Primary", readOnlyTemplate.execute(status -> {
+            ReplicaRoutingDataSource.preferReplica();
+            return readName();
+        }));
+    }
+
+    @Test
+    void testUnreachableReplicaFallsBackToPrimary() {
+        replicaDown = true;
+
+        assertEquals("Primary", readOnlyTemplate.execute(status -> {
+            ReplicaRoutingDataSource.preferReplica();
+            return readName();
+        }));
+        assertFalse(lagMonitor.isReplicaUsable());
+    }
+
+    @Test
+    void testHeartbeatIsWrittenToPrimary() {
+        Long beat = new JdbcTemplate(primaryDatabase).queryForObject(
+                "SELECT beat FROM replica_heartbeat WHERE id = 1", Long.class);
+
+        assertTrue(beat > 0);
+    }
+
+    private String readName() {
+        return jdbcTemplate.queryForObject("SELECT name FROM item WHERE id = 1", String.class);
+    }
+
+    private void replicateHeartbeat(long beat) {
+        JdbcTemplate replica = new JdbcTemplate(replicaDatabase);
+        if (replica.update("UPDATE replica_heartbeat SET beat = ? WHERE id = 1", beat) == 0) {
+            replica.update("INSERT INTO replica_heartbeat VALUES (1, ?)", beat);
+        }
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE item (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO item VALUES (1, ?)", name);
+        return database;
+    }
+}
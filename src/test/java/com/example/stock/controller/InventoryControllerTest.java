@@ -1,5 +1,6 @@
 package com.example.stock.controller;
 
+import com.example.stock.dto.ExportFormat;
 import com.example.stock.model.Inventory;
 import com.example.stock.service.StockService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,11 +14,17 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -57,6 +64,34 @@ class InventoryControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(1));
     }
 
+    @Test
+    void testExportInventory() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(4).write("id,item_id\n1,1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(stockService).exportInventory(eq(ExportFormat.CSV), eq(from), isNull(), isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/inventory/export")
+                        .param("format", "csv")
+                        .param("from", "2025-01-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"inventory.csv\""))
+                .andExpect(content().string("id,item_id\n1,1\n"));
+    }
+
+    @Test
+    void testExportInventoryRejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/inventory/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown format: xml"));
+    }
+
     @Test
     void testAddInventory() throws Exception {
         when(stockService.addInventory(any(Inventory.class))).thenReturn(sampleInventory);
@@ -1,5 +1,10 @@
 package com.example.stock.controller;
 
+import com.example.stock.dto.ExportFormat;
+import com.example.stock.dto.ImportReport;
+import com.example.stock.dto.LowStockItem;
+import com.example.stock.dto.ReconciliationReport;
+import com.example.stock.exception.StockRepairUnavailableException;
 import com.example.stock.model.Item;
 import com.example.stock.service.StockService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -10,13 +15,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -48,6 +61,99 @@ class ItemControllerTest {
         sampleItem.setStock(100);
     }
 
+    @Test
+    void testReconcileStock() throws Exception {
+        ReconciliationReport report = new ReconciliationReport(3, 2, true, 1, 5,
+                List.of(new ReconciliationReport.Mismatch(2L, 7, 4)));
+        when(stockService.reconcileStock(true)).thenReturn(report);
+
+        mockMvc.perform(post("/api/items/reconcile").param("repair", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.repaired").value(1))
+                .andExpect(jsonPath("$.mismatches[0].itemId").value(2))
+                .andExpect(jsonPath("$.mismatches[0].expected").value(4));
+    }
+
+    @Test
+    void testReconcileStockRepairUnavailable() throws Exception {
+        when(stockService.reconcileStock(true))
+                .thenThrow(new StockRepairUnavailableException("Stock repair is not available"));
+
+        mockMvc.perform(post("/api/items/reconcile").param("repair", "true"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testImportItems() throws Exception {
+        ImportReport report = new ImportReport();
+        report.setRows(2);
+        report.setInserted(2);
+        when(stockService.importItems(eq(ExportFormat.CSV), any(InputStream.class))).thenReturn(report);
+        MockMultipartFile file = new MockMultipartFile("file", "items.csv", "text/csv",
+                "name,price\nPen,5\nBook,10\n".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/items/import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(2));
+    }
+
+    @Test
+    void testImportItemsRejectsUnknownFormat() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "items.xml", "text/xml", new byte[0]);
+
+        mockMvc.perform(multipart("/api/items/import").file(file).param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetCacheStats() throws Exception {
+        when(stockService.getItemCacheStats()).thenReturn(Map.of("items", Map.of("hitCount", 42)));
+
+        mockMvc.perform(get("/api/items/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.hitCount").value(42));
+    }
+
+    @Test
+    void testSearchItems() throws Exception {
+        when(stockService.searchItems("test", PageRequest.of(1, 100)))
+                .thenReturn(new PageImpl<>(List.of(sampleItem), PageRequest.of(1, 100), 101));
+
+        mockMvc.perform(get("/api/items/search")
+                .param("q", "test")
+                .param("page", "1")
+                .param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Test Item"))
+                .andExpect(jsonPath("$.totalElements").value(101));
+    }
+
+    @Test
+    void testGetLowStockItems() throws Exception {
+        when(stockService.getLowStockItems(5, 1000)).thenReturn(List.of(new LowStockItem(3L, 2, 10)));
+
+        mockMvc.perform(get("/api/items/low-stock")
+                .param("threshold", "5")
+                .param("limit", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemId").value(3))
+                .andExpect(jsonPath("$[0].stock").value(2))
+                .andExpect(jsonPath("$[0].reorderPoint").value(10));
+    }
+
+    @Test
+    void testStreamStockChanges() throws Exception {
+        when(stockService.streamStockChanges(Set.of(1L, 2L), "42")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/items/stream")
+                .param("itemIds", "1,2")
+                .header("Last-Event-ID", "42")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(stockService).streamStockChanges(Set.of(1L, 2L), "42");
+    }
+
     @Test
     void testGetAllItems() throws Exception {
         Page<Item> itemPage = new PageImpl<>(Collections.singletonList(sampleItem));
@@ -1,5 +1,9 @@
 package com.example.stock.controller;
 
+import com.example.stock.dto.BatchOrderResult;
+import com.example.stock.dto.ExportFormat;
+import com.example.stock.dto.KeysetCursor;
+import com.example.stock.exception.InsufficientStockException;
 import com.example.stock.model.Order;
 import com.example.stock.service.StockService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -10,14 +14,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -58,6 +72,58 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(1));
     }
 
+    @Test
+    void testSeekOrders() throws Exception {
+        sampleOrder.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        when(stockService.getOrdersAfter(isNull(), eq(1)))
+                .thenReturn(new SliceImpl<>(List.of(sampleOrder), PageRequest.of(0, 1), true));
+
+        String expectedCursor = new KeysetCursor(sampleOrder.getCreatedAt(), 1L).encode();
+        mockMvc.perform(get("/api/orders/seek").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].orderNo").value("ORD-001"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(expectedCursor));
+
+        KeysetCursor cursor = KeysetCursor.decode(expectedCursor);
+        when(stockService.getOrdersAfter(eq(cursor), eq(1)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 1), false));
+
+        mockMvc.perform(get("/api/orders/seek").param("cursor", expectedCursor).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testSeekOrdersRejectsInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/orders/seek").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportOrders() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(4).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(stockService).exportOrders(eq(ExportFormat.NDJSON), isNull(), isNull(), eq(1L), any());
+
+        MvcResult result = mockMvc.perform(get("/api/orders/export").param("itemId", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void testExportOrdersRejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/orders/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testPlaceOrder() throws Exception {
         when(stockService.placeOrder(any(Order.class))).thenReturn(sampleOrder);
@@ -69,6 +135,22 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.orderNo").value("ORD-001"));
     }
 
+    @Test
+    void testPlaceOrders() throws Exception {
+        when(stockService.placeOrders(anyList())).thenReturn(List.of(
+                BatchOrderResult.success(sampleOrder),
+                BatchOrderResult.failure("ORD-002",
+                        new InsufficientStockException("Insufficient stock. Current: 0, Requested: 5"))));
+
+        mockMvc.perform(post("/api/orders/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(sampleOrder, sampleOrder))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("SUCCESS"))
+                .andExpect(jsonPath("$[0].order.orderNo").value("ORD-001"))
+                .andExpect(jsonPath("$[1].status").value("FAILED"));
+    }
+
     @Test
     void testUpdateOrder() throws Exception {
         when(stockService.updateOrder(eq(1L), any(Order.class))).thenReturn(sampleOrder);
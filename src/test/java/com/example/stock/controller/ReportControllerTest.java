@@ -0,0 +1,67 @@
+package com.example.stock.controller;
+
+import com.example.stock.dto.DailyItemSales;
+import com.example.stock.service.StockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReportController.class)
+class ReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StockService stockService;
+
+    @Test
+    void testGetDailySales() throws Exception {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        when(stockService.getDailySales(day, day.plusDays(6), 1L))
+                .thenReturn(List.of(new DailyItemSales(1L, day, 7, 35.0)));
+
+        mockMvc.perform(get("/api/reports/daily-sales")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-07")
+                        .param("itemId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemId").value(1))
+                .andExpect(jsonPath("$[0].date").value("2024-01-01"))
+                .andExpect(jsonPath("$[0].units").value(7))
+                .andExpect(jsonPath("$[0].revenue").value(35.0));
+    }
+
+    @Test
+    void testGetDailySalesRejectsReversedRange() throws Exception {
+        mockMvc.perform(get("/api/reports/daily-sales")
+                        .param("from", "2024-01-07")
+                        .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verify(stockService, never()).getDailySales(any(), any(), any());
+    }
+
+    @Test
+    void testBackfillDailySales() throws Exception {
+        when(stockService.backfillDailySales(null, null)).thenReturn(Map.of("days", 3, "rows", 5));
+
+        mockMvc.perform(post("/api/reports/daily-sales/backfill"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days").value(3))
+                .andExpect(jsonPath("$.rows").value(5));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.stock.controller;
+
+import com.example.stock.dto.ReservationConfirmation;
+import com.example.stock.dto.ReservationRequest;
+import com.example.stock.exception.ReservationNotActiveException;
+import com.example.stock.model.Order;
+import com.example.stock.model.Reservation;
+import com.example.stock.service.StockService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReservationController.class)
+class ReservationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StockService stockService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Reservation sampleReservation;
+
+    @BeforeEach
+    void setUp() {
+        sampleReservation = new Reservation(7L, 1L, 3, Reservation.HELD, null,
+                LocalDateTime.of(2024, 1, 1, 12, 15), null);
+    }
+
+    @Test
+    void testHoldStock() throws Exception {
+        ReservationRequest request = new ReservationRequest(1L, 3, 900L);
+        when(stockService.holdStock(eq(request))).thenReturn(sampleReservation);
+
+        mockMvc.perform(post("/api/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.status").value("HELD"));
+    }
+
+    @Test
+    void testGetReservation_NotFound() throws Exception {
+        when(stockService.getReservation(99L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/reservations/{id}", 99L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testConfirmReservation() throws Exception {
+        ReservationConfirmation confirmation = new ReservationConfirmation("ORD-001", 5.0);
+        when(stockService.confirmReservation(eq(7L), eq(confirmation)))
+                .thenReturn(new Order(1L, "ORD-001", 1L, 3, 5.0, null, null));
+
+        mockMvc.perform(post("/api/reservations/{id}/confirm", 7L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(confirmation)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderNo").value("ORD-001"))
+                .andExpect(jsonPath("$.qty").value(3));
+    }
+
+    @Test
+    void testConfirmExpiredReservation() throws Exception {
+        ReservationConfirmation confirmation = new ReservationConfirmation("ORD-001", 5.0);
+        when(stockService.confirmReservation(eq(7L), eq(confirmation)))
+                .thenThrow(new ReservationNotActiveException("Reservation 7 is expired"));
+
+        mockMvc.perform(post("/api/reservations/{id}/confirm", 7L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(confirmation)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Reservation 7 is expired"));
+    }
+
+    @Test
+    void testCancelReservation() throws Exception {
+        sampleReservation.setStatus(Reservation.CANCELLED);
+        when(stockService.cancelReservation(7L)).thenReturn(sampleReservation);
+
+        mockMvc.perform(post("/api/reservations/{id}/cancel", 7L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+}
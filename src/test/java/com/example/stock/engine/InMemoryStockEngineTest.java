@@ -0,0 +1,203 @@
+package com.example.stock.engine;
+
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.exception.StockEngineOverloadedException;
+import com.example.stock.feed.StockChangeFeed;
+import com.example.stock.model.Item;
+import com.example.stock.model.Order;
+import com.example.stock.repository.InventoryRepository;
+import com.example.stock.repository.ItemRepository;
+import com.example.stock.repository.OrderRepository;
+import com.example.stock.service.SalesRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryStockEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private StockChangeFeed stockChangeFeed;
+
+    @InjectMocks
+    private InMemoryStockEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Test Item");
+        item.setPrice(10.0);
+        item.setStock(100);
+        lenient().when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        lenient().when(itemRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Flush only on stop(), so tests see the queue as they left it
+        ReflectionTestUtils.setField(engine, "flushIntervalMs", 3_600_000L);
+        engine.init();
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void testDecrement_LoadsLazilyAndReserves() {
+        engine.decrement(1L, 30);
+        engine.decrement(1L, 20);
+
+        assertEquals(50, engine.currentStock(1L));
+        verify(itemRepository, times(1)).findById(1L);
+        verify(stockChangeFeed, times(2)).markChanged(1L);
+    }
+
+    @Test
+    void testDecrement_InsufficientStock() {
+        assertThrows(InsufficientStockException.class, () -> engine.decrement(1L, 101));
+        assertEquals(100, engine.currentStock(1L));
+        verify(stockChangeFeed, never()).markChanged(any());
+    }
+
+    @Test
+    void testDecrement_ItemNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> engine.decrement(99L, 1));
+    }
+
+    @Test
+    void testPlaceOrder_FlushedOnStop() {
+        Order order = new Order();
+        order.setOrderNo("ORD-001");
+        order.setItemId(1L);
+        order.setQty(10);
+        order.setPrice(100.0);
+
+        engine.placeOrder(order);
+        assertEquals(90, engine.currentStock(1L));
+
+        engine.stop();
+
+        verify(orderRepository).saveAll(List.of(order));
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testPlaceOrder_RejectedUntilStarted() {
+        InMemoryStockEngine starting = new InMemoryStockEngine();
+        ReflectionTestUtils.setField(starting, "itemRepository", itemRepository);
+        starting.init();
+
+        assertThrows(StockEngineOverloadedException.class,
+                () -> starting.placeOrder(new Order(null, "ORD-EARLY", 1L, 1, 10.0, null, null)));
+        verify(itemRepository, never()).findById(any());
+    }
+
+    @Test
+    void testQueuedOrderIsLeftOutOfPersistedStockUntilFlushed() {
+        Order order = new Order();
+        order.setOrderNo("ORD-002");
+        order.setItemId(1L);
+        order.setQty(10);
+        order.setPrice(100.0);
+
+        engine.placeOrder(order);
+
+        assertEquals(90, engine.currentStock(1L));
+        // A flush that does not write the order keeps item.stock in line with the ledger
+        assertEquals(100, engine.stockToPersist(1L, 0));
+        assertEquals(90, engine.stockToPersist(1L, -10));
+
+        engine.flushed(1L, -10);
+        assertEquals(90, engine.stockToPersist(1L, 0));
+    }
+
+    @Test
+    void testJournaledOrderIsReplayedAfterCrash(@TempDir Path journalDir) {
+        InMemoryStockEngine crashed = journaledEngine(journalDir);
+        Order order = new Order(null, "ORD-J", 1L, 10, 100.0, null, null);
+        crashed.placeOrder(order);
+        assertEquals(90, crashed.currentStock(1L));
+        verify(orderRepository, never()).saveAll(any());
+
+        // Restart without the first engine ever flushing
+        InMemoryStockEngine restarted = journaledEngine(journalDir);
+        try {
+            assertEquals(90, restarted.currentStock(1L));
+            verify(orderRepository).saveAll(argThat((List<Order> orders) ->
+                    orders.size() == 1 && "ORD-J".equals(orders.get(0).getOrderNo())));
+            verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> args) ->
+                    args.size() == 1 && Integer.valueOf(90).equals(args.get(0)[0])));
+            verify(jdbcTemplate).update(contains("UPDATE stock_journal_checkpoint"), eq(1L), eq("engine"), eq(1L));
+        } finally {
+            restarted.stop();
+            crashed.stop();
+        }
+    }
+
+    private InMemoryStockEngine journaledEngine(Path journalDir) {
+        InMemoryStockEngine journaled = new InMemoryStockEngine();
+        ReflectionTestUtils.setField(journaled, "itemRepository", itemRepository);
+        ReflectionTestUtils.setField(journaled, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(journaled, "inventoryRepository", inventoryRepository);
+        ReflectionTestUtils.setField(journaled, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(journaled, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(journaled, "salesRollupService", salesRollupService);
+        ReflectionTestUtils.setField(journaled, "stockChangeFeed", stockChangeFeed);
+        ReflectionTestUtils.setField(journaled, "journalEnabled", true);
+        ReflectionTestUtils.setField(journaled, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(journaled, "segmentSizeMb", 1);
+        // Nothing is flushed until stop()
+        ReflectionTestUtils.setField(journaled, "flushIntervalMs", 3_600_000L);
+        journaled.init();
+        journaled.start();
+        return journaled;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.stock.engine;
+
+import com.example.stock.StockServiceApplication;
+import com.example.stock.model.Inventory;
+import com.example.stock.model.Order;
+import com.example.stock.service.StockService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The journal is opened against a database that only DatabaseInitializer creates, as in production
+class JournalStartupTest {
+
+    @Test
+    void testStartsWithJournalOnEmptyDatabase(@TempDir Path journalDir) {
+        String url = "jdbc:h2:mem:journal-startup-" + UUID.randomUUID()
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE";
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        try {
+            try (ConfigurableApplicationContext context = start(url, journalDir)) {
+                assertEquals(0L, jdbcTemplate.queryForObject(
+                        "SELECT applied_seq FROM stock_journal_checkpoint WHERE name = 'engine'", Long.class));
+                StockService stockService = context.getBean(StockService.class);
+                stockService.addInventory(new Inventory(null, 1L, 5, "T", null));
+                stockService.placeOrder(new Order(null, "JOURNAL-START-1", 1L, 2, 5.0, null, null));
+            }
+            assertEquals(3, stockOf(jdbcTemplate, 1L));
+
+            // Restart on the now initialized database: nothing is replayed twice
+            try (ConfigurableApplicationContext context = start(url, journalDir)) {
+                assertEquals(3, context.getBean(InMemoryStockEngine.class).currentStock(1L));
+            }
+            assertEquals(3, stockOf(jdbcTemplate, 1L));
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM orders WHERE order_no = 'JOURNAL-START-1'", Integer.class));
+        } finally {
+            jdbcTemplate.execute("SHUTDOWN");
+        }
+    }
+
+    // No test profile: Hibernate must not create the tables before DatabaseInitializer runs
+    private static ConfigurableApplicationContext start(String url, Path journalDir) {
+        return new SpringApplicationBuilder(StockServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        "--spring.jpa.show-sql=false",
+                        "--stock.engine.mode=memory",
+                        "--stock.engine.journal.enabled=true",
+                        "--stock.engine.journal.dir=" + journalDir,
+                        "--stock.engine.journal.segment-size-mb=1");
+    }
+
+    private static int stockOf(JdbcTemplate jdbcTemplate, Long itemId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM item WHERE id = ?", Integer.class, itemId);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.stock.engine;
+
+import com.example.stock.exception.StockEngineOverloadedException;
+import com.example.stock.model.Inventory;
+import com.example.stock.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecordsAreReadBackAfterReopen() {
+        try (StockJournal journal = StockJournal.open(dir, 4096)) {
+            journal.awaitDurable(journal.append(order("ORD-001", 3), seq -> { }), 1000);
+            journal.awaitDurable(journal.append(new Inventory(null, 2L, 7, "W", null), seq -> { }), 1000);
+        }
+
+        try (StockJournal journal = StockJournal.open(dir, 4096)) {
+            List<StockJournal.Entry> entries = journal.recovered();
+
+            assertEquals(2, entries.size());
+            assertEquals(1, entries.get(0).seq());
+            Order order = (Order) entries.get(0).entity();
+            assertEquals("ORD-001", order.getOrderNo());
+            assertEquals(3, order.getQty());
+            assertEquals(9.5, order.getPrice());
+            Inventory inventory = (Inventory) entries.get(1).entity();
+            assertEquals(2L, inventory.getItemId());
+            assertEquals("W", inventory.getType());
+            // Numbering continues after the recovered records
+            assertEquals(3, journal.append(order("ORD-002", 1), seq -> { }));
+        }
+    }
+
+    @Test
+    void testCallbackSeesRecordsInSequenceOrder() {
+        List<Long> queued = new ArrayList<>();
+        try (StockJournal journal = StockJournal.open(dir, 256)) {
+            for (int i = 0; i < 20; i++) {
+                journal.append(order("ORD-" + i, 1), queued::add);
+            }
+        }
+
+        assertEquals(20, queued.size());
+        for (int i = 0; i < queued.size(); i++) {
+            assertEquals(i + 1, queued.get(i));
+        }
+    }
+
+    @Test
+    void testRejectedAppendIsErased() {
+        try (StockJournal journal = StockJournal.open(dir, 4096)) {
+            journal.append(order("ORD-001", 1), seq -> { });
+            assertThrows(StockEngineOverloadedException.class, () -> journal.append(order("ORD-002", 1), seq -> {
+                throw new StockEngineOverloadedException("Write-behind queue is full, try again later");
+            }));
+        }
+
+        try (StockJournal journal = StockJournal.open(dir, 4096)) {
+            assertEquals(1, journal.recovered().size());
+            assertEquals(2, journal.append(order("ORD-003", 1), seq -> { }));
+        }
+    }
+
+    @Test
+    void testTornRecordIsIgnored() throws Exception {
+        try (StockJournal journal = StockJournal.open(dir, 4096)) {
+            journal.append(order("ORD-001", 1), seq -> { });
+            journal.append(order("ORD-002", 1), seq -> { });
+        }
+        // Corrupt the last byte of the second record, as if the crash hit mid-write
+        Path segment = segments().get(0);
+        int second = 8 + StockJournal.encode(1, order("ORD-001", 1)).length;
+        int end = second + 8 + StockJournal.encode(2, order("ORD-002", 1)).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), end - 1);
+        }
+
+        try (StockJournal journal = StockJournal.open(dir, 4096)) {
+            assertEquals(1, journal.recovered().size());
+            assertEquals(2, journal.append(order("ORD-003", 1), seq -> { }));
+        }
+        try (StockJournal journal = StockJournal.open(dir, 4096)) {
+            assertEquals("ORD-003", ((Order) journal.recovered().get(1).entity()).getOrderNo());
+        }
+    }
+
+    @Test
+    void testAppliedSegmentsAreDeleted() throws Exception {
+        try (StockJournal journal = StockJournal.open(dir, 256)) {
+            for (int i = 0; i < 20; i++) {
+                journal.append(order("ORD-" + i, 1), seq -> { });
+            }
+            int before = segments().size();
+            assertTrue(before > 2);
+
+            journal.truncate(journal.lastSeq());
+
+            // Only the segment still being written remains
+            assertEquals(1, segments().size());
+        }
+    }
+
+    @Test
+    void testClosedJournalRejectsAppends() {
+        StockJournal journal = StockJournal.open(dir, 4096);
+        journal.awaitDurable(journal.append(order("ORD-001", 1), seq -> { }), 1000);
+
+        journal.close();
+
+        // Its segments are unmapped, so nothing may write to them any more
+        assertThrows(StockEngineOverloadedException.class, () -> journal.append(order("ORD-002", 1), seq -> { }));
+    }
+
+    @Test
+    void testNumberingContinuesAfterCheckpoint() {
+        try (StockJournal journal = StockJournal.open(dir, 4096)) {
+            journal.startAfter(41);
+
+            long seq = journal.append(order("ORD-001", 1), s -> { });
+            journal.awaitDurable(seq, 1000);
+
+            assertEquals(42, seq);
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static Order order(String orderNo, int qty) {
+        return new Order(null, orderNo, 1L, qty, 9.5, null, null);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.stock.feed;
+
+import com.example.stock.cache.LowStockIndex;
+import com.example.stock.engine.InMemoryStockEngine;
+import com.example.stock.event.StockChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockChangeFeedTest {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ObjectProvider<InMemoryStockEngine> engineProvider;
+
+    private LowStockIndex lowStockIndex;
+
+    private StockChangeFeed feed;
+
+    /** Keeps what would have been written to the client. */
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<String> events = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE item (id BIGINT PRIMARY KEY, stock INT, reorder_point INT)");
+        jdbcTemplate.update("INSERT INTO item VALUES (1, 10, NULL), (2, 20, 25), (3, 30, NULL)");
+
+        engineProvider = mock(ObjectProvider.class);
+        feed = new StockChangeFeed() {
+            @Override
+            SseEmitter createEmitter(long timeout) {
+                return new RecordingEmitter();
+            }
+        };
+        ReflectionTestUtils.setField(feed, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(feed, "stockEngine", engineProvider);
+        lowStockIndex = mock(LowStockIndex.class);
+        ReflectionTestUtils.setField(feed, "lowStockIndex", lowStockIndex);
+        // Send on the dispatching thread
+        feed.senders = Runnable::run;
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testDispatchSendsLatestStockOncePerItem() {
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(null, null);
+
+        feed.onStockChanged(new StockChangedEvent(1L));
+        jdbcTemplate.update("UPDATE item SET stock = 9 WHERE id = 1");
+        feed.onStockChanged(new StockChangedEvent(1L));
+        feed.onStockChanged(new StockChangedEvent(2L));
+        feed.dispatch();
+
+        assertEquals(2, emitter.events.size());
+        assertTrue(emitter.events.stream().anyMatch(e -> e.contains("event:stock")
+                && e.contains("StockLevel[itemId=1, stock=9]")));
+        assertTrue(emitter.events.stream().anyMatch(e -> e.contains("StockLevel[itemId=2, stock=20]")));
+    }
+
+    @Test
+    void testSubscriberOnlyGetsRequestedItems() {
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(Set.of(2L), null);
+
+        feed.markChanged(1L);
+        feed.markChanged(2L);
+        feed.dispatch();
+
+        assertEquals(1, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("StockLevel[itemId=2, stock=20]"));
+    }
+
+    @Test
+    void testDeletedItemIsSkipped() {
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(null, null);
+
+        feed.markChanged(99L);
+        feed.dispatch();
+
+        assertTrue(emitter.events.isEmpty());
+    }
+
+    @Test
+    void testLiveStockComesFromEngine() {
+        InMemoryStockEngine engine = mock(InMemoryStockEngine.class);
+        when(engineProvider.getIfAvailable()).thenReturn(engine);
+        when(engine.currentStock(1L)).thenReturn(4);
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(null, null);
+
+        feed.markChanged(1L);
+        feed.dispatch();
+
+        assertTrue(emitter.events.get(0).contains("StockLevel[itemId=1, stock=4]"));
+    }
+
+    @Test
+    void testReconnectReplaysChangesSinceLastEventId() {
+        RecordingEmitter first = (RecordingEmitter) feed.subscribe(null, null);
+        feed.markChanged(1L);
+        feed.dispatch();
+        String lastEventId = eventId(first.events.get(0));
+
+        jdbcTemplate.update("UPDATE item SET stock = 8 WHERE id = 1");
+        feed.markChanged(1L);
+        feed.dispatch();
+        jdbcTemplate.update("UPDATE item SET stock = 7 WHERE id = 1");
+        feed.markChanged(1L);
+        feed.markChanged(3L);
+        feed.dispatch();
+
+        RecordingEmitter resumed = (RecordingEmitter) feed.subscribe(null, lastEventId);
+
+        assertEquals(2, resumed.events.size());
+        assertTrue(resumed.events.stream().anyMatch(e -> e.contains("StockLevel[itemId=1, stock=7]")));
+        assertTrue(resumed.events.stream().anyMatch(e -> e.contains("StockLevel[itemId=3, stock=30]")));
+    }
+
+    @Test
+    void testReconnectIsUpToDate() {
+        RecordingEmitter first = (RecordingEmitter) feed.subscribe(null, null);
+        feed.markChanged(1L);
+        feed.dispatch();
+
+        RecordingEmitter resumed = (RecordingEmitter) feed.subscribe(null, eventId(first.events.get(0)));
+
+        assertTrue(resumed.events.isEmpty());
+    }
+
+    @Test
+    void testReconnectOutsideReplayWindowGetsReset() {
+        RecordingEmitter unknown = (RecordingEmitter) feed.subscribe(null, "12");
+        RecordingEmitter garbage = (RecordingEmitter) feed.subscribe(null, "not-a-number");
+
+        assertEquals(1, unknown.events.size());
+        assertTrue(unknown.events.get(0).contains("event:reset"));
+        assertTrue(garbage.events.get(0).contains("event:reset"));
+    }
+
+    @Test
+    void testChangesWhileDisconnectedAreReplayed() {
+        String lastEventId = String.valueOf(ReflectionTestUtils.getField(feed, "lastId"));
+
+        feed.markChanged(2L);
+        feed.dispatch();
+
+        RecordingEmitter resumed = (RecordingEmitter) feed.subscribe(null, lastEventId);
+        assertTrue(resumed.events.get(0).contains("StockLevel[itemId=2, stock=20]"));
+    }
+
+    @Test
+    void testDispatchKeepsLowStockIndexCurrent() {
+        feed.markChanged(2L);
+        feed.markChanged(99L);
+        feed.dispatch();
+
+        verify(lowStockIndex).update(2L, 20, 25);
+        verify(lowStockIndex).remove(99L);
+    }
+
+    @Test
+    void testSlowSubscriberIsDisconnected() {
+        ReflectionTestUtils.setField(feed, "subscriberBuffer", 1);
+        List<Runnable> stalled = new ArrayList<>();
+        feed.senders = (Executor) stalled::add;
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(null, null);
+
+        feed.markChanged(1L);
+        feed.markChanged(2L);
+        feed.dispatch();
+
+        assertTrue(emitter.completed);
+        assertEquals(0, feed.subscriberCount());
+    }
+
+    private static String eventId(String event) {
+        return event.substring(event.indexOf("id:") + 3, event.indexOf('\n'));
+    }
+}
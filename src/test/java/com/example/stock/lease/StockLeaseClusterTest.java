@@ -0,0 +1,170 @@
+package com.example.stock.lease;
+
+import com.example.stock.StockServiceApplication;
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.model.Inventory;
+import com.example.stock.model.Item;
+import com.example.stock.model.Order;
+import com.example.stock.model.StockLease;
+import com.example.stock.service.StockService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Three instances share one H2 database; node C never renews its leases, like a crashed instance
+class StockLeaseClusterTest {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static ConfigurableApplicationContext nodeC;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private static int orderSeq;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a", 30000, 5000);
+        nodeB = startNode("node-b", 30000, 5000);
+        nodeC = startNode("node-c", 2000, 1000);
+        jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeC.close();
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void testNodesOrderFromSeparateLeases() {
+        Long itemId = createItem(100);
+
+        Order fromA = placeOrder(nodeA, itemId, 3);
+        Order fromB = placeOrder(nodeB, itemId, 2);
+
+        assertNotNull(fromA.getLeaseId());
+        assertNotNull(fromB.getLeaseId());
+        assertNotEquals(fromA.getLeaseId(), fromB.getLeaseId());
+        assertEquals(80, stockOf(itemId));
+        assertEquals(7, manager(nodeA).leasedStock(itemId));
+        assertEquals(8, manager(nodeB).leasedStock(itemId));
+        assertTrue(nodeA.getBean(StockService.class).reconcileStock(false).getMismatches().isEmpty());
+
+        manager(nodeA).returnAll();
+        manager(nodeB).returnAll();
+
+        assertEquals(95, stockOf(itemId));
+        assertEquals(0, manager(nodeA).leasedStock(itemId));
+        assertEquals(StockLease.RETURNED, leaseStatus(fromA.getLeaseId()));
+    }
+
+    @Test
+    void testBlockGrowsWhenUsedUp() {
+        Long itemId = createItem(100);
+
+        placeOrder(nodeA, itemId, 10);
+        placeOrder(nodeA, itemId, 1);
+
+        // The first block of 10 ran out, so the second is twice as large
+        assertEquals(70, stockOf(itemId));
+        assertEquals(19, manager(nodeA).leasedStock(itemId));
+        manager(nodeA).returnAll();
+        assertEquals(89, stockOf(itemId));
+    }
+
+    @Test
+    void testStockLeasedElsewhereIsUnavailableUntilReturned() {
+        Long itemId = createItem(15);
+        placeOrder(nodeA, itemId, 1);
+
+        // Fewer than a block left: node B takes all 5
+        placeOrder(nodeB, itemId, 3);
+        assertEquals(0, stockOf(itemId));
+        assertEquals(2, manager(nodeB).leasedStock(itemId));
+
+        // Node A still holds 9 units
+        assertThrows(InsufficientStockException.class, () -> placeOrder(nodeB, itemId, 8));
+
+        manager(nodeA).returnAll();
+        placeOrder(nodeB, itemId, 8);
+        assertEquals(0, stockOf(itemId));
+        assertEquals(3, manager(nodeB).leasedStock(itemId));
+        manager(nodeB).returnAll();
+        assertEquals(3, stockOf(itemId));
+    }
+
+    @Test
+    void testExpiredLeaseIsRecoveredFromOrders() throws InterruptedException {
+        Long itemId = createItem(50);
+        Order fromC = placeOrder(nodeC, itemId, 4);
+        assertEquals(40, stockOf(itemId));
+
+        Thread.sleep(2200);
+        assertTrue(manager(nodeA).recoverExpired() >= 1);
+
+        assertEquals(46, stockOf(itemId));
+        assertEquals(StockLease.RECOVERED, leaseStatus(fromC.getLeaseId()));
+        assertTrue(nodeA.getBean(StockService.class).reconcileStock(false).getMismatches().isEmpty());
+
+        // Node C notices its lease is gone and takes a new one without returning the old one twice
+        Order next = placeOrder(nodeC, itemId, 1);
+        assertNotEquals(fromC.getLeaseId(), next.getLeaseId());
+        assertEquals(36, stockOf(itemId));
+        manager(nodeC).returnAll();
+        assertEquals(45, stockOf(itemId));
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId, long ttlMs, long safetyMarginMs) {
+        return new SpringApplicationBuilder(StockServiceApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:lease-cluster;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                                + "DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.jpa.show-sql=false",
+                        "--stock.db-init.enabled=false",
+                        "--stock.lease.enabled=true",
+                        "--stock.lease.node-id=" + nodeId,
+                        "--stock.lease.ttl-ms=" + ttlMs,
+                        "--stock.lease.safety-margin-ms=" + safetyMarginMs,
+                        // Maintenance runs once at startup; the tests drive it from there
+                        "--stock.lease.check-interval-ms=3600000");
+    }
+
+    private static StockLeaseManager manager(ConfigurableApplicationContext node) {
+        return node.getBean(StockLeaseManager.class);
+    }
+
+    // Stock comes from a top-up so the ledger accounts for it
+    private static Long createItem(int stock) {
+        StockService stockService = nodeA.getBean(StockService.class);
+        Item item = stockService.saveItem(new Item(null, "Leased " + orderSeq, 1.0, 0, null, null));
+        stockService.addInventory(new Inventory(null, item.getId(), stock, "T", null));
+        return item.getId();
+    }
+
+    private static Order placeOrder(ConfigurableApplicationContext node, Long itemId, int qty) {
+        return node.getBean(StockService.class)
+                .placeOrder(new Order(null, "LEASE-" + (++orderSeq), itemId, qty, 1.0, null, null));
+    }
+
+    private static int stockOf(Long itemId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM item WHERE id = ?", Integer.class, itemId);
+    }
+
+    private static String leaseStatus(Long leaseId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM stock_lease WHERE id = ?", String.class, leaseId);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.stock.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SampledOutTurboFilterTest {
+
+    private final SampledOutTurboFilter filter = new SampledOutTurboFilter();
+
+    @AfterEach
+    void clearMdc() {
+        MDC.remove(RequestSamplingFilter.MDC_KEY);
+    }
+
+    @Test
+    void testUnsampledRequestDropsInfoButKeepsWarnings() {
+        MDC.put(RequestSamplingFilter.MDC_KEY, "false");
+
+        assertEquals(FilterReply.DENY, filter.decide(null, null, Level.INFO, "msg", null, null));
+        assertEquals(FilterReply.DENY, filter.decide(null, null, Level.DEBUG, "msg", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, null, Level.WARN, "msg", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, null, Level.ERROR, "msg", null, null));
+    }
+
+    @Test
+    void testSampledOrUntrackedRequestIsNotFiltered() {
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, null, Level.INFO, "msg", null, null));
+
+        MDC.put(RequestSamplingFilter.MDC_KEY, "true");
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, null, Level.INFO, "msg", null, null));
+    }
+}
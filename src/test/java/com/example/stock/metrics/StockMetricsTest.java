@@ -0,0 +1,47 @@
+package com.example.stock.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private StockMetrics stockMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        stockMetrics = new StockMetrics();
+        ReflectionTestUtils.setField(stockMetrics, "meterRegistry", registry);
+        ReflectionTestUtils.setField(stockMetrics, "maxItemTags", 2);
+        stockMetrics.init();
+    }
+
+    @Test
+    void testRecordPhase() {
+        stockMetrics.recordPhase(StockMetrics.Phase.ORDER_STOCK_UPDATE, System.nanoTime());
+
+        assertEquals(1, registry.get("stock.phase")
+                .tag("operation", "order").tag("phase", "stock_update").timer().count());
+        assertEquals(0, registry.get("stock.phase")
+                .tag("operation", "order").tag("phase", "insert").timer().count());
+    }
+
+    @Test
+    void testRejectionItemTagsAreCapped() {
+        stockMetrics.recordRejection(StockMetrics.INSUFFICIENT_STOCK, 1L);
+        stockMetrics.recordRejection(StockMetrics.INSUFFICIENT_STOCK, 2L);
+        stockMetrics.recordRejection(StockMetrics.INSUFFICIENT_STOCK, 3L);
+        stockMetrics.recordRejection(StockMetrics.INSUFFICIENT_STOCK, 4L);
+        stockMetrics.recordRejection(StockMetrics.INSUFFICIENT_STOCK, 1L);
+
+        assertEquals(2, registry.get("stock.rejections").tag("item", "1").counter().count());
+        assertEquals(1, registry.get("stock.rejections").tag("item", "2").counter().count());
+        assertEquals(2, registry.get("stock.rejections").tag("item", "other").counter().count());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.stock.repository;
+
+import com.example.stock.id.IdBlockAllocator;
+import com.example.stock.model.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The conditional updates are HQL; run them through Hibernate against H2
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IdBlockAllocator.class)
+class ItemRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testIncrementStock() {
+        Long id = itemRepository.saveAndFlush(new Item(null, "Pen", 5.0, 10, null, null)).getId();
+
+        assertEquals(1, itemRepository.incrementStock(id, 7));
+
+        assertEquals(17, stock(id));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT version FROM item WHERE id = ?", Long.class, id));
+    }
+
+    @Test
+    void testDecrementStockOnlyWhenEnoughIsLeft() {
+        Long id = itemRepository.saveAndFlush(new Item(null, "Book", 10.0, 5, null, null)).getId();
+
+        assertEquals(1, itemRepository.decrementStock(id, 5));
+        assertEquals(0, itemRepository.decrementStock(id, 1));
+        assertEquals(0, itemRepository.decrementStock(id + 1000, 1));
+
+        assertEquals(0, stock(id));
+    }
+
+    private int stock(Long id) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM item WHERE id = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.BatchOrderResult;
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.model.Order;
+import com.example.stock.repository.OrderRepository;
+import com.example.stock.service.strategy.StockMutationStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchOrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private StockMutationStrategy stockMutationStrategy;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @InjectMocks
+    private BatchOrderService batchOrderService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stockMutationStrategy.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(orderRepository.findByOrderNoIn(anyList())).thenReturn(List.of());
+    }
+
+    private Order order(String orderNo, Long itemId, int qty) {
+        Order order = new Order();
+        order.setOrderNo(orderNo);
+        order.setItemId(itemId);
+        order.setQty(qty);
+        order.setPrice(10.0);
+        return order;
+    }
+
+    @Test
+    void testPlaceOrders_OneDeductionPerItem() {
+        List<Order> orders = List.of(order("O1", 1L, 2), order("O2", 1L, 3), order("O3", 2L, 1));
+
+        List<BatchOrderResult> results = batchOrderService.placeOrders(orders);
+
+        assertTrue(results.stream().allMatch(BatchOrderResult::isSuccess));
+        verify(stockMutationStrategy).decrement(1L, 5);
+        verify(stockMutationStrategy).decrement(2L, 1);
+        verify(orderRepository).saveAll(orders);
+    }
+
+    @Test
+    void testPlaceOrders_FallsBackToOrderByOrderWhenGroupDoesNotFit() {
+        List<Order> orders = List.of(order("O1", 1L, 4), order("O2", 1L, 8), order("O3", 1L, 1));
+        // The same item is also decremented with other quantities, which strict stubs would reject
+        lenient().doThrow(new InsufficientStockException("Insufficient stock. Current: 5, Requested: 13"))
+                .when(stockMutationStrategy).decrement(1L, 13);
+        lenient().doThrow(new InsufficientStockException("Insufficient stock. Current: 1, Requested: 8"))
+                .when(stockMutationStrategy).decrement(1L, 8);
+
+        List<BatchOrderResult> results = batchOrderService.placeOrders(orders);
+
+        assertEquals(BatchOrderResult.SUCCESS, results.get(0).getStatus());
+        assertEquals(BatchOrderResult.FAILED, results.get(1).getStatus());
+        assertEquals(BatchOrderResult.SUCCESS, results.get(2).getStatus());
+        verify(orderRepository).saveAll(List.of(orders.get(0), orders.get(2)));
+        verify(salesRollupService).recordOrders(List.of(orders.get(0), orders.get(2)));
+    }
+
+    @Test
+    void testPlaceOrders_RejectsDuplicatesAndUnknownItems() {
+        Order existing = order("O1", 1L, 1);
+        when(orderRepository.findByOrderNoIn(anyList())).thenReturn(List.of(existing));
+        lenient().doThrow(new ResourceNotFoundException("Item not found with id 99"))
+                .when(stockMutationStrategy).decrement(99L, 1);
+        List<Order> orders = List.of(order("O1", 1L, 1), order("O2", 1L, 1), order("O2", 1L, 1),
+                order("O3", 99L, 1), order("O4", 1L, 0));
+
+        List<BatchOrderResult> results = batchOrderService.placeOrders(orders);
+
+        assertEquals(List.of(BatchOrderResult.FAILED, BatchOrderResult.SUCCESS, BatchOrderResult.FAILED,
+                        BatchOrderResult.FAILED, BatchOrderResult.FAILED),
+                results.stream().map(BatchOrderResult::getStatus).toList());
+        verify(stockMutationStrategy).decrement(1L, 1);
+    }
+}
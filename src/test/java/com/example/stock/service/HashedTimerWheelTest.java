@@ -0,0 +1,71 @@
+package com.example.stock.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the wheel with advance() instead of starting its ticker thread
+class HashedTimerWheelTest {
+
+    private final List<Long> fired = new ArrayList<>();
+
+    // 4 buckets of 100 ms, so one turn is 400 ms
+    private final HashedTimerWheel<Long> wheel = new HashedTimerWheel<>(100, 4, fired::add);
+
+    @Test
+    void testFiresOnlyAfterDelay() {
+        wheel.schedule(1L, 1000);
+
+        wheel.advance(nanosFromNow(500));
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(nanosFromNow(1500));
+        assertEquals(List.of(1L), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testDelaysLongerThanOneTurnWaitForTheirRound() {
+        wheel.schedule(1L, 300);
+        wheel.schedule(2L, 2500);
+
+        wheel.advance(nanosFromNow(1000));
+        assertEquals(List.of(1L), fired);
+
+        wheel.advance(nanosFromNow(3000));
+        assertEquals(List.of(1L, 2L), fired);
+    }
+
+    @Test
+    void testCancelledTimeoutNeverFires() {
+        wheel.schedule(1L, 200);
+
+        assertTrue(wheel.cancel(1L));
+        wheel.advance(nanosFromNow(1000));
+
+        assertTrue(fired.isEmpty());
+        assertFalse(wheel.cancel(1L));
+    }
+
+    @Test
+    void testRescheduleReplacesEarlierTimeout() {
+        wheel.schedule(1L, 200);
+        wheel.schedule(1L, 2000);
+
+        wheel.advance(nanosFromNow(1000));
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(nanosFromNow(3000));
+        assertEquals(List.of(1L), fired);
+    }
+
+    private static long nanosFromNow(long millis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
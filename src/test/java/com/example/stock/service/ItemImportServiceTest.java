@@ -0,0 +1,207 @@
+package com.example.stock.service;
+
+import com.example.stock.cache.ItemCache;
+import com.example.stock.cache.ItemSearchIndex;
+import com.example.stock.dto.ExportFormat;
+import com.example.stock.dto.ImportReport;
+import com.example.stock.event.StockChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ItemImportServiceTest {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ItemCache itemCache;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private ItemSearchIndex itemSearchIndex;
+
+    private ItemImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:import-test-schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        itemCache = mock(ItemCache.class);
+        importService = new ItemImportService();
+        ReflectionTestUtils.setField(importService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(importService, "transactionTemplate",
+                new TransactionTemplate(new DataSourceTransactionManager(database)));
+        ReflectionTestUtils.setField(importService, "itemCache", itemCache);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        ReflectionTestUtils.setField(importService, "eventPublisher", eventPublisher);
+        itemSearchIndex = mock(ItemSearchIndex.class);
+        ReflectionTestUtils.setField(importService, "itemSearchIndex", itemSearchIndex);
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testImportCsvInsertsAndUpdatesByName() {
+        ImportReport report = importService.importItems(ExportFormat.CSV, input(
+                "price,name\n"
+                        + "6.5,Pen\n"
+                        + "10,Book\n"
+                        + "30,\"Bag, large\"\n"
+                        + "\n"
+                        + "3,\"Pencil\n2B\"\n"));
+
+        assertEquals(4, report.getRows());
+        assertEquals(3, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(0, report.getFailed());
+        assertEquals(6.5, price("Pen"));
+        assertEquals(30.0, price("Bag, large"));
+        assertEquals(3.0, price("Pencil\n2B"));
+        // Existing stock is left alone
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT stock FROM item WHERE name = 'Pen'", Integer.class));
+        verify(itemCache, atLeastOnce()).evictAll(anyCollection());
+        // New items are announced so they show up as out of stock
+        verify(eventPublisher, times(3)).publishEvent(any(StockChangedEvent.class));
+        verify(itemSearchIndex).put(anyLong(), eq("Bag, large"));
+    }
+
+    @Test
+    void testImportNdjsonReportsInvalidLines() {
+        ImportReport report = importService.importItems(ExportFormat.NDJSON, input(
+                "{\"name\":\"Book\",\"price\":10}\n"
+                        + "{\"name\":\"\",\"price\":1}\n"
+                        + "not json\n"
+                        + "{\"name\":\"Cap\",\"price\":-1}\n"
+                        + "{\"name\":\"Box\",\"price\":\"5\"}\n"));
+
+        assertEquals(5, report.getRows());
+        assertEquals(2, report.getInserted());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(2L, 3L, 4L), report.getErrors().stream().map(ImportReport.LineError::getLine).toList());
+        assertEquals("Name is required", report.getErrors().get(0).getMessage());
+        assertEquals(5.0, price("Box"));
+    }
+
+    @Test
+    void testLaterLineForSameNameWins() {
+        ImportReport report = importService.importItems(ExportFormat.NDJSON, input(
+                "{\"name\":\"Book\",\"price\":10}\n{\"name\":\"Book\",\"price\":12}\n"));
+
+        assertEquals(1, report.getInserted());
+        assertEquals(12.0, price("Book"));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item WHERE name = 'Book'", Integer.class));
+    }
+
+    @Test
+    void testCacheIsEvictedOnceTheBatchIsCommitted() throws Exception {
+        // Another connection only sees the new price once the batch has committed
+        JdbcTemplate otherConnection = new JdbcTemplate(new DriverManagerDataSource(url(), "sa", ""));
+        List<Double> seen = new ArrayList<>();
+        doAnswer(invocation -> seen.add(otherConnection.queryForObject(
+                "SELECT price FROM item WHERE name = 'Pen'", Double.class)))
+                .when(itemCache).evictAll(anyCollection());
+
+        importService.importItems(ExportFormat.CSV, input("name,price\nPen,6.5\n"));
+
+        assertEquals(List.of(6.5), seen);
+    }
+
+    @Test
+    void testEvictionFailureDoesNotRejectCommittedRows() {
+        doThrow(new IllegalStateException("cache unavailable")).when(itemCache).evictAll(anyCollection());
+
+        ImportReport report = importService.importItems(ExportFormat.CSV, input("name,price\nPen,6.5\nBook,10\n"));
+
+        assertEquals(1, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(0, report.getFailed());
+        assertEquals(6.5, price("Pen"));
+    }
+
+    @Test
+    void testNewItemsAreIndexedOnceTheBatchIsCommitted() throws Exception {
+        JdbcTemplate otherConnection = new JdbcTemplate(new DriverManagerDataSource(url(), "sa", ""));
+        List<Integer> seen = new ArrayList<>();
+        doAnswer(invocation -> seen.add(otherConnection.queryForObject(
+                "SELECT COUNT(*) FROM item WHERE id = ?", Integer.class, invocation.<Long>getArgument(0))))
+                .when(itemSearchIndex).put(anyLong(), eq("Book"));
+
+        importService.importItems(ExportFormat.CSV, input("name,price\nBook,10\n"));
+
+        assertEquals(List.of(1), seen);
+    }
+
+    @Test
+    void testIndexingFailureDoesNotRejectCommittedRows() {
+        doThrow(new IllegalStateException("index unavailable")).when(itemSearchIndex).put(anyLong(), anyString());
+
+        ImportReport report = importService.importItems(ExportFormat.CSV, input("name,price\nBook,10\n"));
+
+        assertEquals(1, report.getInserted());
+        assertEquals(0, report.getFailed());
+        assertEquals(10.0, price("Book"));
+        // The cache is still evicted after the failed indexing
+        verify(itemCache).evictAll(anyCollection());
+    }
+
+    @Test
+    void testCsvWithoutRequiredColumnsIsRejected() {
+        ImportReport report = importService.importItems(ExportFormat.CSV, input("title,cost\nPen,5\n"));
+
+        assertEquals(0, report.getRows());
+        assertEquals(1, report.getFailed());
+        assertEquals(1L, report.getErrors().get(0).getLine());
+    }
+
+    private String url() throws SQLException {
+        try (Connection connection = database.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    private Double price(String name) {
+        return jdbcTemplate.queryForObject("SELECT price FROM item WHERE name = ?", Double.class, name);
+    }
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.ExportFormat;
+import com.example.stock.dto.KeysetCursor;
+import com.example.stock.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerArchiveServiceTest {
+
+    @TempDir
+    Path archiveDir;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private LedgerArchiveService archiveService;
+
+    private LedgerExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        // MySQL mode for INSERT ... ON DUPLICATE KEY UPDATE
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:archive-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("archive-test-schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        archiveService = new LedgerArchiveService();
+        ReflectionTestUtils.setField(archiveService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(archiveService, "dataSource", dataSource);
+        ReflectionTestUtils.setField(archiveService, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(archiveService, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(archiveService, "retentionDays", 30);
+        ReflectionTestUtils.setField(archiveService, "purgeBatchSize", 1);
+        // H2 rejects MySQL's Integer.MIN_VALUE streaming hint
+        ReflectionTestUtils.setField(archiveService, "fetchSize", 100);
+        archiveService.init();
+
+        exportService = new LedgerExportService();
+        ReflectionTestUtils.setField(exportService, "dataSource", dataSource);
+        ReflectionTestUtils.setField(exportService, "ledgerArchiveService", archiveService);
+        ReflectionTestUtils.setField(exportService, "fetchSize", 100);
+        exportService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void testArchiveMovesOldDaysOutOfTheTables() throws Exception {
+        Map<String, Object> summary = archiveService.archive();
+
+        // Orders of Jan 1 and Jan 3, inventory of Jan 1 and Jan 2
+        assertEquals(4, summary.get("days"));
+        assertEquals(5L, summary.get("rows"));
+        assertEquals(List.of(4L), jdbcTemplate.queryForList("SELECT id FROM orders", Long.class));
+        assertEquals(List.of(3L), jdbcTemplate.queryForList("SELECT id FROM inventory", Long.class));
+        assertEquals(LocalDateTime.of(2024, 1, 4, 0, 0), archiveService.archivedUntil("orders"));
+        try (var files = Files.list(archiveDir.resolve("orders"))) {
+            assertEquals(2, files.filter(f -> f.toString().endsWith(".ndjson.gz")).count());
+        }
+
+        // Item 1: +10 -3 in, 2 + 4 ordered; item 2: 1 ordered
+        assertEquals(1L, balanceOf(1L));
+        assertEquals(-1L, balanceOf(2L));
+    }
+
+    @Test
+    void testArchiveIsIdempotent() {
+        archiveService.archive();
+
+        Map<String, Object> summary = archiveService.archive();
+
+        assertEquals(0, summary.get("days"));
+        assertEquals(1L, balanceOf(1L));
+    }
+
+    @Test
+    void testExportReadsArchivedDaysThenTheTable() {
+        archiveService.archive();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportOrders(ExportFormat.NDJSON, null, null, null, out);
+
+        assertEquals(4, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("{\"id\":1,\"orderNo\":\"ORD-001\",\"itemId\":1,\"qty\":2,\"price\":5.0,"
+                + "\"createdAt\":\"2024-01-01T10:00\"}", lines[0]);
+        assertTrue(lines[3].startsWith("{\"id\":4,"));
+    }
+
+    @Test
+    void testExportFiltersArchivedRows() {
+        archiveService.archive();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportInventory(ExportFormat.CSV, LocalDateTime.of(2024, 1, 1, 12, 0),
+                null, 1L, out);
+
+        assertEquals(1, rows);
+        assertEquals("id,itemId,qty,type,createdAt\n2,1,3,W,2024-01-02T08:00\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSeekReadsArchivedRowsNewestFirst() {
+        archiveService.archive();
+
+        List<Order> first = archiveService.seekOrders(null, 2);
+        List<Order> rest = archiveService.seekOrders(
+                new KeysetCursor(first.get(1).getCreatedAt(), first.get(1).getId()), 2);
+
+        assertEquals(List.of(3L, 2L), first.stream().map(Order::getId).toList());
+        assertEquals(List.of(1L), rest.stream().map(Order::getId).toList());
+        assertEquals("ORD-001", rest.get(0).getOrderNo());
+        assertEquals(5.0, rest.get(0).getPrice());
+    }
+
+    @Test
+    void testInterruptedPurgeIsFinishedOnTheNextRun() {
+        archiveService.archive();
+        // As if the run had stopped before deleting ORD-003
+        jdbcTemplate.update("INSERT INTO orders VALUES (3, 'ORD-003', 1, 4, 5.0, TIMESTAMP '2024-01-03 09:00:00')");
+        jdbcTemplate.update("UPDATE ledger_archive_balance SET balance = balance + 4 WHERE item_id = 1");
+
+        archiveService.archive();
+
+        assertEquals(List.of(4L), jdbcTemplate.queryForList("SELECT id FROM orders", Long.class));
+        assertEquals(1L, balanceOf(1L));
+    }
+
+    private long balanceOf(Long itemId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM ledger_archive_balance WHERE item_id = ?",
+                Long.class, itemId);
+    }
+}
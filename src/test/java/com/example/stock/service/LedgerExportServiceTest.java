@@ -0,0 +1,81 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.ExportFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LedgerExportServiceTest {
+
+    private EmbeddedDatabase database;
+
+    private LedgerExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:export-test-schema.sql")
+                .build();
+        // Nothing archived: every row comes from the tables
+        LedgerArchiveService archiveService = new LedgerArchiveService();
+        ReflectionTestUtils.setField(archiveService, "jdbcTemplate", new JdbcTemplate(database));
+        exportService = new LedgerExportService();
+        ReflectionTestUtils.setField(exportService, "dataSource", database);
+        ReflectionTestUtils.setField(exportService, "ledgerArchiveService", archiveService);
+        // H2 rejects MySQL's Integer.MIN_VALUE streaming hint
+        ReflectionTestUtils.setField(exportService, "fetchSize", 100);
+        exportService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testExportOrdersAsNdjson() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportOrders(ExportFormat.NDJSON, null, null, null, out);
+
+        assertEquals(3, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"id\":1,\"orderNo\":\"ORD-001\",\"itemId\":1,\"qty\":5,\"price\":50.0,"
+                + "\"createdAt\":\"2024-01-01T10:00\"}", lines[0]);
+    }
+
+    @Test
+    void testExportOrdersFiltersByDateRangeAndItem() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportOrders(ExportFormat.NDJSON, LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 2, 0, 0), 1L, out);
+
+        assertEquals(1, rows);
+    }
+
+    @Test
+    void testExportInventoryAsCsvQuotesSpecialCharacters() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportInventory(ExportFormat.CSV, null, null, null, out);
+
+        assertEquals("id,itemId,qty,type,createdAt\n"
+                + "1,1,10,T,2024-01-01T09:00\n"
+                + "2,2,3,\"W,\"\"x\"\"\",2024-01-02T09:00\n", out.toString(StandardCharsets.UTF_8));
+    }
+}
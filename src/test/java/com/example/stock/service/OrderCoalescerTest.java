@@ -0,0 +1,115 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.BatchOrderResult;
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderCoalescerTest {
+
+    @Mock
+    private BatchOrderService batchOrderService;
+
+    @InjectMocks
+    private OrderCoalescer orderCoalescer;
+
+    @Test
+    void testConcurrentOrdersForSameItemShareOneBatch() throws Exception {
+        // A long window that is cut short once max-batch orders are queued
+        ReflectionTestUtils.setField(orderCoalescer, "windowMs", 5000L);
+        ReflectionTestUtils.setField(orderCoalescer, "maxBatch", 4);
+        when(batchOrderService.placeOrders(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            return orders.stream().map(BatchOrderResult::success).toList();
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Order>> placed = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Order order = order("ORD-" + i, 1);
+            placed.add(pool.submit(() -> orderCoalescer.placeOrder(order)));
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals("ORD-" + i, placed.get(i).get().getOrderNo());
+        }
+        pool.shutdown();
+
+        verify(batchOrderService, times(1)).placeOrders(anyList());
+    }
+
+    @Test
+    void testOrderThatNoLongerFitsGetsItsOwnException() {
+        ReflectionTestUtils.setField(orderCoalescer, "windowMs", 0L);
+        InsufficientStockException shortage = new InsufficientStockException("Insufficient stock. Current: 0, Requested: 5");
+        when(batchOrderService.placeOrders(anyList()))
+                .thenReturn(List.of(BatchOrderResult.failure("ORD-1", shortage)));
+
+        InsufficientStockException thrown = assertThrows(InsufficientStockException.class,
+                () -> orderCoalescer.placeOrder(order("ORD-1", 5)));
+        assertSame(shortage, thrown);
+    }
+
+    @Test
+    void testBatchFailureIsRethrownToCaller() {
+        ReflectionTestUtils.setField(orderCoalescer, "windowMs", 0L);
+        when(batchOrderService.placeOrders(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> orderCoalescer.placeOrder(order("ORD-1", 1)));
+    }
+
+    @Test
+    void testConstraintViolationReachesCallerUnchanged() {
+        ReflectionTestUtils.setField(orderCoalescer, "windowMs", 0L);
+        DataIntegrityViolationException duplicate = new DataIntegrityViolationException("uk_orders_order_no");
+        when(batchOrderService.placeOrders(anyList())).thenReturn(List.of(
+                BatchOrderResult.failure("ORD-1", "Rejected by the database", duplicate)));
+
+        // StockService answers a duplicate order number from the stored order on this exception
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> orderCoalescer.placeOrder(order("ORD-1", 1)));
+        assertSame(duplicate, thrown);
+    }
+
+    @Test
+    void testDrainedQueueIsRemoved() {
+        ReflectionTestUtils.setField(orderCoalescer, "windowMs", 0L);
+        when(batchOrderService.placeOrders(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            return orders.stream().map(BatchOrderResult::success).toList();
+        });
+
+        orderCoalescer.placeOrder(order("ORD-1", 1));
+        orderCoalescer.placeOrder(order("ORD-2", 1));
+
+        Map<?, ?> queues = (Map<?, ?>) ReflectionTestUtils.getField(orderCoalescer, "queues");
+        assertTrue(queues.isEmpty());
+        verify(batchOrderService, times(2)).placeOrders(anyList());
+    }
+
+    private Order order(String orderNo, int qty) {
+        Order order = new Order();
+        order.setOrderNo(orderNo);
+        order.setItemId(1L);
+        order.setQty(qty);
+        order.setPrice(10.0);
+        return order;
+    }
+}
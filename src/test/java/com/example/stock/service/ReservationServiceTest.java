@@ -0,0 +1,208 @@
+package com.example.stock.service;
+
+import com.example.stock.cache.OrderNoIndex;
+import com.example.stock.dto.ReservationConfirmation;
+import com.example.stock.dto.ReservationRequest;
+import com.example.stock.event.StockChangedEvent;
+import com.example.stock.exception.DuplicateOrderException;
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.exception.ReservationNotActiveException;
+import com.example.stock.model.Order;
+import com.example.stock.model.Reservation;
+import com.example.stock.repository.OrderRepository;
+import com.example.stock.repository.ReservationRepository;
+import com.example.stock.service.strategy.StockMutationStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private StockMutationStrategy stockMutationStrategy;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OrderNoIndex orderNoIndex;
+
+    @InjectMocks
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        // Run the unit of work and the transaction callback inline
+        lenient().when(stockMutationStrategy.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            reservation.setId(7L);
+            return reservation;
+        });
+        reservationService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationService.stop();
+    }
+
+    @Test
+    void testHoldTakesStockAndSchedulesExpiry() {
+        Reservation held = reservationService.hold(new ReservationRequest(1L, 3, 99999L));
+
+        assertEquals(Reservation.HELD, held.getStatus());
+        assertEquals(3, held.getQty());
+        // Capped at stock.reservation.max-ttl-seconds
+        assertTrue(held.getExpiresAt().isBefore(LocalDateTime.now().plusSeconds(3601)));
+        verify(stockMutationStrategy).decrement(1L, 3);
+        verify(eventPublisher).publishEvent(new StockChangedEvent(1L));
+        assertEquals(1, reservationService.pendingExpiries());
+    }
+
+    @Test
+    void testHoldWithoutStockSavesNothing() {
+        doThrow(new InsufficientStockException("Insufficient stock")).when(stockMutationStrategy).decrement(1L, 3);
+
+        assertThrows(InsufficientStockException.class,
+                () -> reservationService.hold(new ReservationRequest(1L, 3, null)));
+        verify(reservationRepository, never()).save(any());
+        assertEquals(0, reservationService.pendingExpiries());
+    }
+
+    @Test
+    void testConfirmCreatesOrderWithoutTouchingStock() {
+        reservationService.hold(new ReservationRequest(1L, 3, null));
+        when(reservationRepository.confirm(eq(7L), eq("ORD-1"), any())).thenReturn(1);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(reservation(Reservation.CONFIRMED, "ORD-1")));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order order = reservationService.confirm(7L, new ReservationConfirmation("ORD-1", 5.0));
+
+        assertEquals("ORD-1", order.getOrderNo());
+        assertEquals(1L, order.getItemId());
+        assertEquals(3, order.getQty());
+        assertEquals(5.0, order.getPrice());
+        verify(salesRollupService).recordOrders(List.of(order));
+        verify(orderNoIndex).add("ORD-1");
+        verify(stockMutationStrategy, never()).increment(anyLong(), anyInt());
+        assertEquals(0, reservationService.pendingExpiries());
+    }
+
+    @Test
+    void testConfirmAgainReturnsSameOrder() {
+        Order existing = new Order(10L, "ORD-1", 1L, 3, 5.0, null, null);
+        when(reservationRepository.confirm(eq(7L), eq("ORD-1"), any())).thenReturn(0);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(reservation(Reservation.CONFIRMED, "ORD-1")));
+        when(orderRepository.findByOrderNo("ORD-1")).thenReturn(Optional.of(existing));
+
+        assertSame(existing, reservationService.confirm(7L, new ReservationConfirmation("ORD-1", 5.0)));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void testConfirmAfterExpiryIsRejected() {
+        when(reservationRepository.confirm(eq(7L), eq("ORD-1"), any())).thenReturn(0);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(reservation(Reservation.EXPIRED, null)));
+
+        ReservationNotActiveException e = assertThrows(ReservationNotActiveException.class,
+                () -> reservationService.confirm(7L, new ReservationConfirmation("ORD-1", 5.0)));
+        assertEquals("Reservation 7 is expired", e.getMessage());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void testConfirmWithUsedOrderNumber() {
+        when(reservationRepository.confirm(eq(7L), eq("ORD-1"), any())).thenReturn(1);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(reservation(Reservation.CONFIRMED, "ORD-1")));
+        when(orderRepository.save(any(Order.class))).thenThrow(new DataIntegrityViolationException("order_no"));
+
+        assertThrows(DuplicateOrderException.class,
+                () -> reservationService.confirm(7L, new ReservationConfirmation("ORD-1", 5.0)));
+        verify(orderNoIndex, never()).add(any());
+    }
+
+    @Test
+    void testCancelReturnsStock() {
+        reservationService.hold(new ReservationRequest(1L, 3, null));
+        when(reservationRepository.release(7L, Reservation.CANCELLED)).thenReturn(1);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(reservation(Reservation.CANCELLED, null)));
+
+        Reservation cancelled = reservationService.cancel(7L);
+
+        assertEquals(Reservation.CANCELLED, cancelled.getStatus());
+        verify(stockMutationStrategy).increment(1L, 3);
+        assertEquals(0, reservationService.pendingExpiries());
+    }
+
+    @Test
+    void testCancelConfirmedIsRejected() {
+        when(reservationRepository.release(7L, Reservation.CANCELLED)).thenReturn(0);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(reservation(Reservation.CONFIRMED, "ORD-1")));
+
+        assertThrows(ReservationNotActiveException.class, () -> reservationService.cancel(7L));
+        verify(stockMutationStrategy, never()).increment(anyLong(), anyInt());
+    }
+
+    @Test
+    void testExpireReleasesHeldStockOnce() {
+        when(reservationRepository.release(7L, Reservation.EXPIRED)).thenReturn(1, 0);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(reservation(Reservation.EXPIRED, null)));
+
+        reservationService.expire(7L);
+        reservationService.expire(7L);
+
+        verify(stockMutationStrategy, times(1)).increment(1L, 3);
+        verify(eventPublisher, times(1)).publishEvent(new StockChangedEvent(1L));
+    }
+
+    @Test
+    void testFailedExpiryIsRescheduled() {
+        when(reservationRepository.release(7L, Reservation.EXPIRED)).thenThrow(new QueryTimeoutException("timeout"));
+
+        reservationService.expire(7L);
+
+        assertEquals(1, reservationService.pendingExpiries());
+    }
+
+    private Reservation reservation(String status, String orderNo) {
+        return new Reservation(7L, 1L, 3, status, orderNo, LocalDateTime.now().plusMinutes(5), null);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.DailyItemSales;
+import com.example.stock.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SalesRollupServiceTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+
+    private JdbcTemplate jdbcTemplate;
+
+    private SalesRollupService rollupService;
+
+    private LedgerArchiveService ledgerArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        // MySQL mode for INSERT ... ON DUPLICATE KEY UPDATE
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:rollup-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("rollup-test-schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        rollupService = new SalesRollupService();
+        ReflectionTestUtils.setField(rollupService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(rollupService, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ledgerArchiveService = mock(LedgerArchiveService.class);
+        ReflectionTestUtils.setField(rollupService, "ledgerArchiveService", ledgerArchiveService);
+        rollupService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void testBackfillBuildsRollupFromOrders() {
+        Map<String, Object> summary = rollupService.backfill(null, null);
+
+        assertEquals(3, summary.get("days"));
+        assertEquals(3, summary.get("rows"));
+        List<DailyItemSales> sales = rollupService.findDailySales(JAN_1, JAN_1.plusDays(2), null);
+        assertEquals(List.of(
+                new DailyItemSales(1L, JAN_1, 5, 25.0),
+                new DailyItemSales(2L, JAN_1, 1, 10.0),
+                new DailyItemSales(1L, JAN_1.plusDays(2), 4, 20.0)), sales);
+    }
+
+    @Test
+    void testBackfillReplacesStaleRows() {
+        jdbcTemplate.update("INSERT INTO daily_item_sales VALUES (1, DATE '2024-01-01', 99, 999.0)");
+        jdbcTemplate.update("INSERT INTO daily_item_sales VALUES (3, DATE '2024-01-01', 1, 1.0)");
+
+        rollupService.backfill(JAN_1, JAN_1);
+
+        assertEquals(List.of(new DailyItemSales(1L, JAN_1, 5, 25.0)),
+                rollupService.findDailySales(JAN_1, JAN_1, 1L));
+        assertTrue(rollupService.findDailySales(JAN_1, JAN_1, 3L).isEmpty());
+    }
+
+    @Test
+    void testBackfillKeepsArchivedDays() {
+        jdbcTemplate.update("INSERT INTO daily_item_sales VALUES (1, DATE '2024-01-01', 99, 999.0)");
+        when(ledgerArchiveService.archivedUntil("orders")).thenReturn(JAN_1.plusDays(1).atStartOfDay());
+
+        Map<String, Object> summary = rollupService.backfill(null, null);
+
+        assertEquals(2, summary.get("days"));
+        assertEquals(List.of(new DailyItemSales(1L, JAN_1, 99, 999.0)),
+                rollupService.findDailySales(JAN_1, JAN_1, 1L));
+    }
+
+    @Test
+    void testRecordOrdersAddsToTodaysRow() {
+        LocalDate today = jdbcTemplate.queryForObject("SELECT CURRENT_DATE", Date.class).toLocalDate();
+
+        rollupService.recordOrders(List.of(order(1L, 2, 5.0), order(1L, 1, 5.0), order(2L, 3, 10.0)));
+        rollupService.recordOrders(List.of(order(1L, 1, 5.0)));
+
+        assertEquals(List.of(new DailyItemSales(1L, today, 4, 20.0), new DailyItemSales(2L, today, 3, 30.0)),
+                rollupService.findDailySales(today, today, null));
+    }
+
+    @Test
+    void testRecordAdjustmentCorrectsTheOrderDay() {
+        rollupService.backfill(JAN_1, JAN_1);
+
+        // ORD-002 went from 3 to 1 unit
+        rollupService.recordAdjustment(1L, LocalDateTime.of(2024, 1, 1, 18, 0), -2, -10.0);
+
+        assertEquals(List.of(new DailyItemSales(1L, JAN_1, 3, 15.0)),
+                rollupService.findDailySales(JAN_1, JAN_1, 1L));
+    }
+
+    private Order order(Long itemId, int qty, double price) {
+        Order order = new Order();
+        order.setItemId(itemId);
+        order.setQty(qty);
+        order.setPrice(price);
+        return order;
+    }
+}
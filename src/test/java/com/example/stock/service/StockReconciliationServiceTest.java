@@ -0,0 +1,108 @@
+package com.example.stock.service;
+
+import com.example.stock.dto.ReconciliationReport;
+import com.example.stock.engine.InMemoryStockEngine;
+import com.example.stock.event.StockChangedEvent;
+import com.example.stock.exception.StockRepairUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class StockReconciliationServiceTest {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private StockReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:reconcile-test-schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        reconciliationService = new StockReconciliationService();
+        ReflectionTestUtils.setField(reconciliationService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(reconciliationService, "transactionManager",
+                new DataSourceTransactionManager(database));
+        ReflectionTestUtils.setField(reconciliationService, "eventPublisher", eventPublisher);
+        // Several chunks even for this small table
+        ReflectionTestUtils.setField(reconciliationService, "chunkSize", 2);
+        reconciliationService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testReconcileReportsDriftWithoutRepairing() {
+        ReconciliationReport report = reconciliationService.reconcile(false);
+
+        assertEquals(3, report.getItemsChecked());
+        assertTrue(report.getChunks() > 1);
+        assertEquals(2, report.getMismatches().size());
+        assertEquals(2L, report.getMismatches().get(0).getItemId());
+        assertEquals(7, report.getMismatches().get(0).getRecorded());
+        assertEquals(2L, report.getMismatches().get(0).getExpected());
+        assertEquals(5L, report.getMismatches().get(1).getItemId());
+        assertEquals(0L, report.getMismatches().get(1).getExpected());
+        assertEquals(0, report.getRepaired());
+        assertEquals(7, stockOf(2L));
+        verify(eventPublisher, never()).publishEvent(new StockChangedEvent(2L));
+    }
+
+    @Test
+    void testReconcileRepairsDriftedItems() {
+        ReconciliationReport report = reconciliationService.reconcile(true);
+
+        assertEquals(2, report.getRepaired());
+        assertEquals(4, stockOf(1L));
+        assertEquals(2, stockOf(2L));
+        assertEquals(0, stockOf(5L));
+        verify(eventPublisher).publishEvent(new StockChangedEvent(2L));
+        assertTrue(reconciliationService.reconcile(false).getMismatches().isEmpty());
+    }
+
+    @Test
+    void testReconcileOnEmptyCatalogue() {
+        jdbcTemplate.update("DELETE FROM item");
+
+        ReconciliationReport report = reconciliationService.reconcile(false);
+
+        assertEquals(0, report.getItemsChecked());
+        assertTrue(report.getMismatches().isEmpty());
+    }
+
+    @Test
+    void testRepairRejectedInMemoryEngineMode() {
+        ReflectionTestUtils.setField(reconciliationService, "stockEngine", mock(InMemoryStockEngine.class));
+
+        assertThrows(StockRepairUnavailableException.class, () -> reconciliationService.reconcile(true));
+    }
+
+    private int stockOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM item WHERE id = ?", Integer.class, id);
+    }
+}
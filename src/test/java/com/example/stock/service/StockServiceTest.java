@@ -1,29 +1,54 @@
 package com.example.stock.service;
 
+import com.example.stock.cache.ItemCache;
+import com.example.stock.cache.ItemSearchIndex;
+import com.example.stock.cache.LowStockIndex;
+import com.example.stock.cache.OrderNoIndex;
+import com.example.stock.dto.BatchOrderResult;
+import com.example.stock.dto.KeysetCursor;
+import com.example.stock.dto.ReservationRequest;
+import com.example.stock.event.StockChangedEvent;
+import com.example.stock.exception.DuplicateOrderException;
 import com.example.stock.exception.InsufficientStockException;
 import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.feed.StockChangeFeed;
+import com.example.stock.metrics.StockMetrics;
 import com.example.stock.model.Inventory;
 import com.example.stock.model.Item;
 import com.example.stock.model.Order;
 import com.example.stock.repository.InventoryRepository;
 import com.example.stock.repository.ItemRepository;
 import com.example.stock.repository.OrderRepository;
+import com.example.stock.service.strategy.StockMutationStrategy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +63,45 @@ class StockServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private StockMutationStrategy stockMutationStrategy;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BatchOrderService batchOrderService;
+
+    @Mock
+    private ItemCache itemCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StockMetrics stockMetrics;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OrderNoIndex orderNoIndex;
+
+    @Mock
+    private StockChangeFeed stockChangeFeed;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private LedgerArchiveService ledgerArchiveService;
+
     @InjectMocks
     private StockService stockService;
 
@@ -45,6 +109,12 @@ class StockServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Run the unit of work and the transaction callback inline
+        lenient().when(stockMutationStrategy.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         sampleItem = new Item();
         sampleItem.setId(1L);
         sampleItem.setName("Test Item");
@@ -58,18 +128,18 @@ class StockServiceTest {
     void testGetAllItems() {
         Pageable pageable = PageRequest.of(0, 10);
         Page<Item> itemPage = new PageImpl<>(Collections.singletonList(sampleItem));
-        when(itemRepository.findAll(pageable)).thenReturn(itemPage);
+        when(itemCache.getPage(pageable)).thenReturn(itemPage);
 
         Page<Item> result = stockService.getAllItems(pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(itemRepository).findAll(pageable);
+        verify(itemCache).getPage(pageable);
     }
 
     @Test
     void testGetItem_Found() {
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
+        when(itemCache.get(1L)).thenReturn(Optional.of(sampleItem));
 
         Optional<Item> result = stockService.getItem(1L);
 
@@ -79,7 +149,7 @@ class StockServiceTest {
 
     @Test
     void testGetItem_NotFound() {
-        when(itemRepository.findById(99L)).thenReturn(Optional.empty());
+        when(itemCache.get(99L)).thenReturn(Optional.empty());
 
         Optional<Item> result = stockService.getItem(99L);
 
@@ -95,6 +165,20 @@ class StockServiceTest {
         assertNotNull(result);
         assertEquals(1L, result.getId());
         verify(itemRepository).save(sampleItem);
+        verify(itemCache).put(sampleItem);
+        verify(itemSearchIndex).put(1L, "Test Item");
+    }
+
+    @Test
+    void testSearchItems() {
+        when(itemSearchIndex.search("test", 20L, 10))
+                .thenReturn(new ItemSearchIndex.SearchResult(List.of(1L), 21));
+        when(itemCache.getAll(List.of(1L))).thenReturn(List.of(sampleItem));
+
+        Page<Item> result = stockService.searchItems("test", PageRequest.of(2, 10));
+
+        assertEquals(21, result.getTotalElements());
+        assertEquals(List.of(sampleItem), result.getContent());
     }
 
     @Test
@@ -102,6 +186,7 @@ class StockServiceTest {
         Item updateDetails = new Item();
         updateDetails.setName("Updated Name");
         updateDetails.setPrice(20.0);
+        updateDetails.setReorderPoint(10);
 
         when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
         when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -111,6 +196,8 @@ class StockServiceTest {
         assertEquals("Updated Name", sampleItem.getName()); // Assertions changed to use sampleItem directly
         assertEquals(20.0, sampleItem.getPrice());
         assertEquals(100, sampleItem.getStock()); // Stock should not change
+        assertEquals(10, sampleItem.getReorderPoint());
+        verify(stockChangeFeed).markChanged(1L);
     }
 
     @Test
@@ -127,6 +214,9 @@ class StockServiceTest {
         stockService.deleteItem(1L);
 
         verify(itemRepository).deleteById(1L);
+        verify(itemCache).evict(1L);
+        verify(itemSearchIndex).remove(1L);
+        verify(stockChangeFeed).markChanged(1L);
     }
 
     // --- INVENTORY TESTS ---
@@ -138,15 +228,12 @@ class StockServiceTest {
         inventory.setQty(50);
         inventory.setType("T");
 
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
-        when(itemRepository.save(any(Item.class))).thenReturn(sampleItem);
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
 
         Inventory result = stockService.addInventory(inventory);
 
         assertNotNull(result);
-        assertEquals(150, sampleItem.getStock()); // 100 + 50
-        verify(itemRepository).save(sampleItem);
+        verify(stockMutationStrategy).increment(1L, 50);
         verify(inventoryRepository).save(inventory);
     }
 
@@ -157,14 +244,12 @@ class StockServiceTest {
         inventory.setQty(50);
         inventory.setType("W");
 
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
-        when(itemRepository.save(any(Item.class))).thenReturn(sampleItem);
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
 
         stockService.addInventory(inventory);
 
-        assertEquals(50, sampleItem.getStock()); // 100 - 50
-        verify(itemRepository).save(sampleItem);
+        verify(stockMutationStrategy).decrement(1L, 50);
+        verify(inventoryRepository).save(inventory);
     }
 
     @Test
@@ -174,12 +259,12 @@ class StockServiceTest {
         inventory.setQty(150); // More than 100
         inventory.setType("W");
 
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
+        doThrow(new InsufficientStockException("Insufficient stock. Current: 100, Requested: 150"))
+                .when(stockMutationStrategy).decrement(1L, 150);
 
         assertThrows(InsufficientStockException.class, () -> stockService.addInventory(inventory));
 
-        assertEquals(100, sampleItem.getStock()); // Should remain unchanged
-        verify(itemRepository, never()).save(any(Item.class));
+        verify(inventoryRepository, never()).save(any(Inventory.class));
     }
 
     @Test
@@ -189,9 +274,10 @@ class StockServiceTest {
         inventory.setQty(10);
         inventory.setType("X"); // Invalid
 
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
-
         assertThrows(IllegalArgumentException.class, () -> stockService.addInventory(inventory));
+
+        verify(stockMutationStrategy, never()).increment(anyLong(), anyInt());
+        verify(stockMutationStrategy, never()).decrement(anyLong(), anyInt());
     }
 
     // --- ORDER TESTS ---
@@ -204,16 +290,18 @@ class StockServiceTest {
         order.setQty(10);
         order.setPrice(100.0);
 
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
-        when(itemRepository.save(any(Item.class))).thenReturn(sampleItem);
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         Order result = stockService.placeOrder(order);
 
         assertNotNull(result);
-        assertEquals(90, sampleItem.getStock()); // 100 - 10
-        verify(itemRepository).save(sampleItem);
+        verify(stockMutationStrategy).decrement(1L, 10);
         verify(orderRepository).save(order);
+        verify(salesRollupService).recordOrders(List.of(order));
+        verify(orderNoIndex).add("ORD-001");
+        verify(stockMetrics).recordPhase(eq(StockMetrics.Phase.ORDER_STOCK_UPDATE), anyLong());
+        verify(stockMetrics).recordPhase(eq(StockMetrics.Phase.ORDER_INSERT), anyLong());
+        verify(eventPublisher).publishEvent(new StockChangedEvent(1L));
     }
 
     @Test
@@ -223,11 +311,175 @@ class StockServiceTest {
         order.setItemId(1L);
         order.setQty(200); // More than 100
 
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
+        doThrow(new InsufficientStockException("Insufficient stock. Current: 100, Requested: 200"))
+                .when(stockMutationStrategy).decrement(1L, 200);
 
         assertThrows(InsufficientStockException.class, () -> stockService.placeOrder(order));
 
-        assertEquals(100, sampleItem.getStock());
         verify(orderRepository, never()).save(any(Order.class));
+        verify(stockMetrics).recordRejection(StockMetrics.INSUFFICIENT_STOCK, 1L);
+    }
+
+    @Test
+    void testPlaceOrder_ItemNotFound() {
+        Order order = new Order();
+        order.setOrderNo("ORD-003");
+        order.setItemId(99L);
+        order.setQty(1);
+
+        doThrow(new ResourceNotFoundException("Item not found with id 99"))
+                .when(stockMutationStrategy).decrement(99L, 1);
+
+        assertThrows(ResourceNotFoundException.class, () -> stockService.placeOrder(order));
+
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(stockMetrics).recordRejection(StockMetrics.NOT_FOUND, 99L);
+    }
+
+    @Test
+    void testGetOrdersAfter_FetchesOneExtraRowToDetectNextPage() {
+        Order first = new Order();
+        first.setId(3L);
+        Order second = new Order();
+        second.setId(2L);
+        Order extra = new Order();
+        extra.setId(1L);
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 1, 1, 12, 0), 4L);
+
+        when(orderRepository.findKeysetPageAfter(cursor.createdAt(), 4L, 3)).thenReturn(List.of(first, second, extra));
+
+        Slice<Order> result = stockService.getOrdersAfter(cursor, 2);
+
+        assertTrue(result.hasNext());
+        assertEquals(List.of(first, second), result.getContent());
+        verify(orderRepository, never()).findFirstKeysetPage(anyInt());
+    }
+
+    @Test
+    void testGetOrdersAfter_LastPage() {
+        Order only = new Order();
+        only.setId(1L);
+
+        when(orderRepository.findFirstKeysetPage(3)).thenReturn(List.of(only));
+
+        Slice<Order> result = stockService.getOrdersAfter(null, 2);
+
+        assertFalse(result.hasNext());
+        assertEquals(1, result.getNumberOfElements());
+    }
+
+    @Test
+    void testGetOrdersAfter_ContinuesIntoArchive() {
+        Order hot = new Order(5L, "O5", 1L, 1, 5.0, LocalDateTime.of(2024, 1, 3, 9, 0), null);
+        Order awaitingPurge = new Order(4L, "O4", 1L, 2, 5.0, LocalDateTime.of(2024, 1, 1, 9, 0), null);
+        Order archived = new Order(4L, "O4", 1L, 2, 5.0, LocalDateTime.of(2024, 1, 1, 9, 0), null);
+
+        when(orderRepository.findFirstKeysetPage(3)).thenReturn(List.of(hot, awaitingPurge));
+        when(ledgerArchiveService.archivedUntil("orders")).thenReturn(LocalDateTime.of(2024, 1, 2, 0, 0));
+        when(ledgerArchiveService.seekOrders(new KeysetCursor(hot.getCreatedAt(), 5L), 2)).thenReturn(List.of(archived));
+
+        Slice<Order> result = stockService.getOrdersAfter(null, 2);
+
+        assertFalse(result.hasNext());
+        assertEquals(2, result.getNumberOfElements());
+        assertSame(hot, result.getContent().get(0));
+        assertSame(archived, result.getContent().get(1));
+    }
+
+    @Test
+    void testPlaceOrders_DelegatesToBatchService() {
+        Order order = new Order();
+        order.setOrderNo("ORD-004");
+        order.setItemId(1L);
+        order.setQty(1);
+        order.setPrice(10.0);
+        List<BatchOrderResult> expected = List.of(BatchOrderResult.success(order));
+        when(batchOrderService.placeOrders(List.of(order))).thenReturn(expected);
+
+        List<BatchOrderResult> result = stockService.placeOrders(List.of(order));
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void testUpdateOrder_AdjustsSalesRollup() {
+        LocalDateTime placedAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Order existing = new Order(5L, "ORD-005", 1L, 2, 10.0, placedAt, null);
+        when(orderRepository.findById(5L)).thenReturn(Optional.of(existing));
+        when(orderRepository.save(existing)).thenReturn(existing);
+        Order details = new Order();
+        details.setQty(3);
+        details.setPrice(12.0);
+
+        Order result = stockService.updateOrder(5L, details);
+
+        assertEquals(3, result.getQty());
+        // 2 x 10.0 became 3 x 12.0
+        verify(salesRollupService).recordAdjustment(1L, placedAt, 1L, 16.0);
+    }
+
+    @Test
+    void testDeleteOrder_RemovesItFromSalesRollup() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        LocalDateTime placedAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Order existing = new Order(5L, "ORD-005", 1L, 2, 10.0, placedAt, null);
+        when(orderRepository.findById(5L)).thenReturn(Optional.of(existing));
+
+        stockService.deleteOrder(5L);
+
+        verify(orderRepository).delete(existing);
+        verify(salesRollupService).recordAdjustment(1L, placedAt, -2L, -20.0);
+    }
+
+    @Test
+    void testPlaceOrder_KnownOrderNoReplaysOriginalWithoutStockWork() {
+        Order original = new Order(7L, "ORD-007", 1L, 2, 10.0, LocalDateTime.of(2024, 1, 1, 10, 0), null);
+        when(orderNoIndex.contains("ORD-007")).thenReturn(true);
+        when(orderRepository.findByOrderNo("ORD-007")).thenReturn(Optional.of(original));
+
+        Order result = stockService.placeOrder(new Order(null, "ORD-007", 1L, 2, 10.0, null, null));
+
+        assertSame(original, result);
+        verifyNoInteractions(stockMutationStrategy);
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void testPlaceOrder_KnownOrderNoWithDifferentContentIsRejected() {
+        Order original = new Order(7L, "ORD-007", 1L, 2, 10.0, LocalDateTime.of(2024, 1, 1, 10, 0), null);
+        when(orderNoIndex.contains("ORD-007")).thenReturn(true);
+        when(orderRepository.findByOrderNo("ORD-007")).thenReturn(Optional.of(original));
+
+        assertThrows(DuplicateOrderException.class,
+                () -> stockService.placeOrder(new Order(null, "ORD-007", 1L, 5, 10.0, null, null)));
+
+        verifyNoInteractions(stockMutationStrategy);
+        verify(stockMetrics).recordRejection(StockMetrics.DUPLICATE_ORDER, 1L);
+    }
+
+    @Test
+    void testPlaceOrder_UniqueIndexViolationReplaysOriginal() {
+        Order original = new Order(7L, "ORD-007", 1L, 2, 10.0, LocalDateTime.of(2024, 1, 1, 10, 0), null);
+        when(orderRepository.save(any(Order.class))).thenThrow(new DataIntegrityViolationException("order_no"));
+        when(orderRepository.findByOrderNo("ORD-007")).thenReturn(Optional.of(original));
+
+        Order result = stockService.placeOrder(new Order(null, "ORD-007", 1L, 2, 10.0, null, null));
+
+        assertSame(original, result);
+        verify(orderNoIndex).add("ORD-007");
+    }
+
+    // --- RESERVATION TESTS ---
+
+    @Test
+    void testHoldStock_InsufficientStockIsCounted() {
+        ReservationRequest request = new ReservationRequest(1L, 500, null);
+        when(reservationService.hold(request)).thenThrow(new InsufficientStockException("Insufficient stock"));
+
+        assertThrows(InsufficientStockException.class, () -> stockService.holdStock(request));
+        verify(stockMetrics).recordRejection(StockMetrics.INSUFFICIENT_STOCK, 1L);
     }
 }
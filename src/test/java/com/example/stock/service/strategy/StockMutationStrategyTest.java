@@ -0,0 +1,140 @@
+package com.example.stock.service.strategy;
+
+import com.example.stock.exception.ConcurrentStockUpdateException;
+import com.example.stock.exception.InsufficientStockException;
+import com.example.stock.exception.ResourceNotFoundException;
+import com.example.stock.model.Item;
+import com.example.stock.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockMutationStrategyTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private AtomicUpdateStockMutationStrategy atomicStrategy;
+
+    @InjectMocks
+    private PessimisticLockStockMutationStrategy pessimisticStrategy;
+
+    @InjectMocks
+    private OptimisticVersionStockMutationStrategy optimisticStrategy;
+
+    private Item sampleItem;
+
+    @BeforeEach
+    void setUp() {
+        sampleItem = new Item();
+        sampleItem.setId(1L);
+        sampleItem.setName("Test Item");
+        sampleItem.setPrice(10.0);
+        sampleItem.setStock(100);
+        sampleItem.setVersion(0L);
+    }
+
+    // --- ATOMIC ---
+
+    @Test
+    void testAtomicDecrement_Success() {
+        when(itemRepository.decrementStock(1L, 10)).thenReturn(1);
+
+        atomicStrategy.decrement(1L, 10);
+
+        verify(itemRepository, never()).findById(any());
+    }
+
+    @Test
+    void testAtomicDecrement_InsufficientStock() {
+        when(itemRepository.decrementStock(1L, 200)).thenReturn(0);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
+
+        assertThrows(InsufficientStockException.class, () -> atomicStrategy.decrement(1L, 200));
+    }
+
+    @Test
+    void testAtomicDecrement_NotFound() {
+        when(itemRepository.decrementStock(99L, 1)).thenReturn(0);
+        when(itemRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> atomicStrategy.decrement(99L, 1));
+    }
+
+    @Test
+    void testAtomicIncrement_NotFound() {
+        when(itemRepository.incrementStock(99L, 5)).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> atomicStrategy.increment(99L, 5));
+    }
+
+    // --- PESSIMISTIC ---
+
+    @Test
+    void testPessimisticDecrement_Success() {
+        when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(sampleItem));
+
+        pessimisticStrategy.decrement(1L, 10);
+
+        assertEquals(90, sampleItem.getStock());
+    }
+
+    @Test
+    void testPessimisticDecrement_InsufficientStock() {
+        when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(sampleItem));
+
+        assertThrows(InsufficientStockException.class, () -> pessimisticStrategy.decrement(1L, 200));
+        assertEquals(100, sampleItem.getStock());
+    }
+
+    // --- OPTIMISTIC ---
+
+    @Test
+    void testOptimisticDecrement_Success() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(sampleItem));
+
+        optimisticStrategy.decrement(1L, 10);
+
+        assertEquals(90, sampleItem.getStock());
+        verify(itemRepository).saveAndFlush(sampleItem);
+    }
+
+    @Test
+    void testOptimisticExecute_RetriesOnConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = optimisticStrategy.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Item.class, 1L);
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testOptimisticExecute_GivesUp() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConcurrentStockUpdateException.class, () -> optimisticStrategy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Item.class, 1L);
+        }));
+        assertEquals(5, attempts.get());
+    }
+}
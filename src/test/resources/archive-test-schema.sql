@@ -0,0 +1,42 @@
+CREATE TABLE orders (
+    id BIGINT PRIMARY KEY,
+    order_no VARCHAR(50) NOT NULL,
+    item_id BIGINT NOT NULL,
+    qty INT NOT NULL,
+    price DOUBLE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE inventory (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    qty INT NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE ledger_archive (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ledger VARCHAR(20) NOT NULL,
+    partition_date DATE NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    row_count BIGINT NOT NULL,
+    max_id BIGINT NOT NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_ledger_archive_day UNIQUE (ledger, partition_date)
+);
+
+CREATE TABLE ledger_archive_balance (
+    item_id BIGINT NOT NULL PRIMARY KEY,
+    balance BIGINT NOT NULL DEFAULT 0
+);
+
+-- Two old days of orders with a gap between them, and one recent order
+INSERT INTO orders VALUES (1, 'ORD-001', 1, 2, 5.0, TIMESTAMP '2024-01-01 10:00:00');
+INSERT INTO orders VALUES (2, 'ORD-002', 2, 1, 10.0, TIMESTAMP '2024-01-01 12:00:00');
+INSERT INTO orders VALUES (3, 'ORD-003', 1, 4, 5.0, TIMESTAMP '2024-01-03 09:00:00');
+INSERT INTO orders (id, order_no, item_id, qty, price) VALUES (4, 'ORD-004', 1, 1, 5.0);
+
+INSERT INTO inventory VALUES (1, 1, 10, 'T', TIMESTAMP '2024-01-01 08:00:00');
+INSERT INTO inventory VALUES (2, 1, 3, 'W', TIMESTAMP '2024-01-02 08:00:00');
+INSERT INTO inventory (id, item_id, qty, type) VALUES (3, 2, 5, 'T');
@@ -0,0 +1,32 @@
+CREATE TABLE orders (
+    id BIGINT PRIMARY KEY,
+    order_no VARCHAR(50) NOT NULL,
+    item_id BIGINT NOT NULL,
+    qty INT NOT NULL,
+    price DOUBLE NOT NULL,
+    created_at TIMESTAMP
+);
+
+CREATE TABLE inventory (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    qty INT NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    created_at TIMESTAMP
+);
+
+CREATE TABLE ledger_archive (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ledger VARCHAR(20) NOT NULL,
+    partition_date DATE NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    row_count BIGINT NOT NULL,
+    max_id BIGINT NOT NULL
+);
+
+INSERT INTO orders VALUES (1, 'ORD-001', 1, 5, 50.0, TIMESTAMP '2024-01-01 10:00:00');
+INSERT INTO orders VALUES (2, 'ORD-002', 2, 1, 10.0, TIMESTAMP '2024-01-01 11:00:00');
+INSERT INTO orders VALUES (3, 'ORD-003', 1, 2, 20.0, TIMESTAMP '2024-01-03 10:00:00');
+
+INSERT INTO inventory VALUES (1, 1, 10, 'T', TIMESTAMP '2024-01-01 09:00:00');
+INSERT INTO inventory VALUES (2, 2, 3, 'W,"x"', TIMESTAMP '2024-01-02 09:00:00');
@@ -0,0 +1,64 @@
+CREATE TABLE item (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    price DOUBLE NOT NULL,
+    stock INT DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE orders (
+    id BIGINT PRIMARY KEY,
+    order_no VARCHAR(50) NOT NULL,
+    item_id BIGINT NOT NULL,
+    qty INT NOT NULL,
+    price DOUBLE NOT NULL,
+    lease_id BIGINT
+);
+
+CREATE TABLE inventory (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    qty INT NOT NULL,
+    type VARCHAR(10) NOT NULL
+);
+
+CREATE TABLE reservation (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    qty INT NOT NULL,
+    status VARCHAR(10) NOT NULL
+);
+
+CREATE TABLE stock_lease (
+    id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    granted INT NOT NULL,
+    status VARCHAR(10) NOT NULL
+);
+
+CREATE TABLE ledger_archive_balance (
+    item_id BIGINT PRIMARY KEY,
+    balance BIGINT NOT NULL
+);
+
+-- Item 1 is consistent: 10 in, 2 out, 5 ordered (2 from a lease of 3), 1 still held, 1 leased,
+-- and 3 more from archived days
+INSERT INTO item VALUES (1, 'Pen', 1.0, 4, 0);
+INSERT INTO inventory VALUES (1, 1, 10, 'T');
+INSERT INTO inventory VALUES (2, 1, 2, 'W');
+INSERT INTO orders VALUES (1, 'ORD-001', 1, 3, 3.0, NULL);
+INSERT INTO orders VALUES (2, 'ORD-002', 1, 2, 2.0, 1);
+INSERT INTO reservation VALUES (1, 1, 1, 'HELD');
+INSERT INTO reservation VALUES (2, 1, 3, 'CONFIRMED');
+INSERT INTO reservation VALUES (3, 1, 6, 'EXPIRED');
+INSERT INTO stock_lease VALUES (1, 1, 3, 'ACTIVE');
+INSERT INTO stock_lease VALUES (2, 1, 4, 'RETURNED');
+INSERT INTO ledger_archive_balance VALUES (1, 3);
+
+-- Item 2 drifted: the ledger says 4 in, 2 of them leased out
+INSERT INTO item VALUES (2, 'Book', 5.0, 7, 0);
+INSERT INTO inventory VALUES (3, 2, 4, 'T');
+INSERT INTO stock_lease VALUES (3, 2, 2, 'ACTIVE');
+
+-- Item 5 has no ledger rows at all
+INSERT INTO item VALUES (5, 'Cup', 2.0, 1, 0);
@@ -0,0 +1,21 @@
+CREATE TABLE orders (
+    id BIGINT PRIMARY KEY,
+    order_no VARCHAR(50) NOT NULL,
+    item_id BIGINT NOT NULL,
+    qty INT NOT NULL,
+    price DOUBLE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE daily_item_sales (
+    item_id BIGINT NOT NULL,
+    sale_date DATE NOT NULL,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue DOUBLE NOT NULL DEFAULT 0,
+    PRIMARY KEY (item_id, sale_date)
+);
+
+INSERT INTO orders VALUES (1, 'ORD-001', 1, 2, 5.0, TIMESTAMP '2024-01-01 10:00:00');
+INSERT INTO orders VALUES (2, 'ORD-002', 1, 3, 5.0, TIMESTAMP '2024-01-01 18:00:00');
+INSERT INTO orders VALUES (3, 'ORD-003', 2, 1, 10.0, TIMESTAMP '2024-01-01 12:00:00');
+INSERT INTO orders VALUES (4, 'ORD-004', 1, 4, 5.0, TIMESTAMP '2024-01-03 09:00:00');
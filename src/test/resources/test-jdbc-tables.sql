@@ -0,0 +1,36 @@
+-- Tables written with plain JDBC and created by db-init.sql in production.
+-- Hibernate creates the entity tables in the test profile; these run after it.
+
+CREATE TABLE IF NOT EXISTS daily_item_sales (
+    item_id BIGINT NOT NULL,
+    sale_date DATE NOT NULL,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue DOUBLE NOT NULL DEFAULT 0,
+    PRIMARY KEY (item_id, sale_date)
+);
+
+CREATE TABLE IF NOT EXISTS ledger_archive (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ledger VARCHAR(20) NOT NULL,
+    partition_date DATE NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    row_count BIGINT NOT NULL,
+    max_id BIGINT NOT NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_ledger_archive_day UNIQUE (ledger, partition_date)
+);
+
+CREATE TABLE IF NOT EXISTS ledger_archive_balance (
+    item_id BIGINT NOT NULL PRIMARY KEY,
+    balance BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS stock_journal_checkpoint (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    applied_seq BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    gen_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);